@@ -0,0 +1,45 @@
+package com.bankapp.account_core;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.FullyQualifiedAnnotationBeanNameGenerator;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Despliegue combinado de balance, depósito y retiro en una sola JVM: un pool de conexiones, un
+ * metamodelo de Hibernate, una caché de saldos y una bitácora compartidos. Cada servicio conserva sus
+ * controladores bajo su propio prefijo (ver {@link ServicePathPrefixes}).
+ * <p>
+ * Los servicios repiten nombres de clase (AccountRepository, IdempotencyRecordRepository, ...), así que los beans
+ * se nombran por su nombre completamente calificado, tanto los escaneados como los repositorios.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(
+        nameGenerator = FullyQualifiedAnnotationBeanNameGenerator.class,
+        basePackages = {"com.bankapp.account_core", "com.bankapp.core",
+                "com.bankapp.balance_service", "com.bankapp.deposit_service", "com.bankapp.withdrawal_service"},
+        excludeFilters = {
+                @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+                @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+                // Las clases principales de cada servicio declaran su propio escaneo.
+                @ComponentScan.Filter(type = FilterType.ANNOTATION, classes = SpringBootApplication.class)
+        })
+@EntityScan("com.bankapp.core.model")
+@EnableJpaRepositories(nameGenerator = FullyQualifiedAnnotationBeanNameGenerator.class,
+        basePackages = {"com.bankapp.balance_service.repository", "com.bankapp.deposit_service.repository",
+                "com.bankapp.withdrawal_service.repository"})
+public class AccountCoreApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(AccountCoreApplication.class, args);
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.bankapp.account_core;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerTypePredicate;
+import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Los tres servicios publican sus endpoints en la raíz; en el despliegue combinado cada uno queda bajo
+ * el prefijo de su servicio ({@code /balance}, {@code /deposit}, {@code /withdrawal}).
+ */
+@Configuration
+public class ServicePathPrefixes implements WebMvcConfigurer {
+
+    @Override
+    public void configurePathMatch(PathMatchConfigurer configurer) {
+        configurer.addPathPrefix("/balance", HandlerTypePredicate.forBasePackage("com.bankapp.balance_service"));
+        configurer.addPathPrefix("/deposit", HandlerTypePredicate.forBasePackage("com.bankapp.deposit_service"));
+        configurer.addPathPrefix("/withdrawal", HandlerTypePredicate.forBasePackage("com.bankapp.withdrawal_service"));
+    }
+}
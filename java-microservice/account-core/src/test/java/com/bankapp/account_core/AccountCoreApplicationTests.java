@@ -0,0 +1,14 @@
+package com.bankapp.account_core;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+// Arranca por main() para usar el mismo generador de nombres de beans que el despliegue.
+@SpringBootTest(useMainMethod = SpringBootTest.UseMainMethod.ALWAYS)
+class AccountCoreApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
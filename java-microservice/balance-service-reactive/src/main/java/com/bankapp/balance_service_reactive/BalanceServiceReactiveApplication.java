@@ -0,0 +1,18 @@
+package com.bankapp.balance_service_reactive;
+
+import com.bankapp.core.utils.TransactionLogger;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+// No escanea com.bankapp.core: sus filtros, el conversor JSON y el calentamiento dependen de Servlet y JPA.
+// De bankapp-core solo se registra la bitácora de auditoría.
+@SpringBootApplication
+@Import(TransactionLogger.class)
+public class BalanceServiceReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(BalanceServiceReactiveApplication.class, args);
+	}
+
+}
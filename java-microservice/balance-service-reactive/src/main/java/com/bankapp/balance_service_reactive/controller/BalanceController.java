@@ -0,0 +1,113 @@
+package com.bankapp.balance_service_reactive.controller;
+
+import com.bankapp.balance_service_reactive.dto.AccountBalanceDataDTO;
+import com.bankapp.balance_service_reactive.dto.ApiResponseDTO;
+import com.bankapp.balance_service_reactive.service.DefaultBalanceService;
+import com.bankapp.balance_service_reactive.utils.OperationMetrics;
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.utils.RequestHeaders;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+@RestController
+@RequestMapping("/")
+@Tag(name = "Balance Service", description = "Endpoints para consulta de saldo de cuentas")
+@SecurityRequirement(name = "bearerAuth")
+public class BalanceController {
+    private final DefaultBalanceService balanceService;
+    private final OperationMetrics operationMetrics;
+    private static final Logger controllerLog = LoggerFactory.getLogger(BalanceController.class);
+
+    @Autowired
+    public BalanceController(DefaultBalanceService balanceService, OperationMetrics operationMetrics) {
+        this.balanceService = balanceService;
+        this.operationMetrics = operationMetrics;
+    }
+
+    @Operation(
+            summary = "Consultar saldo de la cuenta del usuario autenticado",
+            description = "Obtiene el saldo y detalles de la cuenta asociada al usuario autenticado, el cual es identificado por el header 'X-User-ID' inyectado por el API Gateway."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Saldo obtenido exitosamente.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Solicitud incorrecta (ej. X-User-ID con formato incorrecto).",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "No autorizado (falta el header X-User-ID).",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "403", description = "Prohibido (ej. la cuenta del usuario no está activa).",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "No encontrado (ej. no se encontró una cuenta para el X-User-ID proporcionado).",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class)))
+    })
+    @GetMapping
+    public Mono<ResponseEntity<ApiResponseDTO<AccountBalanceDataDTO>>> getAccountBalance(
+            @Parameter(in = ParameterIn.HEADER, name = "X-User-ID", required = true,
+                    description = "ID del usuario (PostgreSQL ID) inyectado por el API Gateway después de la autenticación.",
+                    schema = @Schema(type = "string"), example = "1")
+            @RequestHeader(value = "X-User-ID", required = false) String userIdString,
+            ServerHttpRequest request) {
+        controllerLog.info("Received request to get account balance for X-User-ID: {}", userIdString);
+        // Misma respuesta que da balance-service ante MissingRequestHeaderException.
+        if (userIdString == null) {
+            controllerLog.warn("Missing request header: X-User-ID");
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponseDTO.fail(null, "Información de identificación del usuario no proporcionada.")));
+        }
+
+        long started = System.nanoTime();
+        Long userId;
+        String clientIp;
+        try {
+            userId = RequestHeaders.parseUserId(userIdString);
+            clientIp = RequestHeaders.resolveClientIp(request.getHeaders().getFirst("X-Forwarded-For"), remoteAddress(request));
+        } catch (RuntimeException e) {
+            operationMetrics.recordRequest(OperationMetrics.Outcome.of(e), started, 0L);
+            throw e;
+        }
+        controllerLog.debug("Client IP determined as: {}", clientIp);
+        long parsed = System.nanoTime();
+
+        return balanceService.getAccountBalance(userId, clientIp)
+                .map(result -> {
+                    if (result instanceof OperationResult.Rejected<AccountBalanceDataDTO> rejected) {
+                        operationMetrics.recordRequest(OperationMetrics.Outcome.of(rejected.reason()), started, parsed);
+                        controllerLog.warn("Balance inquiry rejected for user ID {} ({}): {}", userId, rejected.reason(), rejected.message());
+                        return ResponseEntity.status(rejected.reason().getHttpStatus())
+                                .body(ApiResponseDTO.<AccountBalanceDataDTO>fail(null, rejected.message()));
+                    }
+                    operationMetrics.recordRequest(OperationMetrics.Outcome.SUCCESS, started, parsed);
+                    controllerLog.info("Successfully retrieved balance for user ID: {}", userId);
+                    return ResponseEntity.ok(ApiResponseDTO.success(((OperationResult.Success<AccountBalanceDataDTO>) result).value()));
+                })
+                .doOnError(e -> operationMetrics.recordRequest(OperationMetrics.Outcome.of(e), started, parsed));
+    }
+
+    private static String remoteAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return null;
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
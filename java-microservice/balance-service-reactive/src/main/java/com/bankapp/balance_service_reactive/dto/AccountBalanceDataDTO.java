@@ -0,0 +1,18 @@
+package com.bankapp.balance_service_reactive.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountBalanceDataDTO {
+    private Long accountId;
+    private String accountNumber;
+    private String accountType;
+    private BigDecimal balance;
+    private String currency;
+    private String status;
+}
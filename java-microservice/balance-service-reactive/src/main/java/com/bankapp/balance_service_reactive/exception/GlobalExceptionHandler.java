@@ -0,0 +1,47 @@
+package com.bankapp.balance_service_reactive.exception;
+
+import com.bankapp.balance_service_reactive.dto.ApiResponseDTO;
+import com.bankapp.core.exception.InvalidInputException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebInputException;
+
+// Mismos códigos HTTP y cuerpos que GlobalExceptionHandler de balance-service para los errores que alcanzan
+// a esta variante; los rechazos de negocio no pasan por aquí, el controlador los responde directamente.
+@ControllerAdvice(basePackages = "com.bankapp.balance_service_reactive")
+public class GlobalExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    @ExceptionHandler(InvalidInputException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleInvalidInputException(InvalidInputException ex) {
+        log.warn("Invalid input provided: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.fail(null, ex.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleIllegalArgumentException(IllegalArgumentException ex) {
+        log.warn("Illegal argument provided (generic): {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.fail(null, ex.getMessage()));
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleServerWebInputException(ServerWebInputException ex) {
+        log.warn("Invalid request input: {}", ex.getReason());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.fail(null, ex.getReason()));
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleGlobalException(Exception ex) {
+        log.error("Ocurrió un error inesperado:", ex);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponseDTO.error("Ocurrió un error interno inesperado en el servidor."));
+    }
+}
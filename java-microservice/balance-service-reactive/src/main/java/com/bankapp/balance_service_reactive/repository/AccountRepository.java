@@ -0,0 +1,44 @@
+package com.bankapp.balance_service_reactive.repository;
+
+import com.bankapp.balance_service_reactive.dto.AccountBalanceDataDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Misma proyección que {@code AccountRepository.findBalanceByUserId} de balance-service, escrita en SQL
+ * sobre R2DBC: la fila se lee directamente al DTO sin pasar por entidades. Se apoya en el índice
+ * idx_accounts_user_id.
+ */
+@Repository
+public class AccountRepository {
+    private static final String FIND_BALANCE_BY_USER_ID = """
+            SELECT id, account_number, account_type, balance, currency, status
+            FROM bankapp.accounts
+            WHERE user_id = $1
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public AccountRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    // Vacío si el usuario no tiene cuenta; error si tiene más de una, igual que la consulta JPA.
+    public Mono<AccountBalanceDataDTO> findBalanceByUserId(Long userId) {
+        return databaseClient.sql(FIND_BALANCE_BY_USER_ID)
+                .bind(0, userId)
+                .map(row -> new AccountBalanceDataDTO(
+                        row.get("id", Long.class),
+                        row.get("account_number", String.class),
+                        row.get("account_type", String.class),
+                        row.get("balance", BigDecimal.class),
+                        row.get("currency", String.class),
+                        row.get("status", String.class)))
+                .one();
+    }
+}
@@ -0,0 +1,9 @@
+package com.bankapp.balance_service_reactive.service;
+
+import com.bankapp.balance_service_reactive.dto.AccountBalanceDataDTO;
+import com.bankapp.core.result.OperationResult;
+import reactor.core.publisher.Mono;
+
+public interface BalanceService {
+    Mono<OperationResult<AccountBalanceDataDTO>> getAccountBalance(Long userId, String clientIp);
+}
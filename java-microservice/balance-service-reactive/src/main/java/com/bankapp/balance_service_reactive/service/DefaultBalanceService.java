@@ -0,0 +1,89 @@
+package com.bankapp.balance_service_reactive.service;
+
+import com.bankapp.balance_service_reactive.dto.AccountBalanceDataDTO;
+import com.bankapp.balance_service_reactive.repository.AccountRepository;
+import com.bankapp.balance_service_reactive.utils.OperationMetrics;
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.result.Rejection;
+import com.bankapp.core.utils.TransactionLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+public class DefaultBalanceService implements BalanceService {
+    private final AccountRepository accountRepository;
+    private final TransactionLogger transactionLogger;
+    private final OperationMetrics operationMetrics;
+    private static final Logger serviceLog = LoggerFactory.getLogger(DefaultBalanceService.class);
+
+    @Autowired
+    public DefaultBalanceService(AccountRepository accountRepository, TransactionLogger transactionLogger,
+                                 OperationMetrics operationMetrics) {
+        this.accountRepository = accountRepository;
+        this.transactionLogger = transactionLogger;
+        this.operationMetrics = operationMetrics;
+    }
+
+    // Mismas reglas, mensajes y entradas de auditoría que DefaultBalanceService de balance-service.
+    // Nada bloquea: la consulta se suscribe en el event loop y el resultado llega en el hilo de R2DBC.
+    @Override
+    public Mono<OperationResult<AccountBalanceDataDTO>> getAccountBalance(Long userId, String clientIp) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            serviceLog.info("Attempting balance inquiry for user {}.", userId);
+
+            if (userId == null) {
+                String logMessage = "User ID not provided for balance inquiry (X-User-ID header might be missing or empty).";
+                transactionLogger.logOperation(null, "BALANCE_INQUIRY", null, "INVALID_ATTEMPT", clientIp, logMessage);
+                operationMetrics.recordService(OperationMetrics.Outcome.INVALID_INPUT, started, 0L, 0L, 0L);
+                return Mono.just(rejected(userId, Rejection.INVALID_INPUT, logMessage));
+            }
+            long validated = System.nanoTime();
+
+            return accountRepository.findBalanceByUserId(userId)
+                    .map(balance -> evaluate(userId, clientIp, balance, started, validated))
+                    .switchIfEmpty(Mono.fromSupplier(() -> accountNotFound(userId, clientIp, started, validated)))
+                    .doOnError(e -> {
+                        transactionLogger.logOperation(userId, "BALANCE_INQUIRY", null, "SYSTEM_ERROR", clientIp,
+                                "Unexpected error during balance inquiry for user {}: {}", userId, e.getMessage());
+                        serviceLog.error("Unexpected error during balance inquiry for user {}: {}", userId, e.getMessage(), e);
+                        operationMetrics.recordService(OperationMetrics.Outcome.of(e), started, validated, 0L, 0L);
+                    });
+        });
+    }
+
+    private OperationResult<AccountBalanceDataDTO> evaluate(Long userId, String clientIp, AccountBalanceDataDTO balance,
+                                                            long started, long validated) {
+        long loaded = System.nanoTime();
+        Long accountId = balance.getAccountId();
+
+        if (!"active".equalsIgnoreCase(balance.getStatus()) && !"pending_activation".equalsIgnoreCase(balance.getStatus())) {
+            String logMessage = String.format("Balance inquiry not permitted: Account %s (User: %s) is not active or pending activation. Current status: %s.",
+                    accountId, userId, balance.getStatus());
+            transactionLogger.logOperation(userId, "BALANCE_INQUIRY", accountId, "ACCOUNT_INACTIVE", clientIp, logMessage);
+            operationMetrics.recordService(OperationMetrics.Outcome.ACCOUNT_INACTIVE, started, validated, loaded, 0L);
+            return rejected(userId, Rejection.ACCOUNT_INACTIVE, logMessage);
+        }
+
+        transactionLogger.logOperation(userId, "BALANCE_INQUIRY", accountId, "SUCCESS", clientIp,
+                "Balance inquiry successful for account {} of user {}.", accountId, userId);
+        operationMetrics.recordService(OperationMetrics.Outcome.SUCCESS, started, validated, loaded, System.nanoTime());
+        return OperationResult.success(balance);
+    }
+
+    private OperationResult<AccountBalanceDataDTO> accountNotFound(Long userId, String clientIp, long started, long validated) {
+        long loaded = System.nanoTime();
+        String logMessage = String.format("No account found for user %s.", userId);
+        transactionLogger.logOperation(userId, "BALANCE_INQUIRY", null, "ACCOUNT_NOT_FOUND", clientIp, logMessage);
+        operationMetrics.recordService(OperationMetrics.Outcome.ACCOUNT_NOT_FOUND, started, validated, loaded, 0L);
+        return rejected(userId, Rejection.ACCOUNT_NOT_FOUND, logMessage);
+    }
+
+    private static <T> OperationResult<T> rejected(Long userId, Rejection reason, String message) {
+        serviceLog.warn("Balance inquiry rejected for user {}: {}", userId, message);
+        return OperationResult.rejected(reason, message);
+    }
+}
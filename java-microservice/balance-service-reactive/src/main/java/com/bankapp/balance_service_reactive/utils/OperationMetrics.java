@@ -0,0 +1,80 @@
+package com.bankapp.balance_service_reactive.utils;
+
+import com.bankapp.core.exception.InvalidInputException;
+import com.bankapp.core.result.Rejection;
+import com.bankapp.core.utils.StageTimers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Temporizadores por etapa de la consulta de saldo no bloqueante. Publica el mismo
+ * {@code bankapp.operation.stage} con la misma operación que balance-service para comparar ambas variantes
+ * bajo la misma carga; no hay etapa CACHE_LOOKUP (esta variante no tiene caché) ni SERIALIZATION
+ * (la escritura del cuerpo la hace el codificador de WebFlux fuera del controlador).
+ * <p>
+ * En el camino reactivo cada etapa se mide entre marcas de {@link System#nanoTime()}, de modo que el tiempo
+ * que la consulta pasa esperando a PostgreSQL cuenta en ACCOUNT_LOOKUP aunque no ocupe ningún hilo.
+ */
+@Component
+public class OperationMetrics extends StageTimers<OperationMetrics.Stage, OperationMetrics.Outcome> {
+    public static final String OPERATION = "BALANCE_INQUIRY";
+
+    public enum Stage {
+        // Lectura de X-User-ID e IP de origen en el controlador.
+        HEADERS,
+        VALIDATION,
+        // Proyección por user_id sobre R2DBC.
+        ACCOUNT_LOOKUP,
+        AUDIT_LOG,
+        // Desde la suscripción al servicio hasta su resultado.
+        SERVICE
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        INVALID_INPUT,
+        ACCOUNT_NOT_FOUND,
+        ACCOUNT_INACTIVE,
+        SYSTEM_ERROR;
+
+        public static Outcome of(Throwable failure) {
+            if (failure == null) {
+                return SUCCESS;
+            }
+            if (failure instanceof InvalidInputException || failure instanceof IllegalArgumentException) {
+                return INVALID_INPUT;
+            }
+            return SYSTEM_ERROR;
+        }
+
+        public static Outcome of(Rejection rejection) {
+            return switch (rejection) {
+                case INVALID_INPUT -> INVALID_INPUT;
+                case ACCOUNT_NOT_FOUND -> ACCOUNT_NOT_FOUND;
+                case ACCOUNT_INACTIVE -> ACCOUNT_INACTIVE;
+                // La consulta de saldo nunca rechaza por fondos insuficientes ni queda sin aplicar.
+                case INSUFFICIENT_FUNDS, NOT_APPLIED -> SYSTEM_ERROR;
+            };
+        }
+    }
+
+    @Autowired
+    public OperationMetrics(MeterRegistry meterRegistry,
+                            @Value("${bankapp.metrics.percentiles:0.5,0.95,0.99}") double[] percentiles,
+                            @Value("${bankapp.metrics.percentile-histogram:false}") boolean percentileHistogram) {
+        super(meterRegistry, OPERATION, Stage.class, Outcome.class, Stage.HEADERS, Stage.SERVICE, null,
+                percentiles, percentileHistogram);
+    }
+
+    /**
+     * Registra las etapas internas del servicio a partir de las marcas tomadas al terminar cada una;
+     * una marca en 0 indica que la etapa no llegó a completarse.
+     */
+    public void recordService(Outcome outcome, long started, long validated, long loaded, long audited) {
+        recordBetween(Stage.VALIDATION, outcome, started, validated);
+        recordBetween(Stage.ACCOUNT_LOOKUP, outcome, validated, loaded);
+        recordBetween(Stage.AUDIT_LOG, outcome, loaded, audited);
+    }
+}
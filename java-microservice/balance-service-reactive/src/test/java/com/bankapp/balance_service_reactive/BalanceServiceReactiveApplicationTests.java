@@ -0,0 +1,13 @@
+package com.bankapp.balance_service_reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class BalanceServiceReactiveApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
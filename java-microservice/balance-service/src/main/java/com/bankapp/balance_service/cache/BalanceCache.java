@@ -0,0 +1,70 @@
+package com.bankapp.balance_service.cache;
+
+import com.bankapp.balance_service.dto.AccountBalanceDataDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caché en proceso de saldos por userId, acotada por tamaño y TTL.
+ * Las invalidaciones llegan desde {@link BalanceChangeListener}; los sellos por franja evitan
+ * que una lectura iniciada antes de una invalidación vuelva a poblar la caché con un saldo viejo.
+ */
+@Component
+public class BalanceCache {
+    private static final int STAMP_STRIPES = 1024;
+
+    private final Cache<Long, AccountBalanceDataDTO> cache;
+    private final AtomicLongArray invalidationStamps = new AtomicLongArray(STAMP_STRIPES);
+
+    @Autowired
+    public BalanceCache(@Value("${bankapp.balance.cache.maximum-size:100000}") long maximumSize,
+                        @Value("${bankapp.balance.cache.ttl-ms:5000}") long ttlMs,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "balances");
+    }
+
+    public AccountBalanceDataDTO get(Long userId) {
+        return cache.getIfPresent(userId);
+    }
+
+    // Debe leerse antes de consultar la base de datos y pasarse luego a putIfNotInvalidated.
+    public long stamp(Long userId) {
+        return invalidationStamps.get(stripe(userId));
+    }
+
+    public void putIfNotInvalidated(Long userId, long stamp, AccountBalanceDataDTO balance) {
+        cache.put(userId, balance);
+        if (invalidationStamps.get(stripe(userId)) != stamp) {
+            cache.invalidate(userId);
+        }
+    }
+
+    public void invalidate(Long userId) {
+        invalidationStamps.incrementAndGet(stripe(userId));
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < STAMP_STRIPES; i++) {
+            invalidationStamps.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STAMP_STRIPES - 1);
+    }
+}
@@ -0,0 +1,118 @@
+package com.bankapp.balance_service.cache;
+
+import com.bankapp.balance_service.stream.BalanceStreamRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Escucha el canal de PostgreSQL en el que deposit-service y withdrawal-service publican (vía NOTIFY,
+ * al confirmar la transacción) el userId cuyo saldo cambió, invalida la entrada correspondiente y avisa a
+ * las conexiones de {@code GET /stream} del usuario.
+ * Usa una conexión dedicada fuera del pool para no retener una conexión de las consultas.
+ */
+@Component
+public class BalanceChangeListener {
+    public static final String CHANNEL = "bankapp_balance_changed";
+
+    private static final Logger listenerLog = LoggerFactory.getLogger(BalanceChangeListener.class);
+
+    private final BalanceCache balanceCache;
+    private final BalanceStreamRegistry streamRegistry;
+    private final DataSourceProperties dataSourceProperties;
+    private final int pollTimeoutMs;
+    private final long reconnectDelayMs;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Autowired
+    public BalanceChangeListener(BalanceCache balanceCache, BalanceStreamRegistry streamRegistry,
+                                 DataSourceProperties dataSourceProperties,
+                                 @Value("${bankapp.balance.cache.listener.poll-timeout-ms:500}") int pollTimeoutMs,
+                                 @Value("${bankapp.balance.cache.listener.reconnect-delay-ms:1000}") long reconnectDelayMs) {
+        this.balanceCache = balanceCache;
+        this.streamRegistry = streamRegistry;
+        this.dataSourceProperties = dataSourceProperties;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "balance-change-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Las notificaciones emitidas mientras no había conexión se perdieron.
+                balanceCache.invalidateAll();
+                streamRegistry.publishAll();
+                listenerLog.info("Listening for balance changes on channel {}.", CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                balanceCache.invalidateAll();
+                listenerLog.warn("Balance change listener connection lost: {}. Retrying in {} ms.", e.getMessage(), reconnectDelayMs);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        try {
+            Long userId = Long.parseLong(payload);
+            balanceCache.invalidate(userId);
+            streamRegistry.publish(userId);
+        } catch (NumberFormatException e) {
+            listenerLog.warn("Ignoring balance change notification with invalid payload: {}", payload);
+        }
+    }
+}
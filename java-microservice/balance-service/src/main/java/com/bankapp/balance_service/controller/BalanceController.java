@@ -2,9 +2,11 @@ package com.bankapp.balance_service.controller;
 
 import com.bankapp.balance_service.dto.AccountBalanceDataDTO;
 import com.bankapp.balance_service.dto.ApiResponseDTO;
-import com.bankapp.balance_service.exception.InvalidInputException;
-
 import com.bankapp.balance_service.service.DefaultBalanceService;
+import com.bankapp.balance_service.stream.BalanceStreamRegistry;
+import com.bankapp.balance_service.utils.OperationMetrics;
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.utils.RequestHeaders;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -15,11 +17,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/")
@@ -27,11 +36,16 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "bearerAuth")
 public class BalanceController {
     private final DefaultBalanceService balanceService;
+    private final OperationMetrics operationMetrics;
+    private final BalanceStreamRegistry streamRegistry;
     private static final Logger controllerLog = LoggerFactory.getLogger(BalanceController.class);
 
     @Autowired
-    public BalanceController(DefaultBalanceService balanceService) {
+    public BalanceController(DefaultBalanceService balanceService, OperationMetrics operationMetrics,
+                             BalanceStreamRegistry streamRegistry) {
         this.balanceService = balanceService;
+        this.operationMetrics = operationMetrics;
+        this.streamRegistry = streamRegistry;
     }
 
     @Operation(
@@ -61,26 +75,91 @@ public class BalanceController {
             @RequestHeader("X-User-ID") String userIdString,
             HttpServletRequest request) {
         controllerLog.info("Received request to get account balance for X-User-ID: {}", userIdString);
-        Long userId;
+        long started = System.nanoTime();
+        long parsed = 0L;
+        OperationMetrics.Outcome outcome = OperationMetrics.Outcome.SUCCESS;
         try {
-            if (userIdString == null || userIdString.trim().isEmpty()) {
-                controllerLog.warn("X-User-ID header is missing or empty.");
-                throw new InvalidInputException("X-User-ID header is missing or empty.");
+            Long userId = RequestHeaders.parseUserId(userIdString);
+            String clientIp = RequestHeaders.resolveClientIp(request);
+            controllerLog.debug("Client IP determined as: {}", clientIp);
+            parsed = System.nanoTime();
+            OperationResult<AccountBalanceDataDTO> result = balanceService.getAccountBalance(userId, clientIp);
+            if (result instanceof OperationResult.Rejected<AccountBalanceDataDTO> rejected) {
+                outcome = OperationMetrics.Outcome.of(rejected.reason());
+                controllerLog.warn("Balance inquiry rejected for user ID {} ({}): {}", userId, rejected.reason(), rejected.message());
+                // Mismo código HTTP y cuerpo que producía GlobalExceptionHandler con la excepción equivalente.
+                return ResponseEntity.status(rejected.reason().getHttpStatus())
+                        .body(ApiResponseDTO.fail(null, rejected.message()));
             }
-            userId = Long.parseLong(userIdString.trim());
-        } catch (NumberFormatException e) {
-            controllerLog.warn("X-User-ID header contains an invalid user ID format: {}", userIdString, e);
-            throw new InvalidInputException("X-User-ID header contains an invalid user ID format.");
+            controllerLog.info("Successfully retrieved balance for user ID: {}", userId);
+            return ResponseEntity.ok(ApiResponseDTO.success(((OperationResult.Success<AccountBalanceDataDTO>) result).value()));
+        } catch (RuntimeException | Error e) {
+            outcome = OperationMetrics.Outcome.of(e);
+            throw e;
+        } finally {
+            operationMetrics.recordRequest(request, outcome, started, parsed);
         }
-        String clientIp = request.getHeader("X-Forwarded-For");
-        if (clientIp == null || clientIp.isEmpty() || "unknown".equalsIgnoreCase(clientIp)) {
-            clientIp = request.getRemoteAddr();
-        } else {
-            clientIp = clientIp.split(",")[0].trim();
+    }
+
+    @Operation(
+            summary = "Recibir el saldo de la cuenta en vivo (Server-Sent Events)",
+            description = "Abre un flujo text/event-stream que envía un evento 'balance' con el saldo actual y otro cada vez que un depósito o retiro lo modifica. "
+                    + "Si el cliente lee más lento de lo que cambia el saldo solo recibe el último valor. Los rechazos se devuelven con su código HTTP y un único evento 'error'."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flujo abierto; cada evento 'balance' contiene un AccountBalanceDataDTO.",
+                    content = @Content(mediaType = "text/event-stream", schema = @Schema(implementation = AccountBalanceDataDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Solicitud incorrecta (ej. X-User-ID con formato incorrecto o faltante).",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "403", description = "Prohibido (ej. la cuenta del usuario no está activa).",
+                    content = @Content(mediaType = "text/event-stream", schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "No encontrado (ej. no se encontró una cuenta para el X-User-ID proporcionado).",
+                    content = @Content(mediaType = "text/event-stream", schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "503", description = "La instancia ya tiene abierto el máximo de flujos permitido.",
+                    content = @Content(mediaType = "text/event-stream", schema = @Schema(implementation = ApiResponseDTO.class)))
+    })
+    @GetMapping("/stream")
+    public SseEmitter streamAccountBalance(
+            @Parameter(in = ParameterIn.HEADER, name = "X-User-ID", required = true,
+                    description = "ID del usuario (PostgreSQL ID) inyectado por el API Gateway después de la autenticación.",
+                    schema = @Schema(type = "string"), example = "1")
+            @RequestHeader("X-User-ID") String userIdString,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        controllerLog.info("Received request to stream account balance for X-User-ID: {}", userIdString);
+        long started = System.nanoTime();
+        long parsed = 0L;
+        OperationMetrics.Outcome outcome = OperationMetrics.Outcome.SUCCESS;
+        try {
+            Long userId = RequestHeaders.parseUserId(userIdString);
+            String clientIp = RequestHeaders.resolveClientIp(request);
+            parsed = System.nanoTime();
+            OperationResult<AccountBalanceDataDTO> result = balanceService.getAccountBalance(userId, clientIp);
+            if (result instanceof OperationResult.Rejected<AccountBalanceDataDTO> rejected) {
+                outcome = OperationMetrics.Outcome.of(rejected.reason());
+                controllerLog.warn("Balance stream rejected for user ID {} ({}): {}", userId, rejected.reason(), rejected.message());
+                return rejectedStream(response, rejected.reason().getHttpStatus(), rejected.message());
+            }
+            Optional<SseEmitter> emitter = streamRegistry.subscribe(userId, ((OperationResult.Success<AccountBalanceDataDTO>) result).value());
+            if (emitter.isEmpty()) {
+                outcome = OperationMetrics.Outcome.SYSTEM_ERROR;
+                return rejectedStream(response, HttpStatus.SERVICE_UNAVAILABLE, "Se alcanzó el máximo de flujos de saldo abiertos. Intente nuevamente en unos instantes.");
+            }
+            controllerLog.info("Balance stream opened for user ID: {}", userId);
+            return emitter.get();
+        } catch (RuntimeException | Error e) {
+            outcome = OperationMetrics.Outcome.of(e);
+            throw e;
+        } finally {
+            operationMetrics.recordRequest(request, outcome, started, parsed);
         }
-        controllerLog.debug("Client IP determined as: {}", clientIp);
-        AccountBalanceDataDTO balanceResponse = balanceService.getAccountBalance(userId, clientIp);
-        controllerLog.info("Successfully retrieved balance for user ID: {}", userId);
-        return ResponseEntity.ok(ApiResponseDTO.success(balanceResponse));
+    }
+
+    // El código HTTP hace que EventSource no reintente; el evento lleva el mismo cuerpo que la consulta normal.
+    private static SseEmitter rejectedStream(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        SseEmitter emitter = new SseEmitter();
+        emitter.send(SseEmitter.event().name("error").data(ApiResponseDTO.fail(null, message), MediaType.APPLICATION_JSON));
+        emitter.complete();
+        return emitter;
     }
 }
@@ -0,0 +1,76 @@
+package com.bankapp.balance_service.dto;
+
+import com.bankapp.core.utils.JsonDecimals;
+import com.bankapp.core.utils.ResponseJsonWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Escribe {@code ApiResponseDTO<AccountBalanceDataDTO>} (o sin data) igual que Jackson: mismo orden de campos,
+ * con los nulos incluidos y el saldo como número. Los nombres de campo van codificados de antemano.
+ */
+@Component
+public class ApiResponseJsonWriter implements ResponseJsonWriter {
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString DATA = new SerializedString("data");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString ACCOUNT_ID = new SerializedString("accountId");
+    private static final SerializableString ACCOUNT_NUMBER = new SerializedString("accountNumber");
+    private static final SerializableString ACCOUNT_TYPE = new SerializedString("accountType");
+    private static final SerializableString BALANCE = new SerializedString("balance");
+    private static final SerializableString CURRENCY = new SerializedString("currency");
+
+    @Override
+    public Class<?> responseType() {
+        return ApiResponseDTO.class;
+    }
+
+    @Override
+    public boolean canWrite(Object response) {
+        Object data = ((ApiResponseDTO<?>) response).getData();
+        return data == null || data.getClass() == AccountBalanceDataDTO.class;
+    }
+
+    @Override
+    public void write(Object response, JsonGenerator generator) throws IOException {
+        ApiResponseDTO<?> envelope = (ApiResponseDTO<?>) response;
+        generator.writeStartObject();
+        generator.writeFieldName(STATUS);
+        generator.writeString(envelope.getStatus());
+        generator.writeFieldName(DATA);
+        if (envelope.getData() instanceof AccountBalanceDataDTO data) {
+            generator.writeStartObject();
+            generator.writeFieldName(ACCOUNT_ID);
+            if (data.getAccountId() != null) {
+                generator.writeNumber(data.getAccountId());
+            } else {
+                generator.writeNull();
+            }
+            generator.writeFieldName(ACCOUNT_NUMBER);
+            generator.writeString(data.getAccountNumber());
+            generator.writeFieldName(ACCOUNT_TYPE);
+            generator.writeString(data.getAccountType());
+            generator.writeFieldName(BALANCE);
+            char[] scratch = JsonDecimals.allocScratch(generator);
+            try {
+                JsonDecimals.writeNumber(generator, data.getBalance(), scratch);
+            } finally {
+                JsonDecimals.releaseScratch(generator, scratch);
+            }
+            generator.writeFieldName(CURRENCY);
+            generator.writeString(data.getCurrency());
+            generator.writeFieldName(STATUS);
+            generator.writeString(data.getStatus());
+            generator.writeEndObject();
+        } else {
+            generator.writeNull();
+        }
+        generator.writeFieldName(MESSAGE);
+        generator.writeString(envelope.getMessage());
+        generator.writeEndObject();
+    }
+}
@@ -1,6 +1,10 @@
 package com.bankapp.balance_service.exception;
 
 import com.bankapp.balance_service.dto.ApiResponseDTO;
+import com.bankapp.core.exception.AccountNotActiveException;
+import com.bankapp.core.exception.InvalidInputException;
+import com.bankapp.core.exception.ResourceNotFoundException;
+import com.bankapp.core.exception.UnauthorizedAccessException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -10,7 +14,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
-@ControllerAdvice
+@ControllerAdvice(basePackages = "com.bankapp.balance_service")
 public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
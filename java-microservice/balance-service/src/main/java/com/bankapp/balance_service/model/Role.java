@@ -1,34 +0,0 @@
-package com.bankapp.balance_service.model;
-
-import jakarta.persistence.*;
-import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Size;
-import lombok.*;
-
-import java.util.LinkedHashSet;
-import java.util.Set;
-
-@Entity
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-@Table(name = "roles", schema = "bankapp",  indexes = {
-        @Index(name = "idx_roles_name_unique", columnList = "name", unique = true)
-})
-@EqualsAndHashCode(of = "name")
-public class Role {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "id", nullable = false)
-    private Integer id;
-
-    @Size(max = 50)
-    @NotNull
-    @Column(name = "name", nullable = false, length = 50)
-    private String name;
-
-    @ManyToMany(mappedBy = "roles")
-    private Set<User> users = new LinkedHashSet<>();
-
-}
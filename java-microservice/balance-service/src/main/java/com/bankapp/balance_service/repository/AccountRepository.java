@@ -1,12 +1,27 @@
 package com.bankapp.balance_service.repository;
 
-import com.bankapp.balance_service.model.Account;
+import com.bankapp.balance_service.dto.AccountBalanceDataDTO;
+import com.bankapp.core.model.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByUserId(Long userId);
+
+    // Proyección directa al DTO: no crea la entidad administrada, ni su copia para dirty checking,
+    // ni el proxy perezoso de User. Se apoya en el índice idx_accounts_user_id.
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.bankapp.balance_service.dto.AccountBalanceDataDTO(
+                a.id, a.accountNumber, a.accountType, a.balance, a.currency, a.status)
+            FROM Account a
+            WHERE a.user.id = :userId
+            """)
+    Optional<AccountBalanceDataDTO> findBalanceByUserId(@Param("userId") Long userId);
 }
@@ -1,7 +1,8 @@
 package com.bankapp.balance_service.service;
 
 import com.bankapp.balance_service.dto.AccountBalanceDataDTO;
+import com.bankapp.core.result.OperationResult;
 
 public interface BalanceService {
-    AccountBalanceDataDTO getAccountBalance(Long userId, String clientIp);
+    OperationResult<AccountBalanceDataDTO> getAccountBalance(Long userId, String clientIp);
 }
@@ -0,0 +1,38 @@
+package com.bankapp.balance_service.service;
+
+import com.bankapp.balance_service.dto.AccountBalanceDataDTO;
+import com.bankapp.balance_service.dto.ApiResponseDTO;
+import com.bankapp.balance_service.repository.AccountRepository;
+import com.bankapp.core.utils.TimedJsonHttpMessageConverter;
+import com.bankapp.core.warmup.WarmUpTask;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Camino de la consulta de saldo sin caché, auditoría ni métricas: proyección por user_id y serialización
+ * de la respuesta. La cuenta sintética no se guarda en {@code BalanceCache}.
+ */
+@Component
+public class BalanceWarmUpTask implements WarmUpTask {
+    private final AccountRepository accountRepository;
+    private final TimedJsonHttpMessageConverter jsonConverter;
+
+    @Autowired
+    public BalanceWarmUpTask(AccountRepository accountRepository, TimedJsonHttpMessageConverter jsonConverter) {
+        this.accountRepository = accountRepository;
+        this.jsonConverter = jsonConverter;
+    }
+
+    @Override
+    public void warmUp(SyntheticAccount account) {
+        AccountBalanceDataDTO balance = accountRepository.findBalanceByUserId(account.userId())
+                .orElseThrow(() -> new IllegalStateException("Synthetic warm-up account not found."));
+        try {
+            jsonConverter.writeToBytes(ApiResponseDTO.success(balance));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize warm-up balance response.", e);
+        }
+    }
+}
@@ -1,89 +1,146 @@
 package com.bankapp.balance_service.service;
 
+import com.bankapp.balance_service.cache.BalanceCache;
 import com.bankapp.balance_service.dto.AccountBalanceDataDTO;
-import com.bankapp.balance_service.exception.AccountNotActiveException;
-import com.bankapp.balance_service.exception.InvalidInputException;
-import com.bankapp.balance_service.exception.ResourceNotFoundException;
-import com.bankapp.balance_service.model.Account;
 import com.bankapp.balance_service.repository.AccountRepository;
-import com.bankapp.balance_service.utils.TransactionLogger;
+import com.bankapp.balance_service.utils.OperationMetrics;
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.result.Rejection;
+import com.bankapp.core.slots.BalanceSlots;
+import com.bankapp.core.utils.TransactionLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Service
 public class DefaultBalanceService implements BalanceService {
     private final AccountRepository accountRepository;
+    private final BalanceCache balanceCache;
+    private final TransactionLogger transactionLogger;
+    private final OperationMetrics operationMetrics;
+    private final BalanceSlots balanceSlots;
     private static final Logger serviceLog = LoggerFactory.getLogger(DefaultBalanceService.class);
 
     @Autowired
-    public DefaultBalanceService(AccountRepository accountRepository) {
+    public DefaultBalanceService(AccountRepository accountRepository, BalanceCache balanceCache, TransactionLogger transactionLogger,
+                                 OperationMetrics operationMetrics, BalanceSlots balanceSlots) {
         this.accountRepository = accountRepository;
+        this.balanceCache = balanceCache;
+        this.transactionLogger = transactionLogger;
+        this.operationMetrics = operationMetrics;
+        this.balanceSlots = balanceSlots;
     }
 
+    // Sin transacción a nivel de método: un acierto en caché no debe tomar una conexión del pool.
+    // En un fallo, findBalanceByUserId se ejecuta dentro de la transacción de solo lectura del repositorio.
+    // Los rechazos esperados (usuario ausente, cuenta inexistente o inactiva) se devuelven sin lanzar excepciones.
     @Override
-    @Transactional(readOnly = true)
-    public AccountBalanceDataDTO getAccountBalance(Long userId, String clientIp) {
-        String userIdForLog = userId != null ? String.valueOf(userId) : "N/A_IN_SERVICE";
-        String accountIdForLog = "N/A_UNTIL_FETCHED";
-        String operationStatus;
+    public OperationResult<AccountBalanceDataDTO> getAccountBalance(Long userId, String clientIp) {
+        Long accountId = null;
         String logMessage;
 
-        serviceLog.info("Attempting balance inquiry for user {}.", userIdForLog);
+        // Marcas de fin de cada etapa para OperationMetrics (0 = etapa no completada).
+        long started = System.nanoTime();
+        long validated = 0L;
+        long cacheChecked = 0L;
+        long loaded = 0L;
+        long audited = 0L;
+        OperationMetrics.Outcome outcome = OperationMetrics.Outcome.SUCCESS;
+
+        serviceLog.info("Attempting balance inquiry for user {}.", userId);
 
         try {
             if (userId == null) {
                 logMessage = "User ID not provided for balance inquiry (X-User-ID header might be missing or empty).";
-                operationStatus = "INVALID_ATTEMPT";
-                TransactionLogger.logOperation(userIdForLog, "BALANCE_INQUIRY", null, operationStatus, logMessage, clientIp);
-                throw new InvalidInputException(logMessage);
+                transactionLogger.logOperation(null, "BALANCE_INQUIRY", null, "INVALID_ATTEMPT", clientIp, logMessage);
+                outcome = OperationMetrics.Outcome.INVALID_INPUT;
+                return rejected(userId, Rejection.INVALID_INPUT, logMessage);
             }
+            validated = System.nanoTime();
 
-            final String finalUserIdForLog = String.valueOf(userId);
+            AccountBalanceDataDTO cached = balanceCache.get(userId);
+            cacheChecked = System.nanoTime();
+            if (cached != null) {
+                transactionLogger.logOperation(userId, "BALANCE_INQUIRY", cached.getAccountId(), "SUCCESS", clientIp,
+                        "Balance inquiry successful for account {} of user {}.", cached.getAccountId(), userId);
+                audited = System.nanoTime();
+                return OperationResult.success(cached);
+            }
 
-            Account account = accountRepository.findByUserId(userId)
-                    .orElseThrow(() -> {
-                        String msg = String.format("No account found for user %s.", finalUserIdForLog);
-                        TransactionLogger.logOperation(finalUserIdForLog, "BALANCE_INQUIRY", "N/A_ACCOUNT_NOT_FOUND", "ACCOUNT_NOT_FOUND", msg, clientIp);
-                        return new ResourceNotFoundException(msg);
-                    });
+            long cacheStamp = balanceCache.stamp(userId);
+            Optional<AccountBalanceDataDTO> result = loadBalance(userId);
+            loaded = System.nanoTime();
+            if (result.isEmpty()) {
+                logMessage = String.format("No account found for user %s.", userId);
+                transactionLogger.logOperation(userId, "BALANCE_INQUIRY", null, "ACCOUNT_NOT_FOUND", clientIp, logMessage);
+                outcome = OperationMetrics.Outcome.ACCOUNT_NOT_FOUND;
+                return rejected(userId, Rejection.ACCOUNT_NOT_FOUND, logMessage);
+            }
 
-            accountIdForLog = String.valueOf(account.getId());
+            AccountBalanceDataDTO balance = result.get();
+            accountId = balance.getAccountId();
 
-            if (!"active".equalsIgnoreCase(account.getStatus()) && !"pending_activation".equalsIgnoreCase(account.getStatus())) {
+            if (!isQueryable(balance)) {
                 logMessage = String.format("Balance inquiry not permitted: Account %s (User: %s) is not active or pending activation. Current status: %s.",
-                        accountIdForLog, finalUserIdForLog, account.getStatus());
-                operationStatus = "ACCOUNT_INACTIVE";
-                TransactionLogger.logOperation(finalUserIdForLog, "BALANCE_INQUIRY", accountIdForLog, operationStatus, logMessage, clientIp);
-                throw new AccountNotActiveException(logMessage);
+                        accountId, userId, balance.getStatus());
+                transactionLogger.logOperation(userId, "BALANCE_INQUIRY", accountId, "ACCOUNT_INACTIVE", clientIp, logMessage);
+                outcome = OperationMetrics.Outcome.ACCOUNT_INACTIVE;
+                return rejected(userId, Rejection.ACCOUNT_INACTIVE, logMessage);
             }
 
-            operationStatus = "SUCCESS";
-            logMessage = String.format("Balance inquiry successful for account %s of user %s.", accountIdForLog, finalUserIdForLog);
-            TransactionLogger.logOperation(finalUserIdForLog, "BALANCE_INQUIRY", accountIdForLog, operationStatus, logMessage, clientIp);
+            transactionLogger.logOperation(userId, "BALANCE_INQUIRY", accountId, "SUCCESS", clientIp,
+                    "Balance inquiry successful for account {} of user {}.", accountId, userId);
+            audited = System.nanoTime();
 
-            return new AccountBalanceDataDTO(
-                    account.getId(),
-                    account.getAccountNumber(),
-                    account.getAccountType(),
-                    account.getBalance(),
-                    account.getCurrency(),
-                    account.getStatus()
-            );
+            balanceCache.putIfNotInvalidated(userId, cacheStamp, balance);
+            return OperationResult.success(balance);
 
         } catch (Exception e) {
-            if (e instanceof InvalidInputException ||
-                    e instanceof ResourceNotFoundException ||
-                    e instanceof AccountNotActiveException) {
-                serviceLog.warn("Operational error during balance inquiry for user {}: {}", userIdForLog, e.getMessage());
-            } else {
-                logMessage = "Unexpected error during balance inquiry for user " + userIdForLog + ": " + e.getMessage();
-                TransactionLogger.logOperation(userIdForLog, "BALANCE_INQUIRY", accountIdForLog.equals("N/A_UNTIL_FETCHED") ? null : accountIdForLog, "SYSTEM_ERROR", logMessage, clientIp);
-                serviceLog.error("Unexpected error during balance inquiry for user {}: {}", userIdForLog, e.getMessage(), e);
-            }
+            outcome = OperationMetrics.Outcome.of(e);
+            transactionLogger.logOperation(userId, "BALANCE_INQUIRY", accountId, "SYSTEM_ERROR", clientIp,
+                    "Unexpected error during balance inquiry for user {}: {}", userId, e.getMessage());
+            serviceLog.error("Unexpected error during balance inquiry for user {}: {}", userId, e.getMessage(), e);
             throw e;
+        } finally {
+            operationMetrics.recordService(outcome, started, validated, cacheChecked, loaded, audited);
+        }
+    }
+
+    /**
+     * Saldo actual para las actualizaciones en vivo ({@code GET /stream}): pasa por la caché como la consulta
+     * normal pero no registra una consulta de saldo en la auditoría, porque no la pidió el cliente.
+     * Vacío si la cuenta no existe o ya no admite consultas.
+     */
+    public Optional<AccountBalanceDataDTO> currentBalance(Long userId) {
+        AccountBalanceDataDTO cached = balanceCache.get(userId);
+        if (cached != null) {
+            return Optional.of(cached);
         }
+        long cacheStamp = balanceCache.stamp(userId);
+        Optional<AccountBalanceDataDTO> result = loadBalance(userId).filter(DefaultBalanceService::isQueryable);
+        result.ifPresent(balance -> balanceCache.putIfNotInvalidated(userId, cacheStamp, balance));
+        return result;
+    }
+
+    private Optional<AccountBalanceDataDTO> loadBalance(Long userId) {
+        Optional<AccountBalanceDataDTO> result = accountRepository.findBalanceByUserId(userId);
+        BalanceSlots.SlotAccount slotAccount = balanceSlots.find(userId);
+        if (slotAccount != null && result.isPresent()) {
+            // El saldo de una cuenta repartida en slots es el de la fila más el de sus slots.
+            balanceSlots.totalBalance(slotAccount).ifPresent(result.get()::setBalance);
+        }
+        return result;
+    }
+
+    private static boolean isQueryable(AccountBalanceDataDTO balance) {
+        return "active".equalsIgnoreCase(balance.getStatus()) || "pending_activation".equalsIgnoreCase(balance.getStatus());
+    }
+
+    private static <T> OperationResult<T> rejected(Long userId, Rejection reason, String message) {
+        serviceLog.warn("Balance inquiry rejected for user {}: {}", userId, message);
+        return OperationResult.rejected(reason, message);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package com.bankapp.balance_service.stream;
+
+import com.bankapp.balance_service.dto.AccountBalanceDataDTO;
+import com.bankapp.balance_service.service.DefaultBalanceService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Suscripciones a {@code GET /stream} por userId. {@link com.bankapp.balance_service.cache.BalanceChangeListener}
+ * llama a {@link #publish(Long)} por cada NOTIFY; si el usuario tiene conexiones abiertas se relee su saldo una
+ * sola vez (las notificaciones que llegan mientras tanto se agrupan) y se entrega a cada conexión.
+ * <p>
+ * Una conexión inactiva no retiene ningún hilo: solo el emisor, su petición asíncrona en Tomcat y un
+ * {@link BalanceSubscriber}. Las lecturas y los envíos corren en hilos virtuales, de modo que un cliente lento
+ * bloquea solo su propio envío.
+ */
+@Component
+public class BalanceStreamRegistry {
+    private static final Logger streamLog = LoggerFactory.getLogger(BalanceStreamRegistry.class);
+
+    private final DefaultBalanceService balanceService;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final long heartbeatIntervalMs;
+
+    private final ConcurrentHashMap<Long, Set<BalanceSubscriber>> subscribersByUser = new ConcurrentHashMap<>();
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    private final Set<Long> refreshAgain = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("balance-stream-", 0).factory());
+    private ScheduledExecutorService heartbeats;
+
+    @Autowired
+    public BalanceStreamRegistry(DefaultBalanceService balanceService, MeterRegistry meterRegistry,
+                                 @Value("${bankapp.balance.stream.max-subscribers:50000}") int maxSubscribers,
+                                 @Value("${bankapp.balance.stream.timeout-ms:1800000}") long timeoutMs,
+                                 @Value("${bankapp.balance.stream.heartbeat-interval-ms:15000}") long heartbeatIntervalMs) {
+        this.balanceService = balanceService;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        Gauge.builder("bankapp.balance.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open balance streaming connections")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (heartbeatIntervalMs <= 0) {
+            return;
+        }
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        subscribersByUser.values().forEach(subscribers -> subscribers.forEach(BalanceSubscriber::complete));
+        workers.shutdownNow();
+    }
+
+    /**
+     * Abre una conexión para el usuario y le envía el saldo inicial; vacío si ya se alcanzó
+     * {@code bankapp.balance.stream.max-subscribers}.
+     */
+    public Optional<SseEmitter> subscribe(Long userId, AccountBalanceDataDTO initialBalance) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            streamLog.warn("Rejecting balance stream for user {}: {} subscribers already open.", userId, maxSubscribers);
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        BalanceSubscriber subscriber = new BalanceSubscriber(userId, emitter, workers);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscribersByUser.compute(userId, (id, subscribers) -> {
+            Set<BalanceSubscriber> registered = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            registered.add(subscriber);
+            return registered;
+        });
+        subscriber.offer(initialBalance);
+        streamLog.debug("Balance stream opened for user {}.", userId);
+        return Optional.of(emitter);
+    }
+
+    // Llamado desde el hilo del listener: no debe bloquear.
+    public void publish(Long userId) {
+        if (!subscribersByUser.containsKey(userId)) {
+            return;
+        }
+        if (!refreshing.add(userId)) {
+            // Ya hay una lectura en curso; se repite al terminar para no perder este cambio.
+            refreshAgain.add(userId);
+            return;
+        }
+        workers.execute(() -> refresh(userId));
+    }
+
+    // Tras reconectar el listener: las notificaciones perdidas pudieron afectar a cualquier suscriptor.
+    public void publishAll() {
+        subscribersByUser.keySet().forEach(this::publish);
+    }
+
+    private void refresh(Long userId) {
+        try {
+            do {
+                Set<BalanceSubscriber> subscribers = subscribersByUser.get(userId);
+                if (subscribers == null) {
+                    return;
+                }
+                Optional<AccountBalanceDataDTO> balance = balanceService.currentBalance(userId);
+                if (balance.isPresent()) {
+                    subscribers.forEach(subscriber -> subscriber.offer(balance.get()));
+                } else {
+                    // La cuenta ya no admite consultas de saldo: se cierran sus conexiones.
+                    subscribers.forEach(BalanceSubscriber::complete);
+                }
+            } while (refreshAgain.remove(userId));
+        } catch (RuntimeException e) {
+            streamLog.warn("Could not refresh streamed balance for user {}: {}", userId, e.getMessage());
+        } finally {
+            refreshing.remove(userId);
+            if (refreshAgain.remove(userId)) {
+                publish(userId);
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        subscribersByUser.values().forEach(subscribers -> subscribers.forEach(BalanceSubscriber::heartbeat));
+    }
+
+    private void remove(BalanceSubscriber subscriber) {
+        subscriber.markClosed();
+        boolean[] removed = new boolean[1];
+        subscribersByUser.computeIfPresent(subscriber.userId(), (userId, subscribers) -> {
+            removed[0] = subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        if (removed[0]) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.bankapp.balance_service.stream;
+
+import com.bankapp.balance_service.dto.AccountBalanceDataDTO;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Una conexión SSE abierta. Guarda solo el último saldo pendiente de enviar: si el cliente lee más lento de
+ * lo que cambia su saldo, los valores intermedios se descartan en lugar de acumularse en memoria, y nunca hay
+ * más de un envío en curso por conexión.
+ */
+final class BalanceSubscriber {
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final Executor sender;
+    private final AtomicReference<AccountBalanceDataDTO> pending = new AtomicReference<>();
+    private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile boolean closed;
+
+    BalanceSubscriber(Long userId, SseEmitter emitter, Executor sender) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.sender = sender;
+    }
+
+    Long userId() {
+        return userId;
+    }
+
+    void offer(AccountBalanceDataDTO balance) {
+        pending.set(balance);
+        schedule();
+    }
+
+    void heartbeat() {
+        heartbeatPending.set(true);
+        schedule();
+    }
+
+    void complete() {
+        closed = true;
+        emitter.complete();
+    }
+
+    void markClosed() {
+        closed = true;
+    }
+
+    private void schedule() {
+        if (!closed && sending.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!closed) {
+                AccountBalanceDataDTO balance = pending.getAndSet(null);
+                if (balance != null) {
+                    emitter.send(SseEmitter.event().name("balance").data(balance, MediaType.APPLICATION_JSON));
+                } else if (heartbeatPending.getAndSet(false)) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } else {
+                    break;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // El cliente se desconectó; onError/onCompletion del emisor lo quitan del registro.
+            closed = true;
+            emitter.completeWithError(e);
+        } finally {
+            sending.set(false);
+        }
+        // Lo que llegó entre el último getAndSet y la liberación de la marca.
+        if (!closed && (pending.get() != null || heartbeatPending.get())) {
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.bankapp.balance_service.utils;
+
+import com.bankapp.core.exception.AccountNotActiveException;
+import com.bankapp.core.exception.InvalidInputException;
+import com.bankapp.core.exception.ResourceNotFoundException;
+import com.bankapp.core.exception.UnauthorizedAccessException;
+import com.bankapp.core.result.Rejection;
+import com.bankapp.core.utils.StageTimers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Etapas y resultados de la consulta de saldo para {@link StageTimers} ({@code bankapp.operation.stage}).
+ */
+@Component
+public class OperationMetrics extends StageTimers<OperationMetrics.Stage, OperationMetrics.Outcome> {
+    public static final String OPERATION = "BALANCE_INQUIRY";
+
+    public enum Stage {
+        // Lectura de X-User-ID e IP de origen en el controlador.
+        HEADERS,
+        VALIDATION,
+        CACHE_LOOKUP,
+        // Proyección por user_id; solo en fallos de caché.
+        ACCOUNT_LOOKUP,
+        AUDIT_LOG,
+        // Llamada completa al servicio desde el controlador.
+        SERVICE,
+        SERIALIZATION
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        INVALID_INPUT,
+        UNAUTHORIZED,
+        ACCOUNT_NOT_FOUND,
+        ACCOUNT_INACTIVE,
+        SYSTEM_ERROR;
+
+        public static Outcome of(Throwable failure) {
+            if (failure == null) {
+                return SUCCESS;
+            }
+            if (failure instanceof InvalidInputException || failure instanceof IllegalArgumentException) {
+                return INVALID_INPUT;
+            }
+            if (failure instanceof UnauthorizedAccessException) {
+                return UNAUTHORIZED;
+            }
+            if (failure instanceof ResourceNotFoundException) {
+                return ACCOUNT_NOT_FOUND;
+            }
+            if (failure instanceof AccountNotActiveException) {
+                return ACCOUNT_INACTIVE;
+            }
+            return SYSTEM_ERROR;
+        }
+
+        public static Outcome of(Rejection rejection) {
+            return switch (rejection) {
+                case INVALID_INPUT -> INVALID_INPUT;
+                case ACCOUNT_NOT_FOUND -> ACCOUNT_NOT_FOUND;
+                case ACCOUNT_INACTIVE -> ACCOUNT_INACTIVE;
+                // La consulta de saldo nunca rechaza por fondos insuficientes ni queda sin aplicar.
+                case INSUFFICIENT_FUNDS, NOT_APPLIED -> SYSTEM_ERROR;
+            };
+        }
+    }
+
+    @Autowired
+    public OperationMetrics(MeterRegistry meterRegistry,
+                            @Value("${bankapp.metrics.percentiles:0.5,0.95,0.99}") double[] percentiles,
+                            @Value("${bankapp.metrics.percentile-histogram:false}") boolean percentileHistogram) {
+        super(meterRegistry, OPERATION, Stage.class, Outcome.class, Stage.HEADERS, Stage.SERVICE, Stage.SERIALIZATION,
+                percentiles, percentileHistogram);
+    }
+
+    /**
+     * Registra las etapas internas del servicio a partir de las marcas de {@link System#nanoTime()}
+     * tomadas al terminar cada una; una marca en 0 indica que la etapa no llegó a completarse.
+     */
+    public void recordService(Outcome outcome, long started, long validated, long cacheChecked, long loaded, long audited) {
+        recordBetween(Stage.VALIDATION, outcome, started, validated);
+        recordBetween(Stage.CACHE_LOOKUP, outcome, validated, cacheChecked);
+        recordBetween(Stage.ACCOUNT_LOOKUP, outcome, cacheChecked, loaded);
+        // Con acierto en caché no hay lectura de la cuenta y la bitácora empieza al salir de la caché.
+        recordBetween(Stage.AUDIT_LOG, outcome, loaded != 0L ? loaded : cacheChecked, audited);
+    }
+}
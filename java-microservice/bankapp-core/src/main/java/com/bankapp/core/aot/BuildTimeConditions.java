@@ -0,0 +1,45 @@
+package com.bankapp.core.aot;
+
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interruptores que Spring AOT resuelve al construir (perfil de Maven {@code fast-start}): las propiedades de los
+ * {@code @ConditionalOn...} de la aplicación y los perfiles activos. Con el código AOT, cambiarlos al ejecutar no
+ * tiene efecto, así que {@link BuildTimeConditionsAotProcessor} guarda sus valores en el artefacto y
+ * {@link BuildTimeConditionsCheck} los compara con los del arranque.
+ */
+final class BuildTimeConditions {
+    static final String RESOURCE = "META-INF/bankapp/aot-conditions.properties";
+    static final String PROFILES = "spring.profiles.active";
+
+    // Propiedades de los @ConditionalOnProperty de los servicios (todas con havingValue = "true") y la de hilos virtuales.
+    private static final List<String> SWITCHES = List.of(
+            "bankapp.datasource.routing.enabled",
+            "bankapp.concurrency-limit.enabled",
+            "bankapp.rate-limit.enabled",
+            "bankapp.db-admission.enabled",
+            "bankapp.deposit.group-commit.enabled",
+            "bankapp.withdrawal.engine.enabled",
+            "spring.threads.virtual.enabled");
+
+    private BuildTimeConditions() {
+    }
+
+    static Map<String, String> capture(Environment environment) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String name : SWITCHES) {
+            values.put(name, Boolean.toString(environment.getProperty(name, Boolean.class, false)));
+        }
+        String[] profiles = environment.getActiveProfiles();
+        if (profiles.length == 0) {
+            profiles = environment.getDefaultProfiles();
+        }
+        values.put(PROFILES, String.join(",", Arrays.stream(profiles).sorted().toList()));
+        return values;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bankapp.core.aot;
+
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+/**
+ * Guarda en el artefacto AOT ({@link BuildTimeConditions#RESOURCE}) los interruptores con los que se procesó la
+ * aplicación. Se registra en {@code META-INF/spring/aot.factories}.
+ */
+public class BuildTimeConditionsAotProcessor implements BeanFactoryInitializationAotProcessor {
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        Map<String, String> values = BuildTimeConditions.capture(beanFactory.getBean(Environment.class));
+        return (generationContext, code) -> {
+            StringBuilder content = new StringBuilder("# Interruptores resueltos por Spring AOT al construir\n");
+            values.forEach((name, value) -> content.append(name).append('=').append(value).append('\n'));
+            generationContext.getGeneratedFiles().addResourceFile(BuildTimeConditions.RESOURCE, content);
+            generationContext.getRuntimeHints().resources().registerPattern(BuildTimeConditions.RESOURCE);
+        };
+    }
+}
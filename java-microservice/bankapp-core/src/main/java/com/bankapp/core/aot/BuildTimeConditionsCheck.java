@@ -0,0 +1,52 @@
+package com.bankapp.core.aot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Con el código AOT activo ({@code -Dspring.aot.enabled=true}), impide arrancar si algún interruptor de
+ * {@link BuildTimeConditions} tiene al ejecutar un valor distinto al de la construcción: la aplicación correría
+ * con los beans decididos al construir e ignoraría la configuración sin avisar. Sin AOT no hace nada.
+ */
+@Component
+public class BuildTimeConditionsCheck {
+    private static final Logger checkLog = LoggerFactory.getLogger(BuildTimeConditionsCheck.class);
+
+    @Autowired
+    public BuildTimeConditionsCheck(Environment environment) throws IOException {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return;
+        }
+        ClassPathResource resource = new ClassPathResource(BuildTimeConditions.RESOURCE);
+        if (!resource.exists()) {
+            checkLog.warn("Running with AOT artifacts but {} is missing; build-time conditions are not checked.", BuildTimeConditions.RESOURCE);
+            return;
+        }
+        Properties built = PropertiesLoaderUtils.loadProperties(resource);
+        List<String> mismatches = new ArrayList<>();
+        for (Map.Entry<String, String> runtime : BuildTimeConditions.capture(environment).entrySet()) {
+            String buildValue = built.getProperty(runtime.getKey());
+            if (buildValue != null && !buildValue.equals(runtime.getValue())) {
+                mismatches.add(runtime.getKey() + " (build: " + buildValue + ", runtime: " + runtime.getValue() + ")");
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("AOT artifacts were built with different conditions than the current configuration: "
+                    + String.join(", ", mismatches) + ". Rebuild with -Pfast-start using the same properties and profiles"
+                    + " (-Dfast-start.profiles) or start without -Dspring.aot.enabled=true.");
+        }
+        checkLog.info("AOT build-time conditions match the runtime configuration.");
+    }
+}
@@ -0,0 +1,70 @@
+package com.bankapp.core.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Pools separados para lectura y escritura. El de escritura se configura como el pool por defecto de Spring
+ * Boot ({@code spring.datasource.*}, {@code spring.datasource.hikari.*}); el de lectura con
+ * {@code bankapp.datasource.read.*} y, si no se indica URL, apunta a la misma base primaria. Cada uno publica
+ * sus métricas de Hikari ({@code hikaricp.connections.*}) con su propio nombre de pool, de modo que una ráfaga
+ * de consultas de saldo agota el pool de lectura sin dejar sin conexiones a depósitos y retiros.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "bankapp.datasource.routing", name = "enabled", havingValue = "true")
+public class ReadWriteDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("bankapp-write");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("bankapp.datasource.read.hikari")
+    public HikariDataSource readDataSource(DataSourceProperties properties,
+                                           @Value("${bankapp.datasource.read.url:}") String url,
+                                           @Value("${bankapp.datasource.read.username:}") String username,
+                                           @Value("${bankapp.datasource.read.password:}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url.isBlank() ? properties.determineUrl() : url);
+        // Sin usuario propio se usan las credenciales del primario.
+        dataSource.setUsername(username.isBlank() ? properties.determineUsername() : username);
+        dataSource.setPassword(username.isBlank() ? properties.determinePassword() : password);
+        dataSource.setReadOnly(true);
+        dataSource.setPoolName("bankapp-read");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("readDataSource") HikariDataSource readDataSource, MeterRegistry meterRegistry,
+                                               @Value("${bankapp.datasource.read.max-lag-ms:1000}") long maxLagMs,
+                                               @Value("${bankapp.datasource.read.lag-check-interval-ms:500}") long checkIntervalMs) {
+        return new ReplicaLagMonitor(readDataSource, meterRegistry, maxLagMs, checkIntervalMs);
+    }
+
+    // El DataSource que usan JPA, JdbcTemplate y el resto de la aplicación.
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                                 @Qualifier("readDataSource") HikariDataSource readDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(writeDataSource, readDataSource, replicaLagMonitor);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
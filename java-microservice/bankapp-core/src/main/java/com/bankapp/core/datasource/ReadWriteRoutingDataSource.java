@@ -0,0 +1,41 @@
+package com.bankapp.core.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Elige el pool al obtener la conexión: las transacciones {@code readOnly} van al pool de lectura mientras la
+ * réplica esté al día según {@link ReplicaLagMonitor}; todo lo demás (transacciones de escritura y accesos
+ * fuera de transacción) va al pool de escritura.
+ * <p>
+ * Debe usarse detrás de un {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: el
+ * gestor de transacciones pide la conexión antes de marcar la transacción como de solo lectura, y el proxy
+ * difiere la elección hasta la primera sentencia.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        READ,
+        WRITE
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadWriteRoutingDataSource(DataSource writeDataSource, DataSource readDataSource, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Route.WRITE, writeDataSource, Route.READ, readDataSource));
+        setDefaultTargetDataSource(writeDataSource);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !lagMonitor.isStale()) {
+            return Route.READ;
+        }
+        return Route.WRITE;
+    }
+}
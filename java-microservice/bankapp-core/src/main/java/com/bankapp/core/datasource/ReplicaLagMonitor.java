@@ -0,0 +1,99 @@
+package com.bankapp.core.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide a intervalo fijo el retraso de la réplica del pool de lectura y la marca como desactualizada cuando
+ * supera el máximo configurado, si no se pudo medir o si la consulta falla; mientras tanto las lecturas van
+ * al primario. Contra un primario (sin réplica configurada) el retraso es siempre 0.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+    private static final Logger monitorLog = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // Con todo lo recibido ya aplicado la réplica está al día aunque la última transacción sea antigua
+    // (primario sin escrituras); -1 si todavía no aplicó ninguna.
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM clock_timestamp() - pg_last_xact_replay_timestamp()) * 1000, -1)
+                   END
+            """;
+
+    private final DataSource readDataSource;
+    private final long maxLagMs;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile long lagMs;
+    private volatile boolean stale;
+
+    public ReplicaLagMonitor(DataSource readDataSource, MeterRegistry meterRegistry, long maxLagMs, long checkIntervalMs) {
+        this.readDataSource = readDataSource;
+        this.maxLagMs = maxLagMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("bankapp.datasource.replica.lag", this, monitor -> monitor.lagMs)
+                .description("Last measured replication lag of the read pool, -1 when unknown")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("bankapp.datasource.replica.fallback", this, monitor -> monitor.stale ? 1 : 0)
+                .description("1 while read-only transactions are routed to the primary because the replica is stale")
+                .register(meterRegistry);
+
+        check();
+        scheduler.scheduleWithFixedDelay(this::check, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void check() {
+        long measured;
+        try (Connection connection = readDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            measured = resultSet.getLong(1);
+        } catch (SQLException | RuntimeException e) {
+            if (!stale) {
+                monitorLog.warn("Could not measure replica lag, routing reads to the primary: {}", e.getMessage());
+            }
+            lagMs = -1L;
+            stale = true;
+            return;
+        }
+
+        boolean nowStale = measured < 0 || measured > maxLagMs;
+        if (nowStale != stale) {
+            if (nowStale) {
+                monitorLog.warn("Replica lag {} ms exceeds {} ms, routing reads to the primary.", measured, maxLagMs);
+            } else {
+                monitorLog.info("Replica lag back to {} ms, routing reads to the read pool.", measured);
+            }
+        }
+        lagMs = measured;
+        stale = nowStale;
+    }
+}
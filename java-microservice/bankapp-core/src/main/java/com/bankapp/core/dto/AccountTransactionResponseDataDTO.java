@@ -1,14 +1,12 @@
-package com.bankapp.withdrawal_service.dto;
+package com.bankapp.core.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.bankapp.core.model.Money;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -18,13 +16,10 @@ public class AccountTransactionResponseDataDTO {
     private String message;
     private String accountId;
     private String accountNumber;
-    @JsonFormat(shape = JsonFormat.Shape.STRING)
-    private BigDecimal newBalance;
+    private Money newBalance;
     private String currency;
-    @JsonFormat(shape = JsonFormat.Shape.STRING)
-    private BigDecimal amountDeposited;
-    @JsonFormat(shape = JsonFormat.Shape.STRING)
-    private BigDecimal amountWithdrawn;
+    private Money amountDeposited;
+    private Money amountWithdrawn;
     private String transactionId;
     private String transactionTimestamp;
 }
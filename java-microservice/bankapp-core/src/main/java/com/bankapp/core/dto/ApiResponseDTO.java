@@ -1,4 +1,4 @@
-package com.bankapp.deposit_service.dto;
+package com.bankapp.core.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
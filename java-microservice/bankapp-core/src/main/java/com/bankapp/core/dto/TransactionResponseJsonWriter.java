@@ -0,0 +1,85 @@
+package com.bankapp.core.dto;
+
+import com.bankapp.core.model.Money;
+import com.bankapp.core.utils.JsonDecimals;
+import com.bankapp.core.utils.ResponseJsonWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Escribe {@code ApiResponseDTO<AccountTransactionResponseDataDTO>} (o sin data) de depósitos y retiros igual que
+ * Jackson con las anotaciones de los DTO: mismo orden de campos, sin nulos y montos como texto con 4 decimales. Los
+ * nombres de campo van codificados de antemano.
+ */
+@Component
+public class TransactionResponseJsonWriter implements ResponseJsonWriter {
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString DATA = new SerializedString("data");
+    private static final SerializableString ACCOUNT_ID = new SerializedString("accountId");
+    private static final SerializableString ACCOUNT_NUMBER = new SerializedString("accountNumber");
+    private static final SerializableString NEW_BALANCE = new SerializedString("newBalance");
+    private static final SerializableString CURRENCY = new SerializedString("currency");
+    private static final SerializableString AMOUNT_DEPOSITED = new SerializedString("amountDeposited");
+    private static final SerializableString AMOUNT_WITHDRAWN = new SerializedString("amountWithdrawn");
+    private static final SerializableString TRANSACTION_ID = new SerializedString("transactionId");
+    private static final SerializableString TRANSACTION_TIMESTAMP = new SerializedString("transactionTimestamp");
+
+    @Override
+    public Class<?> responseType() {
+        return ApiResponseDTO.class;
+    }
+
+    @Override
+    public boolean canWrite(Object response) {
+        Object data = ((ApiResponseDTO<?>) response).getData();
+        return data == null || data.getClass() == AccountTransactionResponseDataDTO.class;
+    }
+
+    @Override
+    public void write(Object response, JsonGenerator generator) throws IOException {
+        ApiResponseDTO<?> envelope = (ApiResponseDTO<?>) response;
+        generator.writeStartObject();
+        writeString(generator, STATUS, envelope.getStatus());
+        writeString(generator, MESSAGE, envelope.getMessage());
+        if (envelope.getData() instanceof AccountTransactionResponseDataDTO data) {
+            char[] scratch = JsonDecimals.allocScratch(generator);
+            try {
+                generator.writeFieldName(DATA);
+                generator.writeStartObject();
+                writeString(generator, MESSAGE, data.getMessage());
+                writeString(generator, ACCOUNT_ID, data.getAccountId());
+                writeString(generator, ACCOUNT_NUMBER, data.getAccountNumber());
+                writeDecimal(generator, NEW_BALANCE, data.getNewBalance(), scratch);
+                writeString(generator, CURRENCY, data.getCurrency());
+                writeDecimal(generator, AMOUNT_DEPOSITED, data.getAmountDeposited(), scratch);
+                writeDecimal(generator, AMOUNT_WITHDRAWN, data.getAmountWithdrawn(), scratch);
+                writeString(generator, TRANSACTION_ID, data.getTransactionId());
+                writeString(generator, TRANSACTION_TIMESTAMP, data.getTransactionTimestamp());
+                generator.writeEndObject();
+            } finally {
+                JsonDecimals.releaseScratch(generator, scratch);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    // @JsonInclude(NON_NULL): los campos nulos se omiten.
+    private static void writeString(JsonGenerator generator, SerializableString name, String value) throws IOException {
+        if (value != null) {
+            generator.writeFieldName(name);
+            generator.writeString(value);
+        }
+    }
+
+    private static void writeDecimal(JsonGenerator generator, SerializableString name, Money value, char[] scratch) throws IOException {
+        if (value != null) {
+            generator.writeFieldName(name);
+            JsonDecimals.writeString(generator, value, scratch);
+        }
+    }
+}
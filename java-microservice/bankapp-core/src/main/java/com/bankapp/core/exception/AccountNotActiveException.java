@@ -1,10 +1,10 @@
-package com.bankapp.balance_service.exception;
+package com.bankapp.core.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.FORBIDDEN)
-public class AccountNotActiveException extends RuntimeException {
+public class AccountNotActiveException extends ControlledException {
     public AccountNotActiveException(String message) {
         super(message);
     }
@@ -0,0 +1,12 @@
+package com.bankapp.core.exception;
+
+/**
+ * Base de las excepciones de resultados controlados (entrada inválida, acceso no autorizado, conflictos).
+ * GlobalExceptionHandler las traduce a una respuesta y nunca se registra su traza, así que no se captura:
+ * llenar la traza de pila recorre todos los marcos del hilo y es el costo dominante de lanzarlas.
+ */
+public abstract class ControlledException extends RuntimeException {
+    protected ControlledException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,11 @@
+package com.bankapp.core.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyConflictException extends ControlledException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.bankapp.core.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Se reutilizó un {@code Idempotency-Key} con una solicitud distinta (otro monto) a la que se registró con él.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReuseException extends ControlledException {
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,10 @@
-package com.bankapp.withdrawal_service.exception;
+package com.bankapp.core.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class InsufficientFundsException extends RuntimeException {
+public class InsufficientFundsException extends ControlledException {
     public InsufficientFundsException(String message) {
         super(message);
     }
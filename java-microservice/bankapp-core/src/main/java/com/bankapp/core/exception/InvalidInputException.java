@@ -1,10 +1,10 @@
-package com.bankapp.deposit_service.exception;
+package com.bankapp.core.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class InvalidInputException extends RuntimeException {
+public class InvalidInputException extends ControlledException {
     public InvalidInputException(String message) {
         super(message);
     }
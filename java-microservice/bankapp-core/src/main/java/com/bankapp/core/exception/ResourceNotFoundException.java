@@ -1,10 +1,10 @@
-package com.bankapp.balance_service.exception;
+package com.bankapp.core.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.NOT_FOUND)
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends ControlledException {
     public ResourceNotFoundException(String message) {
         super(message);
     }
@@ -1,10 +1,10 @@
-package com.bankapp.deposit_service.exception;
+package com.bankapp.core.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.FORBIDDEN)
-public class UnauthorizedAccessException extends RuntimeException {
+public class UnauthorizedAccessException extends ControlledException {
     public UnauthorizedAccessException(String message) {
         super(message);
     }
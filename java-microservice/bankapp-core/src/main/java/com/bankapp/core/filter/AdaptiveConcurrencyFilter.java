@@ -0,0 +1,130 @@
+package com.bankapp.core.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Límite de concurrencia adaptativo frente a los controladores. Las consultas ({@code GET}) y las operaciones
+ * que modifican saldo tienen presupuestos separados, cada uno ajustado por {@link AdaptiveConcurrencyLimit}
+ * según la latencia observada; lo que excede el límite recibe un 503 inmediato, sin esperar turno, para que el
+ * gateway pueda reintentar en otra instancia en lugar de agotar su timeout.
+ * <p>
+ * A diferencia de {@link DatabaseAdmissionFilter}, el límite no es fijo: baja cuando PostgreSQL se degrada,
+ * antes de que se agoten los hilos de Tomcat y las conexiones de Hikari.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bankapp.concurrency-limit", name = "enabled", havingValue = "true")
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+    private static final Logger filterLog = LoggerFactory.getLogger(AdaptiveConcurrencyFilter.class);
+    /**
+     * Atributo que un controlador fija en peticiones largas que conservan el permiso hasta terminar (depósitos
+     * masivos): se liberan sin tomar su duración como muestra de latencia.
+     */
+    public static final String UNSAMPLED_ATTRIBUTE = AdaptiveConcurrencyFilter.class.getName() + ".UNSAMPLED";
+
+    private final AdaptiveConcurrencyLimit readLimit;
+    private final AdaptiveConcurrencyLimit mutationLimit;
+    private final Counter readRejections;
+    private final Counter mutationRejections;
+    // Cuerpo del 503 ya serializado, con la misma forma que ApiResponseDTO.error de los servicios.
+    private final byte[] rejectionBody;
+
+    @Autowired
+    public AdaptiveConcurrencyFilter(@Value("${bankapp.concurrency-limit.read.initial:20}") int readInitial,
+                                     @Value("${bankapp.concurrency-limit.read.min:4}") int readMin,
+                                     @Value("${bankapp.concurrency-limit.read.max:200}") int readMax,
+                                     @Value("${bankapp.concurrency-limit.mutation.initial:10}") int mutationInitial,
+                                     @Value("${bankapp.concurrency-limit.mutation.min:2}") int mutationMin,
+                                     @Value("${bankapp.concurrency-limit.mutation.max:100}") int mutationMax,
+                                     @Value("${bankapp.concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+                                     @Value("${bankapp.concurrency-limit.smoothing:0.2}") double smoothing,
+                                     ObjectMapper objectMapper, MeterRegistry meterRegistry) throws IOException {
+        this.readLimit = new AdaptiveConcurrencyLimit("read", readInitial, readMin, readMax, rttTolerance, smoothing);
+        this.mutationLimit = new AdaptiveConcurrencyLimit("mutation", mutationInitial, mutationMin, mutationMax, rttTolerance, smoothing);
+        this.readRejections = register(readLimit, meterRegistry);
+        this.mutationRejections = register(mutationLimit, meterRegistry);
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("status", "error");
+        body.put("message", "El servicio está saturado. Intente nuevamente en unos instantes.");
+        this.rejectionBody = objectMapper.writeValueAsBytes(body);
+        filterLog.info("Adaptive concurrency limit enabled: read {} [{}-{}], mutation {} [{}-{}]",
+                readLimit.limit(), readMin, readMax, mutationLimit.limit(), mutationMin, mutationMax);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.startsWith("/actuator") || path.startsWith("/swagger-ui") || path.startsWith("/v3/api-docs");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        AdaptiveConcurrencyLimit limit = read ? readLimit : mutationLimit;
+        if (!limit.tryAcquire()) {
+            (read ? readRejections : mutationRejections).increment();
+            filterLog.debug("Rejecting request to {}: {} concurrency limit {} reached.", request.getRequestURI(), limit.name(), limit.limit());
+            reject(response);
+            return;
+        }
+        int inFlightAtStart = limit.inFlight();
+        long started = System.nanoTime();
+        boolean sampled = false;
+        try {
+            filterChain.doFilter(request, response);
+            // Las respuestas asíncronas (flujo de saldo) solo se limitan al admitirlas y, como los depósitos
+            // masivos, su duración no refleja la latencia de la base de datos.
+            sampled = !request.isAsyncStarted() && request.getAttribute(UNSAMPLED_ATTRIBUTE) == null;
+        } finally {
+            if (sampled) {
+                limit.release(System.nanoTime() - started, inFlightAtStart);
+            } else {
+                limit.release();
+            }
+        }
+    }
+
+    private static Counter register(AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry) {
+        Gauge.builder("bankapp.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .description("Current adaptive concurrency limit")
+                .tag("budget", limit.name())
+                .register(meterRegistry);
+        Gauge.builder("bankapp.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .description("Requests currently admitted by the adaptive concurrency limit")
+                .tag("budget", limit.name())
+                .register(meterRegistry);
+        return Counter.builder("bankapp.concurrency.rejected")
+                .description("Requests rejected with 503 by the adaptive concurrency limit")
+                .tag("budget", limit.name())
+                .register(meterRegistry);
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getOutputStream().write(rejectionBody);
+    }
+}
@@ -0,0 +1,96 @@
+package com.bankapp.core.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia por gradiente de latencia: compara la latencia de cada petición con una media
+ * de largo plazo. Mientras la latencia se mantiene cerca de la habitual el límite crece en
+ * {@code sqrt(límite)} por muestra; cuando la base de datos se degrada y la latencia sube, el límite se
+ * reduce en proporción (como mucho a la mitad por muestra) hasta que deja de formarse cola.
+ */
+final class AdaptiveConcurrencyLimit {
+    // Número de muestras de la media de largo plazo.
+    private static final int LONG_WINDOW = 600;
+    private static final int WARM_UP_SAMPLES = 10;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private int samples;
+
+    AdaptiveConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit, double rttTolerance, double smoothing) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    String name() {
+        return name;
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // inFlightAtStart: peticiones en curso (incluida esta) cuando se admitió.
+    void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        onSample(rttNanos, inFlightAtStart);
+    }
+
+    // Petición sin muestra válida (respuesta asíncrona): libera el permiso sin mover el límite.
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (samples < WARM_UP_SAMPLES) {
+            samples++;
+            longRttNanos += (rttNanos - longRttNanos) / samples;
+            return;
+        }
+        longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        // Tras una degradación prolongada la media larga quedó alta: se deja bajar más rápido para que
+        // la latencia recuperada vuelva a contar como normal.
+        if (longRttNanos / rttNanos > 2.0) {
+            longRttNanos *= 0.95;
+        }
+        double current = limit;
+        // Con menos de la mitad del límite en uso no hay evidencia de que admita más.
+        if (inFlightAtStart < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,88 @@
+package com.bankapp.core.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Límite de admisión frente al pool de conexiones. Con hilos virtuales Tomcat deja de acotar la
+ * concurrencia, así que cada petición toma un permiso antes de llegar al servicio; si no lo obtiene
+ * dentro de la espera configurada se responde 503 de inmediato en lugar de encolarla en Hikari.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bankapp.db-admission", name = "enabled", havingValue = "true")
+public class DatabaseAdmissionFilter extends OncePerRequestFilter {
+    private static final Logger filterLog = LoggerFactory.getLogger(DatabaseAdmissionFilter.class);
+
+    private final Semaphore permits;
+    private final long maxWaitMs;
+    // Cuerpo del 503 ya serializado, con la misma forma que ApiResponseDTO.error de los servicios.
+    private final byte[] rejectionBody;
+
+    @Autowired
+    public DatabaseAdmissionFilter(@Value("${bankapp.db-admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+                                   @Value("${bankapp.db-admission.max-wait-ms:50}") long maxWaitMs,
+                                   ObjectMapper objectMapper) throws IOException {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaitMs = maxWaitMs;
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("status", "error");
+        body.put("message", "El servicio está saturado. Intente nuevamente en unos instantes.");
+        this.rejectionBody = objectMapper.writeValueAsBytes(body);
+        filterLog.info("Database admission limit enabled: maxConcurrent={}, maxWaitMs={}", maxConcurrent, maxWaitMs);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.startsWith("/actuator") || path.startsWith("/swagger-ui") || path.startsWith("/v3/api-docs");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            filterLog.warn("Rejecting request to {}: database admission limit reached.", request.getRequestURI());
+            reject(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getOutputStream().write(rejectionBody);
+    }
+}
@@ -0,0 +1,140 @@
+package com.bankapp.core.filter;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Token buckets por clave en una tabla de tamaño fijo, sin bloqueos: cada clave puede ocupar una de dos
+ * posiciones y cada posición se actualiza con un CAS independiente, así que peticiones de usuarios distintos
+ * no compiten entre sí.
+ * <p>
+ * La memoria no depende de cuántas claves distintas se vean. Un bucket que lleva inactivo el tiempo de
+ * recargarse por completo equivale a uno nuevo y su posición se reutiliza primero; si las dos posiciones
+ * están en uso se desplaza el bucket con más tokens, que es el que menos pierde al olvidarse.
+ * <p>
+ * Dos peticiones concurrentes de una clave nueva pueden insertarla cada una en una posición distinta. Tras
+ * insertar se revisa la otra posición y, si también tiene la clave, la copia de la segunda posición se retira
+ * y lo que consumió se descuenta de la primera, así que la clave no obtiene el doble de capacidad.
+ */
+public final class TokenBucketTable {
+
+    // Inmutable: cada actualización reemplaza la entrada completa con un CAS.
+    private record Bucket(long key, double tokens, long updatedNanos) {
+    }
+
+    private final AtomicReferenceArray<Bucket> slots;
+    private final int mask;
+    private final double capacity;
+    private final double refillPerNano;
+    private final long fullRefillNanos;
+    // Solo para pruebas: se ejecuta entre la lectura de las posiciones y la inserción de una clave nueva.
+    Runnable beforeInsert;
+
+    public TokenBucketTable(int maxEntries, double capacity, double refillPerSecond) {
+        int size = Integer.highestOneBit(Math.max(2, maxEntries - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.fullRefillNanos = (long) Math.ceil(capacity / refillPerNano);
+    }
+
+    /**
+     * Consume un token de la clave. Devuelve 0 si lo había, o los nanosegundos hasta que haya uno.
+     */
+    public long tryAcquire(long key, long nowNanos) {
+        long mixed = mix(key);
+        int first = (int) mixed & mask;
+        int second = (int) (mixed >>> 32) & mask;
+        while (true) {
+            Bucket atFirst = slots.get(first);
+            Bucket atSecond = slots.get(second);
+            int index;
+            Bucket expected;
+            double tokens;
+            if (atFirst != null && atFirst.key() == key) {
+                index = first;
+                expected = atFirst;
+                tokens = refilled(atFirst, nowNanos);
+            } else if (atSecond != null && atSecond.key() == key) {
+                index = second;
+                expected = atSecond;
+                tokens = refilled(atSecond, nowNanos);
+            } else {
+                index = evictable(atFirst, atSecond, nowNanos) ? first : second;
+                expected = index == first ? atFirst : atSecond;
+                tokens = capacity;
+                if (beforeInsert != null) {
+                    beforeInsert.run();
+                }
+            }
+            if (tokens < 1d) {
+                // Sin token no hace falta escribir: el estado guardado ya da el mismo resultado.
+                return (long) Math.ceil((1d - tokens) / refillPerNano);
+            }
+            if (slots.compareAndSet(index, expected, new Bucket(key, tokens - 1d, nowNanos))) {
+                if (expected == null || expected.key() != key) {
+                    mergeDuplicate(key, first, second, nowNanos);
+                }
+                return 0L;
+            }
+        }
+    }
+
+    // Si la clave quedó en las dos posiciones, retira la copia de la segunda y descuenta de la primera lo que
+    // se consumió de ella. Ambas copias nacieron llenas, así que lo consumido es capacity menos lo que le queda.
+    private void mergeDuplicate(long key, int first, int second, long nowNanos) {
+        if (first == second) {
+            return;
+        }
+        while (true) {
+            Bucket atFirst = slots.get(first);
+            Bucket atSecond = slots.get(second);
+            if (atFirst == null || atFirst.key() != key || atSecond == null || atSecond.key() != key) {
+                return;
+            }
+            if (!slots.compareAndSet(second, atSecond, null)) {
+                continue;
+            }
+            while (true) {
+                long now = Math.max(nowNanos, Math.max(atFirst.updatedNanos(), atSecond.updatedNanos()));
+                double tokens = refilled(atFirst, now) + refilled(atSecond, now) - capacity;
+                if (slots.compareAndSet(first, atFirst, new Bucket(key, tokens, now))) {
+                    return;
+                }
+                atFirst = slots.get(first);
+                if (atFirst == null || atFirst.key() != key) {
+                    // La primera copia se desplazó mientras tanto: la segunda vuelve a ser la única, si su posición sigue libre.
+                    slots.compareAndSet(second, null, atSecond);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Si conviene ocupar la primera posición antes que la segunda.
+    private boolean evictable(Bucket atFirst, Bucket atSecond, long nowNanos) {
+        if (atFirst == null || nowNanos - atFirst.updatedNanos() >= fullRefillNanos) {
+            return true;
+        }
+        if (atSecond == null || nowNanos - atSecond.updatedNanos() >= fullRefillNanos) {
+            return false;
+        }
+        return refilled(atFirst, nowNanos) >= refilled(atSecond, nowNanos);
+    }
+
+    private double refilled(Bucket bucket, long nowNanos) {
+        long elapsed = nowNanos - bucket.updatedNanos();
+        if (elapsed >= fullRefillNanos) {
+            return capacity;
+        }
+        return Math.min(capacity, bucket.tokens() + elapsed * refillPerNano);
+    }
+
+    // Mezcla de SplitMix64: las dos mitades dan las dos posiciones candidatas.
+    static long mix(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,140 @@
+package com.bankapp.core.filter;
+
+import com.bankapp.core.utils.RequestHeaders;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limita la frecuencia de peticiones por usuario ({@code X-User-ID}) y, opcionalmente, por IP de cliente, con un
+ * token bucket por clave en {@link TokenBucketTable}. Un cliente defectuoso que repite retiros del mismo usuario
+ * recibe 429 antes de llegar al servicio, en lugar de mantener tomado el bloqueo de la fila de su cuenta.
+ * <p>
+ * Se ejecuta antes que los límites de concurrencia para que esas peticiones no consuman sus permisos. Las
+ * peticiones sin un {@code X-User-ID} válido pasan sin límite de usuario: el controlador las rechaza con 400.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+@ConditionalOnProperty(prefix = "bankapp.rate-limit", name = "enabled", havingValue = "true")
+public class UserRateLimitFilter extends OncePerRequestFilter {
+    private static final Logger filterLog = LoggerFactory.getLogger(UserRateLimitFilter.class);
+
+    private final TokenBucketTable userBuckets;
+    // Null si el límite por IP está desactivado.
+    private final TokenBucketTable ipBuckets;
+    private final Counter userRejections;
+    private final Counter ipRejections;
+    // Cuerpo del 429 ya serializado, con la misma forma que ApiResponseDTO.fail de los servicios.
+    private final byte[] rejectionBody;
+
+    @Autowired
+    public UserRateLimitFilter(@Value("${bankapp.rate-limit.max-entries:262144}") int maxEntries,
+                               @Value("${bankapp.rate-limit.user.capacity:20}") double userCapacity,
+                               @Value("${bankapp.rate-limit.user.refill-per-second:10}") double userRefillPerSecond,
+                               @Value("${bankapp.rate-limit.ip.enabled:false}") boolean ipEnabled,
+                               @Value("${bankapp.rate-limit.ip.capacity:200}") double ipCapacity,
+                               @Value("${bankapp.rate-limit.ip.refill-per-second:100}") double ipRefillPerSecond,
+                               ObjectMapper objectMapper, MeterRegistry meterRegistry) throws IOException {
+        this.userBuckets = new TokenBucketTable(maxEntries, userCapacity, userRefillPerSecond);
+        this.ipBuckets = ipEnabled ? new TokenBucketTable(maxEntries, ipCapacity, ipRefillPerSecond) : null;
+        this.userRejections = rejections("user", meterRegistry);
+        this.ipRejections = rejections("ip", meterRegistry);
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("status", "fail");
+        body.put("message", "Demasiadas solicitudes. Intente nuevamente en unos instantes.");
+        this.rejectionBody = objectMapper.writeValueAsBytes(body);
+        filterLog.info("Per-user rate limit enabled: {} requests burst, {} per second (per IP: {}).",
+                userCapacity, userRefillPerSecond, ipEnabled ? ipCapacity + " burst, " + ipRefillPerSecond + " per second" : "disabled");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.startsWith("/actuator") || path.startsWith("/swagger-ui") || path.startsWith("/v3/api-docs");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        long waitNanos = 0L;
+        if (ipBuckets != null) {
+            waitNanos = ipBuckets.tryAcquire(ipKey(RequestHeaders.resolveClientIp(request)), now);
+            if (waitNanos > 0L) {
+                ipRejections.increment();
+            }
+        }
+        if (waitNanos == 0L) {
+            long userId = parseUserId(request.getHeader("X-User-ID"));
+            if (userId != Long.MIN_VALUE) {
+                waitNanos = userBuckets.tryAcquire(userId, now);
+                if (waitNanos > 0L) {
+                    userRejections.increment();
+                }
+            }
+        }
+        if (waitNanos > 0L) {
+            reject(response, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Sin excepciones ni logs por petición: un header inválido se deja pasar y lo rechaza el controlador.
+    private static long parseUserId(String header) {
+        if (header == null || header.isBlank()) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    // Hash FNV-1a de 64 bits de la IP como clave de la tabla.
+    private static long ipKey(String clientIp) {
+        long hash = 0xCBF29CE484222325L;
+        if (clientIp != null) {
+            for (int i = 0; i < clientIp.length(); i++) {
+                hash = (hash ^ clientIp.charAt(i)) * 0x100000001B3L;
+            }
+        }
+        return hash;
+    }
+
+    private static Counter rejections(String key, MeterRegistry meterRegistry) {
+        return Counter.builder("bankapp.rate-limit.rejected")
+                .description("Requests rejected with 429 by the per-user or per-IP rate limit")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(Math.max(1L, (waitNanos + 999_999_999L) / 1_000_000_000L)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getOutputStream().write(rejectionBody);
+    }
+}
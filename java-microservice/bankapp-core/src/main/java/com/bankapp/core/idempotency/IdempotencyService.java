@@ -0,0 +1,163 @@
+package com.bankapp.core.idempotency;
+
+import com.bankapp.core.exception.IdempotencyConflictException;
+import com.bankapp.core.exception.IdempotencyKeyReuseException;
+import com.bankapp.core.model.IdempotencyRecord;
+import com.bankapp.core.model.Money;
+import com.bankapp.core.result.OperationResult;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Control de idempotencia para operaciones enviadas con el header {@code Idempotency-Key}. Cada servicio la
+ * extiende con su operación ({@code DEPOSIT}, {@code WITHDRAWAL}, ...), la consulta a su repositorio de
+ * {@code bankapp.idempotency_keys} y la respuesta que reconstruye desde una fila guardada.
+ * <p>
+ * Un índice en memoria, acotado y con expiración, guarda por clave el resultado (o la operación en curso):
+ * los reintentos reciben la respuesta almacenada sin tocar la cuenta y los duplicados concurrentes esperan
+ * a la primera petición. La tabla {@code bankapp.idempotency_keys} es la fuente de verdad entre instancias
+ * y tras una expulsión del índice; solo se consulta cuando la restricción única detecta un duplicado.
+ * <p>
+ * La clave queda ligada a la solicitud que la registró: la operación forma parte de la clave única y el monto
+ * se guarda con ella (en el índice y en la fila), así que reutilizarla con otro monto se rechaza con 422 en
+ * lugar de devolver el resultado de una solicitud distinta.
+ *
+ * @param <R> respuesta de la operación que se repite ante un reintento
+ */
+public abstract class IdempotencyService<R> {
+    private static final Logger serviceLog = LoggerFactory.getLogger(IdempotencyService.class);
+
+    /**
+     * Consulta de la fila confirmada de una clave (el método derivado del repositorio JPA de cada servicio).
+     */
+    @FunctionalInterface
+    public interface RecordLookup {
+        Optional<IdempotencyRecord> find(Long userId, String operation, String idempotencyKey);
+    }
+
+    private final String operation;
+    // Nombre de la operación en los logs y mensajes de error ("deposit", "withdrawal").
+    private final String operationName;
+    private final RecordLookup recordLookup;
+    private final Cache<String, Entry<R>> index;
+    private final long waitTimeoutMs;
+
+    protected IdempotencyService(String operation, RecordLookup recordLookup,
+                                 long maximumSize, long ttlMs, long waitTimeoutMs) {
+        this.operation = operation;
+        this.operationName = operation.toLowerCase(Locale.ROOT);
+        this.recordLookup = recordLookup;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.index = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+    }
+
+    /**
+     * Respuesta de una operación ya confirmada, reconstruida desde su fila en {@code bankapp.idempotency_keys}.
+     */
+    protected abstract R toResponse(IdempotencyRecord record);
+
+    /**
+     * El monto llega en diezmilésimas ({@link Money#units()}), como lo entrega la solicitud; la fila guardada se
+     * compara con el mismo redondeo.
+     * <p>
+     * Un rechazo ({@link OperationResult.Rejected}) no aplicó cambios, así que no se guarda: la clave se libera
+     * y un reintento con la misma clave vuelve a ejecutarse, igual que tras una excepción.
+     */
+    public OperationResult<R> execute(Long userId, String idempotencyKey, long amountUnits, Supplier<OperationResult<R>> action) {
+        String indexKey = userId + ":" + idempotencyKey;
+        Entry<R> owned = new Entry<>(amountUnits, new CompletableFuture<>());
+
+        while (true) {
+            Entry<R> existing = index.asMap().putIfAbsent(indexKey, owned);
+            if (existing == null) {
+                break;
+            }
+            checkSameRequest(existing.amountUnits(), amountUnits, idempotencyKey);
+            R replayed = awaitFirst(existing.result(), idempotencyKey);
+            if (replayed != null) {
+                serviceLog.info("Replaying {} for user {} with Idempotency-Key {}", operationName, userId, idempotencyKey);
+                return OperationResult.success(replayed);
+            }
+            // La primera petición falló sin aplicar cambios: esta pasa a ser la propietaria de la clave.
+        }
+
+        try {
+            OperationResult<R> result = action.get();
+            if (result instanceof OperationResult.Success<R> success) {
+                owned.result().complete(success.value());
+            } else {
+                // Los que esperan reciben null y compiten por la clave, como cuando la primera petición falla.
+                index.asMap().remove(indexKey, owned);
+                owned.result().complete(null);
+            }
+            return result;
+        } catch (DataIntegrityViolationException e) {
+            Optional<IdempotencyRecord> stored = recordLookup.find(userId, operation, idempotencyKey);
+            if (stored.isEmpty()) {
+                release(indexKey, owned, e);
+                throw e;
+            }
+            try {
+                checkSameRequest(Money.toUnits(stored.get().getAmount()), amountUnits, idempotencyKey);
+            } catch (IdempotencyKeyReuseException mismatch) {
+                release(indexKey, owned, mismatch);
+                throw mismatch;
+            }
+            serviceLog.info("Replaying stored {} for user {} with Idempotency-Key {}", operationName, userId, idempotencyKey);
+            R response = toResponse(stored.get());
+            owned.result().complete(response);
+            return OperationResult.success(response);
+        } catch (RuntimeException | Error e) {
+            release(indexKey, owned, e);
+            throw e;
+        }
+    }
+
+    private void checkSameRequest(long registeredUnits, long amountUnits, String idempotencyKey) {
+        if (registeredUnits != amountUnits) {
+            throw new IdempotencyKeyReuseException(String.format(
+                    "Idempotency-Key %s was already used for a %s of a different amount.", idempotencyKey, operationName));
+        }
+    }
+
+    // Devuelve la respuesta de la primera petición, o null si esta terminó con error o fue rechazada.
+    private R awaitFirst(CompletableFuture<R> first, String idempotencyKey) {
+        try {
+            return first.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(String.format(
+                    "A %s with Idempotency-Key %s is still being processed.", operationName, idempotencyKey));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException(String.format(
+                    "Interrupted while waiting for %s with Idempotency-Key %s.", operationName, idempotencyKey));
+        }
+    }
+
+    // Retira la entrada antes de completar el futuro para que los que esperan puedan reclamar la clave.
+    private void release(String indexKey, Entry<R> owned, Throwable failure) {
+        index.asMap().remove(indexKey, owned);
+        owned.result().completeExceptionally(failure);
+    }
+
+    // Monto con el que se registró la clave y resultado (o la operación en curso) de esa solicitud.
+    private record Entry<R>(long amountUnits, CompletableFuture<R> result) {
+    }
+}
@@ -1,4 +1,4 @@
-package com.bankapp.withdrawal_service.model;
+package com.bankapp.core.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -17,7 +17,7 @@ import java.time.OffsetDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "accounts", schema = "bankapp")
+@Table(name = "accounts", schema = "bankapp", indexes = @Index(name = "idx_accounts_user_id", columnList = "user_id"))
 public class Account {
 
     @Id
@@ -67,5 +67,4 @@ public class Account {
     @ColumnDefault("CURRENT_TIMESTAMP")
     @Column(name = "updated_at", nullable = false)
     private OffsetDateTime updatedAt;
-
 }
\ No newline at end of file
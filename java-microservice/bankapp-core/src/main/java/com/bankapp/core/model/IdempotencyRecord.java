@@ -0,0 +1,79 @@
+package com.bankapp.core.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Resultado confirmado de una operación enviada con el header {@code Idempotency-Key}. La fila se
+ * inserta en la misma sentencia que modifica el saldo, así que existe si y solo si la operación se aplicó.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "idempotency_keys", schema = "bankapp")
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @NotNull
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Size(max = 20)
+    @NotNull
+    @Column(name = "operation", nullable = false, length = 20)
+    private String operation;
+
+    @Size(max = 255)
+    @NotNull
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    @NotNull
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Size(max = 20)
+    @NotNull
+    @Column(name = "account_number", nullable = false, length = 20)
+    private String accountNumber;
+
+    @Size(max = 3)
+    @NotNull
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+
+    @NotNull
+    @Column(name = "amount", nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @NotNull
+    @Column(name = "new_balance", nullable = false, precision = 19, scale = 4)
+    private BigDecimal newBalance;
+
+    @Size(max = 64)
+    @NotNull
+    @Column(name = "transaction_id", nullable = false, length = 64)
+    private String transactionId;
+
+    @NotNull
+    @Column(name = "transaction_timestamp", nullable = false)
+    private OffsetDateTime transactionTimestamp;
+
+    @NotNull
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,75 @@
+package com.bankapp.core.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CompositeType;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Movimiento aplicado sobre una cuenta. Se inserta en la misma transacción que el cambio de saldo;
+ * los identificadores salen de una secuencia con incremento 50, de modo que Hibernate solo consulta
+ * la secuencia una vez cada 50 filas y las inserciones viajan agrupadas en lotes JDBC al confirmar.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "transactions", schema = "bankapp")
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_id_gen")
+    @SequenceGenerator(name = "transactions_id_gen", schema = "bankapp", sequenceName = "transactions_id_seq", allocationSize = 50)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Size(max = 64)
+    @NotNull
+    @Column(name = "transaction_id", nullable = false, length = 64)
+    private String transactionId;
+
+    @NotNull
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @NotNull
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Size(max = 20)
+    @NotNull
+    @Column(name = "operation", nullable = false, length = 20)
+    private String operation;
+
+    // amount y balance_after comparten la columna currency; la escribe el monto del movimiento.
+    @NotNull
+    @Embedded
+    @CompositeType(MoneyType.class)
+    @AttributeOverride(name = "amount", column = @Column(name = "amount", nullable = false, precision = 19, scale = 4))
+    @AttributeOverride(name = "currency", column = @Column(name = "currency", nullable = false, length = 3))
+    private Money amount;
+
+    @NotNull
+    @Embedded
+    @CompositeType(MoneyType.class)
+    @AttributeOverride(name = "amount", column = @Column(name = "balance_after", nullable = false, precision = 19, scale = 4))
+    @AttributeOverride(name = "currency", column = @Column(name = "currency", nullable = false, length = 3, insertable = false, updatable = false))
+    private Money balanceAfter;
+
+    @Size(max = 45)
+    @Column(name = "client_ip", length = 45)
+    private String clientIp;
+
+    @NotNull
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,169 @@
+package com.bankapp.core.model;
+
+import com.bankapp.core.utils.MoneyJsonSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Monto de punto fijo: un {@code long} en diezmilésimas (la escala de las columnas {@code NUMERIC(19,4)}) más el
+ * código de moneda. Sumar, restar y comparar no crean objetos intermedios más allá del resultado, y las
+ * operaciones que desbordan el {@code long} lanzan {@link ArithmeticException} en lugar de perder precisión.
+ * <p>
+ * Solo se combinan montos de la misma moneda; mezclar monedas lanza {@link IllegalArgumentException}. Las
+ * solicitudes y las sentencias de depósitos y retiros ya entregan diezmilésimas ({@link #ofUnits}); la conversión
+ * desde {@link BigDecimal} queda para las columnas leídas por JPA y los caminos que aún lo usan. El rango es de
+ * ±922.337.203.685.477,5807, algo menor que el de {@code NUMERIC(19,4)}; fuera de él {@link #of} falla.
+ * <p>
+ * En JSON se escribe como texto con sus 4 decimales ({@link MoneyJsonSerializer}).
+ */
+@JsonSerialize(using = MoneyJsonSerializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final int SCALE = 4;
+    // Signo, hasta 19 dígitos y punto, con margen para que formatTo() arme los dígitos al final del búfer.
+    public static final int MAX_TEXT_LENGTH = 24;
+
+    private static final long UNITS_PER_WHOLE = 10_000L;
+
+    private final long units;
+    private final String currency;
+
+    private Money(long units, String currency) {
+        this.units = units;
+        this.currency = Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofUnits(long units, String currency) {
+        return new Money(units, currency);
+    }
+
+    public static Money zero(String currency) {
+        return new Money(0L, currency);
+    }
+
+    /**
+     * Convierte un monto decimal redondeando a 4 decimales como lo hace PostgreSQL al guardarlo en
+     * {@code NUMERIC(19,4)} (mitad hacia arriba). Lanza {@link ArithmeticException} si no cabe en el {@code long}.
+     */
+    public static Money of(BigDecimal amount, String currency) {
+        return new Money(toUnits(amount), currency);
+    }
+
+    // Diezmilésimas de un monto, con el mismo redondeo que of(); para acumular antes de conocer la moneda.
+    public static long toUnits(BigDecimal amount) {
+        BigDecimal scaled = amount.scale() == SCALE ? amount : amount.setScale(SCALE, RoundingMode.HALF_UP);
+        return scaled.scaleByPowerOfTen(SCALE).longValueExact();
+    }
+
+    public static Money ofNullable(BigDecimal amount, String currency) {
+        return amount != null ? of(amount, currency) : null;
+    }
+
+    public long units() {
+        return units;
+    }
+
+    public String currency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(units, other.units), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(units, other.units), currency);
+    }
+
+    public boolean isPositive() {
+        return units > 0;
+    }
+
+    public boolean isNegative() {
+        return units < 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(units, other.units);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    /**
+     * Escribe el monto con sus 4 decimales (como {@code toBigDecimal().toPlainString()}) al inicio de
+     * {@code buffer}, de al menos {@link #MAX_TEXT_LENGTH} caracteres, y devuelve la longitud.
+     */
+    public int formatTo(char[] buffer) {
+        int end = buffer.length;
+        int start = end;
+        // Dígitos del valor absoluto al final del búfer; en negativo para cubrir Long.MIN_VALUE.
+        long remaining = units > 0 ? -units : units;
+        int digits = 0;
+        do {
+            buffer[--start] = (char) ('0' - (int) (remaining % 10));
+            remaining /= 10;
+            digits++;
+        } while (remaining != 0 || digits <= SCALE);
+        int position = 0;
+        if (units < 0) {
+            buffer[position++] = '-';
+        }
+        int integerDigits = digits - SCALE;
+        System.arraycopy(buffer, start, buffer, position, integerDigits);
+        position += integerDigits;
+        buffer[position++] = '.';
+        System.arraycopy(buffer, start + integerDigits, buffer, position, SCALE);
+        return position + SCALE;
+    }
+
+    @Override
+    public String toString() {
+        return format(units);
+    }
+
+    /**
+     * Texto de un monto en diezmilésimas con sus 4 decimales, el mismo que escribe {@link #formatTo}. Lo arma la
+     * concatenación de cadenas, que asigna solo el resultado; las respuestas JSON usan {@link #formatTo} con el
+     * búfer de {@link com.bankapp.core.utils.JsonDecimals}.
+     */
+    public static String format(long units) {
+        // El resto conserva el signo de units; en Long.MIN_VALUE la parte entera sigue cabiendo en el long.
+        long whole = Math.abs(units / UNITS_PER_WHOLE);
+        int fraction = (int) Math.abs(units % UNITS_PER_WHOLE);
+        String padding = fraction >= 1000 ? "" : fraction >= 100 ? "0" : fraction >= 10 ? "00" : "000";
+        return (units < 0 ? "-" : "") + whole + "." + padding + fraction;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof Money money && units == money.units && currency.equals(money.currency));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(units) + currency.hashCode();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Cannot combine amounts in " + currency + " and " + other.currency + ".");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.bankapp.core.model;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.spi.ValueAccess;
+import org.hibernate.usertype.CompositeUserType;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Mapeo de {@link Money} a un par de columnas {@code NUMERIC(19,4)} + código de moneda. La conversión a
+ * {@link BigDecimal} ocurre solo al leer y escribir la fila; el resto del camino trabaja con el {@code long}.
+ * <p>
+ * Las columnas se nombran con {@code @AttributeOverride} sobre {@code amount} y {@code currency}.
+ */
+public class MoneyType implements CompositeUserType<Money> {
+
+    // Forma de las columnas para Hibernate; las propiedades se indexan en orden alfabético (amount, currency).
+    public static class MoneyColumns {
+        BigDecimal amount;
+        String currency;
+    }
+
+    @Override
+    public Object getPropertyValue(Money component, int property) throws HibernateException {
+        return switch (property) {
+            case 0 -> component.toBigDecimal();
+            case 1 -> component.currency();
+            default -> throw new HibernateException("Unknown Money property index " + property + ".");
+        };
+    }
+
+    @Override
+    public Money instantiate(ValueAccess values, SessionFactoryImplementor sessionFactory) {
+        BigDecimal amount = values.getValue(0, BigDecimal.class);
+        String currency = values.getValue(1, String.class);
+        return amount != null && currency != null ? Money.of(amount, currency) : null;
+    }
+
+    @Override
+    public Class<?> embeddable() {
+        return MoneyColumns.class;
+    }
+
+    @Override
+    public Class<Money> returnedClass() {
+        return Money.class;
+    }
+
+    @Override
+    public boolean equals(Money x, Money y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Money x) {
+        return Objects.hashCode(x);
+    }
+
+    // Money es inmutable: no hace falta copiar.
+    @Override
+    public Money deepCopy(Money value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Money value) {
+        return value;
+    }
+
+    @Override
+    public Money assemble(Serializable cached, Object owner) {
+        return (Money) cached;
+    }
+
+    @Override
+    public Money replace(Money detached, Money managed, Object owner) {
+        return detached;
+    }
+}
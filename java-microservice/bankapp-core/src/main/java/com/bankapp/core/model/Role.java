@@ -1,4 +1,4 @@
-package com.bankapp.deposit_service.model;
+package com.bankapp.core.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
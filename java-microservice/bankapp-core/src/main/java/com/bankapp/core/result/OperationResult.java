@@ -0,0 +1,30 @@
+package com.bankapp.core.result;
+
+/**
+ * Resultado de una operación de negocio: el valor, o un {@link Rejection} esperado (monto inválido, cuenta
+ * inexistente o inactiva, fondos insuficientes) que llega al controlador como un valor de retorno más, sin
+ * construir ni lanzar excepciones. Las excepciones quedan para errores de entrada en la capa web y fallos
+ * inesperados.
+ */
+public sealed interface OperationResult<T> {
+
+    static <T> OperationResult<T> success(T value) {
+        return new Success<>(value);
+    }
+
+    static <T> OperationResult<T> rejected(Rejection reason, String message) {
+        return new Rejected<>(reason, message);
+    }
+
+    record Success<T>(T value) implements OperationResult<T> {
+    }
+
+    record Rejected<T>(Rejection reason, String message) implements OperationResult<T> {
+
+        // Un rechazo no lleva valor, así que puede propagarse como resultado de cualquier tipo.
+        @SuppressWarnings("unchecked")
+        public <U> Rejected<U> cast() {
+            return (Rejected<U>) this;
+        }
+    }
+}
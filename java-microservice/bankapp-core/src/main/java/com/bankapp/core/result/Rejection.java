@@ -0,0 +1,26 @@
+package com.bankapp.core.result;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Rechazos esperados de una operación, con el código HTTP que el controlador devuelve para cada uno
+ * (el mismo que asignaba GlobalExceptionHandler a la excepción equivalente).
+ */
+public enum Rejection {
+    INVALID_INPUT(HttpStatus.BAD_REQUEST),
+    ACCOUNT_NOT_FOUND(HttpStatus.NOT_FOUND),
+    ACCOUNT_INACTIVE(HttpStatus.FORBIDDEN),
+    INSUFFICIENT_FUNDS(HttpStatus.BAD_REQUEST),
+    // No se aplicó a tiempo y se descartó sin tocar la cuenta: el cliente puede reintentar.
+    NOT_APPLIED(HttpStatus.SERVICE_UNAVAILABLE);
+
+    private final HttpStatus httpStatus;
+
+    Rejection(HttpStatus httpStatus) {
+        this.httpStatus = httpStatus;
+    }
+
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+}
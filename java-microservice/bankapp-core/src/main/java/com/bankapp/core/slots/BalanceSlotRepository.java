@@ -0,0 +1,284 @@
+package com.bankapp.core.slots;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sentencias sobre {@code bankapp.account_balance_slots}. El saldo de una cuenta repartida es
+ * {@code accounts.balance} más la suma de sus slots; los depósitos y retiros bloquean un solo slot en lugar de
+ * la fila de la cuenta, así que hasta N operaciones sobre la misma cuenta avanzan a la vez.
+ * <p>
+ * Igual que las sentencias de cada servicio sobre {@code bankapp.accounts}, cada operación valida el estado,
+ * modifica el saldo, registra el Idempotency-Key y emite el NOTIFY de la caché de saldos en un solo viaje.
+ * El monto se enlaza y el saldo se devuelve en diezmilésimas ({@code bigint}); la conversión a
+ * {@code NUMERIC(19,4)} la hace PostgreSQL.
+ * El saldo informado se calcula sobre la instantánea de la sentencia: con depósitos concurrentes en otros
+ * slots es el total que vio esta operación, no necesariamente el de la última confirmada.
+ */
+@Repository
+public class BalanceSlotRepository {
+
+    private static final String ACCOUNT = """
+            account AS (
+                SELECT id, user_id, account_number, currency, status, balance
+                FROM bankapp.accounts
+                WHERE id = :accountId
+            )""";
+
+    // Saldo total de la cuenta en la instantánea de la sentencia.
+    private static final String SNAPSHOT_TOTAL = """
+            a.balance + COALESCE((SELECT SUM(s.balance) FROM bankapp.account_balance_slots s WHERE s.account_id = a.id), 0)""";
+
+    private static final String RECORD_AND_NOTIFY = """
+            , recorded AS (
+                INSERT INTO bankapp.idempotency_keys (user_id, operation, idempotency_key, account_id, account_number,
+                                                      currency, amount, new_balance, transaction_id, transaction_timestamp)
+                SELECT t.user_id, :operation, CAST(:idempotencyKey AS varchar), t.id, t.account_number, t.currency,
+                       :amountUnits * 0.0001, t.balance, CAST(:transactionId AS varchar), CAST(:transactionTimestamp AS timestamptz)
+                FROM totals t
+                WHERE t.applied AND CAST(:idempotencyKey AS varchar) IS NOT NULL
+            ), notified AS (
+                SELECT t.id
+                FROM (SELECT id, user_id FROM totals WHERE applied) t,
+                     LATERAL pg_notify('bankapp_balance_changed', CAST(t.user_id AS text))
+            )
+            SELECT t.id, t.account_number, t.currency, t.status, CAST(t.balance * 10000 AS bigint) AS balance_units,
+                   t.applied, t.sharded,
+                   (SELECT COUNT(*) FROM notified) AS notified
+            FROM totals t
+            """;
+
+    // Acredita en un slot: el primero libre a partir de uno al azar o, si todos están tomados, espera por ese.
+    private static final String CREDIT = """
+            WITH %s, picked AS (
+                SELECT s.slot
+                FROM bankapp.account_balance_slots s
+                WHERE s.account_id = :accountId
+                  AND EXISTS (SELECT 1 FROM account a WHERE LOWER(a.status) = 'active')
+                ORDER BY MOD(s.slot + :rotation, :slotCount)
+                LIMIT 1
+                FOR UPDATE OF s %s
+            ), changed AS (
+                UPDATE bankapp.account_balance_slots s
+                SET balance = s.balance + :amountUnits * 0.0001, updated_at = CURRENT_TIMESTAMP
+                FROM picked p
+                WHERE s.account_id = :accountId AND s.slot = p.slot
+                RETURNING s.slot
+            ), totals AS (
+                SELECT a.id, a.user_id, a.account_number, a.currency, a.status,
+                       %s + CASE WHEN EXISTS (SELECT 1 FROM changed) THEN :amountUnits * 0.0001 ELSE 0 END AS balance,
+                       EXISTS (SELECT 1 FROM changed) AS applied,
+                       EXISTS (SELECT 1 FROM bankapp.account_balance_slots s WHERE s.account_id = a.id) AS sharded
+                FROM account a
+            )%s""";
+
+    // Descuenta de un único slot libre con fondos suficientes, sin esperar por los que están tomados.
+    private static final String DEBIT_SINGLE = """
+            WITH %s, picked AS (
+                SELECT s.slot
+                FROM bankapp.account_balance_slots s
+                WHERE s.account_id = :accountId AND s.balance >= :amountUnits * 0.0001
+                  AND EXISTS (SELECT 1 FROM account a WHERE LOWER(a.status) = 'active')
+                ORDER BY MOD(s.slot + :rotation, :slotCount)
+                LIMIT 1
+                FOR UPDATE OF s SKIP LOCKED
+            ), changed AS (
+                UPDATE bankapp.account_balance_slots s
+                SET balance = s.balance - :amountUnits * 0.0001, updated_at = CURRENT_TIMESTAMP
+                FROM picked p
+                WHERE s.account_id = :accountId AND s.slot = p.slot AND s.balance >= :amountUnits * 0.0001
+                RETURNING s.slot
+            ), totals AS (
+                SELECT a.id, a.user_id, a.account_number, a.currency, a.status,
+                       %s - CASE WHEN EXISTS (SELECT 1 FROM changed) THEN :amountUnits * 0.0001 ELSE 0 END AS balance,
+                       EXISTS (SELECT 1 FROM changed) AS applied,
+                       EXISTS (SELECT 1 FROM bankapp.account_balance_slots s WHERE s.account_id = a.id) AS sharded
+                FROM account a
+            )%s""";
+
+    // Barrido: bloquea la cuenta y todos sus slots (en orden) y descuenta empezando por los de mayor saldo,
+    // incluido lo que haya quedado en accounts.balance (slot -1) desde la última compactación.
+    private static final String DEBIT_SWEEP = """
+            WITH account AS (
+                SELECT id, user_id, account_number, currency, status, balance
+                FROM bankapp.accounts
+                WHERE id = :accountId
+                FOR UPDATE
+            ), locked AS (
+                SELECT s.slot, s.balance
+                FROM bankapp.account_balance_slots s
+                WHERE s.account_id = :accountId
+                  AND EXISTS (SELECT 1 FROM account a WHERE LOWER(a.status) = 'active')
+                ORDER BY s.slot
+                FOR UPDATE OF s
+            ), sources AS (
+                SELECT slot, balance FROM locked
+                UNION ALL
+                SELECT -1, balance FROM account WHERE LOWER(status) = 'active' AND balance > 0
+            ), plan AS (
+                SELECT slot, balance,
+                       SUM(balance) OVER (ORDER BY balance DESC, slot ROWS UNBOUNDED PRECEDING) - balance AS taken_before,
+                       SUM(balance) OVER () AS available
+                FROM sources
+            ), drawn AS (
+                SELECT slot, LEAST(balance, :amountUnits * 0.0001 - taken_before) AS draw
+                FROM plan
+                WHERE available >= :amountUnits * 0.0001 AND taken_before < :amountUnits * 0.0001 AND EXISTS (SELECT 1 FROM locked)
+            ), changed AS (
+                UPDATE bankapp.account_balance_slots s
+                SET balance = s.balance - d.draw, updated_at = CURRENT_TIMESTAMP
+                FROM drawn d
+                WHERE s.account_id = :accountId AND s.slot = d.slot
+                RETURNING s.slot
+            ), changed_account AS (
+                UPDATE bankapp.accounts a
+                SET balance = a.balance - d.draw, updated_at = CURRENT_TIMESTAMP
+                FROM drawn d
+                WHERE a.id = :accountId AND d.slot = -1
+                RETURNING a.id
+            ), totals AS (
+                SELECT a.id, a.user_id, a.account_number, a.currency, a.status,
+                       CASE WHEN EXISTS (SELECT 1 FROM locked)
+                            THEN (SELECT MAX(available) FROM plan) - CASE WHEN EXISTS (SELECT 1 FROM drawn) THEN :amountUnits * 0.0001 ELSE 0 END
+                            ELSE %s
+                       END AS balance,
+                       EXISTS (SELECT 1 FROM drawn) AS applied,
+                       EXISTS (SELECT 1 FROM locked) OR LOWER(a.status) <> 'active' AS sharded
+                FROM account a
+            )%s""".formatted(SNAPSHOT_TOTAL, RECORD_AND_NOTIFY);
+
+    // Reparte en partes iguales, entre los slots que no están en uso, su saldo más lo acreditado directamente
+    // en accounts.balance (depósitos masivos o agrupados; negativo si el motor de retiros descontó ahí). Solo mueve
+    // dinero entre filas que bloqueó, así que no cambia el total ni espera a ninguna operación en curso; si lo
+    // bloqueado no alcanza para cubrir un accounts.balance negativo, espera a la siguiente pasada.
+    private static final String COMPACT = """
+            WITH locked AS (
+                SELECT s.slot, s.balance
+                FROM bankapp.account_balance_slots s
+                WHERE s.account_id = :accountId
+                ORDER BY s.slot
+                FOR UPDATE OF s SKIP LOCKED
+            ), main AS (
+                SELECT a.id, a.balance
+                FROM bankapp.accounts a
+                WHERE a.id = :accountId AND a.balance <> 0
+                FOR UPDATE SKIP LOCKED
+            ), pool AS (
+                SELECT COALESCE((SELECT SUM(balance) FROM locked), 0) + COALESCE((SELECT balance FROM main), 0) AS total,
+                       (SELECT COUNT(*) FROM locked) AS slots,
+                       (SELECT MIN(slot) FROM locked) AS first_slot,
+                       EXISTS (SELECT 1 FROM main) AS has_main
+            ), needed AS (
+                SELECT p.*
+                FROM pool p
+                WHERE p.slots > 0 AND p.total >= 0
+                  AND (p.has_main OR EXISTS (SELECT 1 FROM locked l WHERE l.balance < p.total / NULLIF(p.slots, 0) / 2))
+            ), rebalanced AS (
+                UPDATE bankapp.account_balance_slots s
+                SET balance = TRUNC(n.total / n.slots, 4)
+                              + CASE WHEN s.slot = n.first_slot THEN n.total - TRUNC(n.total / n.slots, 4) * n.slots ELSE 0 END,
+                    updated_at = CURRENT_TIMESTAMP
+                FROM needed n
+                WHERE s.account_id = :accountId AND s.slot IN (SELECT slot FROM locked)
+                RETURNING s.slot
+            ), drained AS (
+                UPDATE bankapp.accounts a
+                SET balance = 0, updated_at = CURRENT_TIMESTAMP
+                FROM main m
+                WHERE a.id = m.id AND EXISTS (SELECT 1 FROM rebalanced)
+                RETURNING a.id
+            )
+            SELECT (SELECT COUNT(*) FROM rebalanced) + (SELECT COUNT(*) FROM drained)
+            """;
+
+    private static final String FIND_SLOT_ACCOUNTS = """
+            SELECT a.user_id, s.account_id, COUNT(*) AS slot_count
+            FROM bankapp.account_balance_slots s
+            JOIN bankapp.accounts a ON a.id = s.account_id
+            GROUP BY a.user_id, s.account_id
+            """;
+
+    private static final String TOTAL_BALANCE = """
+            SELECT %s
+            FROM bankapp.accounts a
+            WHERE a.id = :accountId
+            """.formatted(SNAPSHOT_TOTAL);
+
+    private static final RowMapper<SlotMutation> MUTATION_MAPPER = (rs, rowNum) -> new SlotMutation(
+            rs.getLong("id"), rs.getString("account_number"), rs.getString("currency"), rs.getString("status"),
+            rs.getLong("balance_units"), rs.getBoolean("applied"), rs.getBoolean("sharded"));
+
+    private static final String CREDIT_SKIP_LOCKED = CREDIT.formatted(ACCOUNT, "SKIP LOCKED", SNAPSHOT_TOTAL, RECORD_AND_NOTIFY);
+    private static final String CREDIT_WAIT = CREDIT.formatted(ACCOUNT, "", SNAPSHOT_TOTAL, RECORD_AND_NOTIFY);
+    private static final String DEBIT_SINGLE_SKIP_LOCKED = DEBIT_SINGLE.formatted(ACCOUNT, SNAPSHOT_TOTAL, RECORD_AND_NOTIFY);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BalanceSlotRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<BalanceSlots.SlotAccount> findSlotAccounts() {
+        return jdbcTemplate.query(FIND_SLOT_ACCOUNTS, (rs, rowNum) ->
+                new BalanceSlots.SlotAccount(rs.getLong("user_id"), rs.getLong("account_id"), rs.getInt("slot_count")));
+    }
+
+    public Optional<SlotMutation> credit(long accountId, int slotCount, int rotation, boolean skipLocked, long amountUnits,
+                                         String idempotencyKey, String transactionId, Instant transactionTimestamp) {
+        MapSqlParameterSource parameters = mutationParameters("DEPOSIT", accountId, amountUnits, idempotencyKey, transactionId, transactionTimestamp)
+                .addValue("slotCount", slotCount)
+                .addValue("rotation", rotation);
+        return single(skipLocked ? CREDIT_SKIP_LOCKED : CREDIT_WAIT, parameters);
+    }
+
+    public Optional<SlotMutation> debitSingleSlot(long accountId, int slotCount, int rotation, long amountUnits,
+                                                  String idempotencyKey, String transactionId, Instant transactionTimestamp) {
+        MapSqlParameterSource parameters = mutationParameters("WITHDRAWAL", accountId, amountUnits, idempotencyKey, transactionId, transactionTimestamp)
+                .addValue("slotCount", slotCount)
+                .addValue("rotation", rotation);
+        return single(DEBIT_SINGLE_SKIP_LOCKED, parameters);
+    }
+
+    public Optional<SlotMutation> debitSweep(long accountId, long amountUnits, String idempotencyKey, String transactionId,
+                                             Instant transactionTimestamp) {
+        return single(DEBIT_SWEEP, mutationParameters("WITHDRAWAL", accountId, amountUnits, idempotencyKey, transactionId, transactionTimestamp));
+    }
+
+    @Transactional
+    public int compact(long accountId) {
+        Integer changed = jdbcTemplate.queryForObject(COMPACT, new MapSqlParameterSource("accountId", accountId), Integer.class);
+        return changed != null ? changed : 0;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<BigDecimal> totalBalance(long accountId) {
+        return jdbcTemplate.queryForList(TOTAL_BALANCE, new MapSqlParameterSource("accountId", accountId), BigDecimal.class)
+                .stream().findFirst();
+    }
+
+    private Optional<SlotMutation> single(String sql, MapSqlParameterSource parameters) {
+        return jdbcTemplate.query(sql, parameters, MUTATION_MAPPER).stream().findFirst();
+    }
+
+    private static MapSqlParameterSource mutationParameters(String operation, long accountId, long amountUnits, String idempotencyKey,
+                                                            String transactionId, Instant transactionTimestamp) {
+        return new MapSqlParameterSource()
+                .addValue("operation", operation)
+                .addValue("accountId", accountId)
+                .addValue("amountUnits", amountUnits)
+                .addValue("idempotencyKey", idempotencyKey)
+                .addValue("transactionId", transactionId)
+                .addValue("transactionTimestamp", transactionTimestamp.atOffset(ZoneOffset.UTC));
+    }
+}
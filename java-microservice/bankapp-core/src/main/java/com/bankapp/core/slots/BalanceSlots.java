@@ -0,0 +1,154 @@
+package com.bankapp.core.slots;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo opcional para cuentas muy concurridas: el saldo de una cuenta con filas en
+ * {@code bankapp.account_balance_slots} se reparte entre ellas y los depósitos y retiros bloquean un slot en
+ * lugar de la fila de la cuenta (ver {@link BalanceSlotRepository}).
+ * <p>
+ * Qué cuentas están repartidas se relee de la base a intervalo fijo, así que el camino normal no paga ninguna
+ * consulta adicional. Si el índice está desactualizado no se pierde dinero: lo acreditado en
+ * {@code accounts.balance} cuenta en el total y la compactación lo reparte entre los slots, y una operación
+ * sobre una cuenta que ya no tiene slots no modifica nada y devuelve {@code sharded = false}.
+ */
+@Component
+public class BalanceSlots {
+    private static final Logger slotsLog = LoggerFactory.getLogger(BalanceSlots.class);
+
+    public record SlotAccount(long userId, long accountId, int slotCount) {
+    }
+
+    private final BalanceSlotRepository slotRepository;
+    private final boolean enabled;
+    private final long refreshIntervalMs;
+    private final long compactionIntervalMs;
+
+    private volatile Map<Long, SlotAccount> accountsByUser = Map.of();
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public BalanceSlots(BalanceSlotRepository slotRepository,
+                        @Value("${bankapp.balance-slots.enabled:false}") boolean enabled,
+                        @Value("${bankapp.balance-slots.refresh-interval-ms:10000}") long refreshIntervalMs,
+                        @Value("${bankapp.balance-slots.compaction-interval-ms:0}") long compactionIntervalMs) {
+        this.slotRepository = slotRepository;
+        this.enabled = enabled;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.compactionIntervalMs = compactionIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        refresh();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-slots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        if (compactionIntervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::compact, compactionIntervalMs, compactionIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        slotsLog.info("Balance slots enabled for {} accounts (compaction every {} ms).", accountsByUser.size(), compactionIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Cuenta repartida del usuario, o null si no tiene slots (o el modo está desactivado).
+     */
+    public SlotAccount find(Long userId) {
+        return userId != null ? accountsByUser.get(userId) : null;
+    }
+
+    // Primero un slot libre; solo si los N están tomados por otras transacciones se espera por uno.
+    public Optional<SlotMutation> deposit(SlotAccount account, long amountUnits, String idempotencyKey, String transactionId,
+                                          Instant transactionTimestamp) {
+        int rotation = rotation(account);
+        Optional<SlotMutation> result = slotRepository.credit(account.accountId(), account.slotCount(), rotation, true,
+                amountUnits, idempotencyKey, transactionId, transactionTimestamp);
+        if (result.isPresent() && needsRetry(result.get())) {
+            result = slotRepository.credit(account.accountId(), account.slotCount(), rotation, false,
+                    amountUnits, idempotencyKey, transactionId, transactionTimestamp);
+        }
+        return result;
+    }
+
+    // Primero un único slot libre con fondos; si ninguno alcanza (o están tomados), barrido sobre todos.
+    public Optional<SlotMutation> withdraw(SlotAccount account, long amountUnits, String idempotencyKey, String transactionId,
+                                           Instant transactionTimestamp) {
+        Optional<SlotMutation> result = slotRepository.debitSingleSlot(account.accountId(), account.slotCount(), rotation(account),
+                amountUnits, idempotencyKey, transactionId, transactionTimestamp);
+        if (result.isPresent() && needsRetry(result.get())) {
+            result = slotRepository.debitSweep(account.accountId(), amountUnits, idempotencyKey, transactionId, transactionTimestamp);
+        }
+        return result;
+    }
+
+    public Optional<BigDecimal> totalBalance(SlotAccount account) {
+        return slotRepository.totalBalance(account.accountId());
+    }
+
+    void refresh() {
+        Map<Long, SlotAccount> refreshed = new HashMap<>();
+        for (SlotAccount account : slotRepository.findSlotAccounts()) {
+            refreshed.put(account.userId(), account);
+        }
+        accountsByUser = Map.copyOf(refreshed);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            slotsLog.warn("Could not refresh balance slot accounts: {}", e.getMessage());
+        }
+    }
+
+    private void compact() {
+        for (SlotAccount account : accountsByUser.values()) {
+            try {
+                int changed = slotRepository.compact(account.accountId());
+                if (changed > 0) {
+                    slotsLog.debug("Compacted balance slots of account {} ({} rows).", account.accountId(), changed);
+                }
+            } catch (RuntimeException e) {
+                slotsLog.warn("Could not compact balance slots of account {}: {}", account.accountId(), e.getMessage());
+            }
+        }
+    }
+
+    // Ni aplicado ni rechazado por estado o por falta de slots: todos estaban tomados o ninguno alcanzaba.
+    private static boolean needsRetry(SlotMutation mutation) {
+        return !mutation.applied() && mutation.sharded() && "active".equalsIgnoreCase(mutation.status());
+    }
+
+    private static int rotation(SlotAccount account) {
+        return ThreadLocalRandom.current().nextInt(account.slotCount());
+    }
+}
@@ -0,0 +1,10 @@
+package com.bankapp.core.slots;
+
+/**
+ * Resultado de un depósito o retiro sobre una cuenta repartida en slots. {@code balanceUnits} es el saldo total
+ * (cuenta más slots) en diezmilésimas tras la operación si se aplicó, o el que la impidió si no. {@code sharded} es falso
+ * si la cuenta ya no tiene slots; en ese caso no se tocó nada y corresponde usar el camino normal.
+ */
+public record SlotMutation(Long accountId, String accountNumber, String currency, String status, long balanceUnits,
+                           boolean applied, boolean sharded) {
+}
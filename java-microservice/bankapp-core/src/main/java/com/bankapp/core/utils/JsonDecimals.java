@@ -0,0 +1,179 @@
+package com.bankapp.core.utils;
+
+import com.bankapp.core.model.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.base.GeneratorBase;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Escribe montos {@link BigDecimal} con el mismo texto que {@code BigDecimal.toString()} (lo que produce Jackson
+ * por defecto, como número o con {@code @JsonFormat(shape = STRING)}) pero formateando los dígitos en un búfer de
+ * la respuesta, sin crear el String intermedio. Los valores con más de 18 dígitos o que {@code toString()} escribiría
+ * en notación científica se delegan a Jackson. Los {@link Money} se escriben siempre con sus 4 decimales.
+ * <p>
+ * En sentido inverso, {@link #parseUnits} lee un monto de la solicitud directamente en diezmilésimas desde los
+ * caracteres del parser.
+ */
+public final class JsonDecimals {
+    // Tamaño mínimo del búfer que se pasa a estos métodos: resultado (hasta 21 caracteres) más dígitos temporales (18).
+    public static final int SCRATCH_SIZE = 48;
+
+    // Valor de parseUnits() cuando el texto no es un decimal simple; no es un monto positivo válido.
+    public static final long NOT_PLAIN = Long.MIN_VALUE;
+
+    private static final int MAX_DIGITS = 18;
+    // Dígitos enteros que caben en un long de diezmilésimas sin desbordar: 14 más los 4 decimales.
+    private static final int MAX_INTEGER_DIGITS = MAX_DIGITS - Money.SCALE;
+
+    private JsonDecimals() {
+    }
+
+    /**
+     * Búfer para los métodos de esta clase tomado del {@code BufferRecycler} del generador (el de tokens, que
+     * solo usan los parsers), así que no se asigna uno por respuesta. Se devuelve con {@link #releaseScratch}
+     * antes de cerrar el generador.
+     */
+    public static char[] allocScratch(JsonGenerator generator) {
+        if (generator instanceof GeneratorBase base) {
+            return base.ioContext().allocTokenBuffer(SCRATCH_SIZE);
+        }
+        return new char[SCRATCH_SIZE];
+    }
+
+    public static void releaseScratch(JsonGenerator generator, char[] scratch) {
+        if (generator instanceof GeneratorBase base) {
+            base.ioContext().releaseTokenBuffer(scratch);
+        }
+    }
+
+    public static void writeString(JsonGenerator generator, BigDecimal value, char[] scratch) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        int length = format(value, scratch);
+        if (length < 0) {
+            generator.writeString(value.toString());
+        } else {
+            generator.writeString(scratch, 0, length);
+        }
+    }
+
+    public static void writeString(JsonGenerator generator, Money value, char[] scratch) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeString(scratch, 0, value.formatTo(scratch));
+    }
+
+    public static void writeNumber(JsonGenerator generator, BigDecimal value, char[] scratch) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        int length = format(value, scratch);
+        if (length < 0) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeNumber(scratch, 0, length);
+        }
+    }
+
+    // Longitud escrita en scratch, o -1 si el valor no entra en el formato simple.
+    static int format(BigDecimal value, char[] scratch) {
+        int scale = value.scale();
+        int precision = value.precision();
+        // toString() usa notación científica con escala negativa o exponente ajustado menor que -6.
+        if (scale < 0 || scale > MAX_DIGITS || precision > MAX_DIGITS || precision - 1 - scale < -6) {
+            return -1;
+        }
+        // Con escala 0 y a lo sumo 18 dígitos, longValue() devuelve el valor compacto sin crear un BigInteger.
+        long unscaled = scale == 0 ? value.longValue() : value.scaleByPowerOfTen(scale).longValue();
+
+        int end = scratch.length;
+        int start = end;
+        boolean negative = unscaled < 0;
+        long remaining = negative ? -unscaled : unscaled;
+        do {
+            scratch[--start] = (char) ('0' + (int) (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        int digits = end - start;
+
+        int position = 0;
+        if (negative) {
+            scratch[position++] = '-';
+        }
+        if (digits > scale) {
+            int integerDigits = digits - scale;
+            System.arraycopy(scratch, start, scratch, position, integerDigits);
+            position += integerDigits;
+            if (scale > 0) {
+                scratch[position++] = '.';
+                System.arraycopy(scratch, start + integerDigits, scratch, position, scale);
+                position += scale;
+            }
+        } else {
+            scratch[position++] = '0';
+            scratch[position++] = '.';
+            for (int i = digits; i < scale; i++) {
+                scratch[position++] = '0';
+            }
+            System.arraycopy(scratch, start, scratch, position, digits);
+            position += digits;
+        }
+        return position;
+    }
+
+    /**
+     * Diezmilésimas de un decimal simple ({@code [-+]digitos[.digitos]}) redondeando a 4 decimales mitad hacia
+     * arriba, como {@link Money#toUnits}, sin crear el {@link BigDecimal}. Devuelve {@link #NOT_PLAIN} con
+     * exponente, más de 14 dígitos enteros o cualquier otro carácter; quien llama recurre entonces a
+     * {@code BigDecimal}.
+     */
+    public static long parseUnits(char[] text, int offset, int length) {
+        int position = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (position < end && (text[position] == '-' || text[position] == '+')) {
+            negative = text[position] == '-';
+            position++;
+        }
+        long units = 0L;
+        int integerDigits = 0;
+        while (position < end && text[position] >= '0' && text[position] <= '9') {
+            if (++integerDigits > MAX_INTEGER_DIGITS) {
+                return NOT_PLAIN;
+            }
+            units = units * 10 + (text[position++] - '0');
+        }
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        if (position < end && text[position] == '.') {
+            position++;
+            while (position < end && text[position] >= '0' && text[position] <= '9') {
+                int digit = text[position++] - '0';
+                if (fractionDigits < Money.SCALE) {
+                    units = units * 10 + digit;
+                } else if (fractionDigits == Money.SCALE) {
+                    // Solo el primer dígito descartado decide el redondeo mitad hacia arriba.
+                    roundUp = digit >= 5;
+                }
+                fractionDigits++;
+            }
+        }
+        if (position != end || integerDigits + fractionDigits == 0) {
+            return NOT_PLAIN;
+        }
+        for (int i = fractionDigits; i < Money.SCALE; i++) {
+            units *= 10;
+        }
+        if (roundUp) {
+            units++;
+        }
+        return negative ? -units : units;
+    }
+}
@@ -0,0 +1,30 @@
+package com.bankapp.core.utils;
+
+import com.bankapp.core.model.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Escribe {@link Money} como texto con sus 4 decimales (el mismo formato que {@code BigDecimal.toPlainString()}
+ * con escala 4). La moneda va en su propio campo del DTO.
+ */
+public class MoneyJsonSerializer extends StdSerializer<Money> {
+
+    public MoneyJsonSerializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        // Fuera de los escritores directos (que ya tienen su búfer) toma uno reciclado del generador.
+        char[] scratch = JsonDecimals.allocScratch(generator);
+        try {
+            JsonDecimals.writeString(generator, value, scratch);
+        } finally {
+            JsonDecimals.releaseScratch(generator, scratch);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.bankapp.core.utils;
+
+import com.bankapp.core.model.Money;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Lee un monto JSON (número o texto) como diezmilésimas ({@link Money#toUnits}) para los campos {@code Long}
+ * de las solicitudes. Los decimales simples se convierten desde los caracteres del parser sin pasar por
+ * {@link BigDecimal}; la notación científica y los montos muy grandes usan el camino de {@code BigDecimal},
+ * y los que no caben en el {@code long} se rechazan como formato inválido.
+ */
+public class MoneyUnitsDeserializer extends StdDeserializer<Long> {
+
+    public MoneyUnitsDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+            return (Long) context.handleUnexpectedToken(Long.class, parser);
+        }
+        long units = JsonDecimals.parseUnits(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        if (units != JsonDecimals.NOT_PLAIN) {
+            return units;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            try {
+                return Money.toUnits(new BigDecimal(text));
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw context.weirdStringException(text, Long.class, "not a valid amount");
+            }
+        }
+        BigDecimal amount = parser.getDecimalValue();
+        try {
+            return Money.toUnits(amount);
+        } catch (ArithmeticException e) {
+            throw context.weirdNumberException(amount, Long.class, "amount out of range");
+        }
+    }
+}
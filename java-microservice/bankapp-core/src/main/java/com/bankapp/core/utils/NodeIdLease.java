@@ -0,0 +1,74 @@
+package com.bankapp.core.utils;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Alquiler de un nodo de {@code bankapp.node_id_leases} para {@link TransactionIdGenerator}. Se toma un nodo
+ * cuyo alquiler venció y se renueva a intervalo fijo, guardando en {@code issued_until_millis} el último
+ * milisegundo emitido; al reusar un nodo, el generador arranca por encima de ese valor y del reloj de la base,
+ * así que un reloj local atrasado tras un reinicio no repite ids de la instancia anterior.
+ */
+final class NodeIdLease {
+
+    private static final String ACQUIRE = """
+            UPDATE bankapp.node_id_leases l
+            SET owner = ?, lease_until = now() + make_interval(secs => ? / 1000.0)
+            WHERE l.node_id = (SELECT node_id FROM bankapp.node_id_leases
+                               WHERE lease_until < now()
+                               ORDER BY lease_until, node_id
+                               LIMIT 1
+                               FOR UPDATE SKIP LOCKED)
+            RETURNING l.node_id, GREATEST(l.issued_until_millis, (EXTRACT(EPOCH FROM now()) * 1000)::BIGINT)
+            """;
+
+    private static final String RENEW = """
+            UPDATE bankapp.node_id_leases
+            SET lease_until = now() + make_interval(secs => ? / 1000.0),
+                issued_until_millis = GREATEST(issued_until_millis, ?)
+            WHERE node_id = ? AND owner = ?
+            """;
+
+    // Al soltarlo queda libre de inmediato, con el último milisegundo emitido como tope exacto.
+    private static final String RELEASE = """
+            UPDATE bankapp.node_id_leases
+            SET owner = NULL, lease_until = '-infinity', issued_until_millis = GREATEST(issued_until_millis, ?)
+            WHERE node_id = ? AND owner = ?
+            """;
+
+    record Acquired(int nodeId, long floorMillis) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+    private final long durationMs;
+
+    NodeIdLease(JdbcTemplate jdbcTemplate, String owner, long durationMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = owner;
+        this.durationMs = durationMs;
+    }
+
+    Acquired acquire() {
+        List<Acquired> rows = jdbcTemplate.query(ACQUIRE,
+                (resultSet, rowNum) -> new Acquired(resultSet.getInt(1), resultSet.getLong(2)), owner, durationMs);
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("No free node id left in bankapp.node_id_leases.");
+        }
+        return rows.get(0);
+    }
+
+    // Falso si el nodo dejó de ser nuestro (el alquiler venció y otra instancia lo tomó).
+    boolean renew(int nodeId, long issuedUntilMillis) {
+        return jdbcTemplate.update(RENEW, durationMs, issuedUntilMillis, nodeId, owner) == 1;
+    }
+
+    void release(int nodeId, long issuedUntilMillis) {
+        jdbcTemplate.update(RELEASE, issuedUntilMillis, nodeId, owner);
+    }
+
+    long durationMs() {
+        return durationMs;
+    }
+}
@@ -0,0 +1,52 @@
+package com.bankapp.core.utils;
+
+import com.bankapp.core.exception.InvalidInputException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public final class RequestHeaders {
+    private static final Logger headerLog = LoggerFactory.getLogger(RequestHeaders.class);
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    private RequestHeaders() {
+    }
+
+    public static Long parseUserId(String userIdString) {
+        if (userIdString == null || userIdString.isBlank()) {
+            headerLog.warn("X-User-ID header is missing or empty.");
+            throw new InvalidInputException("X-User-ID header is missing or empty.");
+        }
+        try {
+            return Long.parseLong(userIdString.trim());
+        } catch (NumberFormatException e) {
+            headerLog.warn("X-User-ID header contains an invalid user ID format: {}", userIdString, e);
+            throw new InvalidInputException("X-User-ID header contains an invalid user ID format.");
+        }
+    }
+
+    // Devuelve null si el header no viene: la operación se procesa sin control de idempotencia.
+    public static String parseIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return null;
+        }
+        String key = idempotencyKey.trim();
+        if (key.isEmpty() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            headerLog.warn("Idempotency-Key header is empty or longer than {} characters.", MAX_IDEMPOTENCY_KEY_LENGTH);
+            throw new InvalidInputException("Idempotency-Key header must contain between 1 and " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters.");
+        }
+        return key;
+    }
+
+    public static String resolveClientIp(HttpServletRequest request) {
+        return resolveClientIp(request.getHeader("X-Forwarded-For"), request.getRemoteAddr());
+    }
+
+    public static String resolveClientIp(String forwardedFor, String remoteAddr) {
+        if (forwardedFor == null || forwardedFor.isEmpty() || "unknown".equalsIgnoreCase(forwardedFor)) {
+            return remoteAddr;
+        }
+        int comma = forwardedFor.indexOf(',');
+        return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+    }
+}
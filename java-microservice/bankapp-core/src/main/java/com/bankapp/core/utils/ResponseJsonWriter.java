@@ -0,0 +1,21 @@
+package com.bankapp.core.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Escritura directa de un tipo de respuesta con el generador de Jackson, sin pasar por los serializadores
+ * reflexivos. {@link TimedJsonHttpMessageConverter} la usa para los objetos de {@link #responseType()} que
+ * {@link #canWrite(Object)} acepta; el resto sigue el camino normal de Jackson. La salida debe ser idéntica a
+ * la de Jackson con las anotaciones del DTO.
+ */
+public interface ResponseJsonWriter {
+
+    Class<?> responseType();
+
+    // Se consulta antes de escribir nada (por ejemplo, para descartar un ApiResponseDTO con otro tipo de data).
+    boolean canWrite(Object response);
+
+    void write(Object response, JsonGenerator generator) throws IOException;
+}
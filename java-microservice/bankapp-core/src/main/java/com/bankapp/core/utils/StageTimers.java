@@ -0,0 +1,95 @@
+package com.bankapp.core.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temporizadores por etapa de una operación, etiquetados por operación, etapa y resultado
+ * ({@code bankapp.operation.stage}, expuestos en {@code /actuator/prometheus}). Cada servicio la extiende con
+ * sus propios enums de etapas y resultados y con el reparto de sus marcas de tiempo entre etapas.
+ * <p>
+ * Todas las combinaciones etapa/resultado se registran al arrancar, así que registrar una medición es
+ * indexar un arreglo y llamar a {@link Timer#record(long, TimeUnit)}, sin asignar memoria en el camino
+ * de la petición. Los percentiles se calculan en proceso sobre histogramas HdrHistogram de Micrometer.
+ */
+public abstract class StageTimers<S extends Enum<S>, O extends Enum<O>> {
+    public static final String METRIC_NAME = "bankapp.operation.stage";
+
+    private final Timer[][] timers;
+    private final S headersStage;
+    private final S callStage;
+    // Null si el servicio no serializa la respuesta a través de TimedJsonHttpMessageConverter.
+    private final S serializationStage;
+
+    /**
+     * @param headersStage       etapa de lectura de headers en el controlador
+     * @param callStage          etapa de la llamada completa al servicio desde el controlador
+     * @param serializationStage etapa de escritura del cuerpo, o null si el servicio no la mide
+     */
+    protected StageTimers(MeterRegistry meterRegistry, String operation, Class<S> stageType, Class<O> outcomeType,
+                          S headersStage, S callStage, S serializationStage,
+                          double[] percentiles, boolean percentileHistogram) {
+        S[] stages = stageType.getEnumConstants();
+        O[] outcomes = outcomeType.getEnumConstants();
+        this.timers = new Timer[stages.length][outcomes.length];
+        this.headersStage = headersStage;
+        this.callStage = callStage;
+        this.serializationStage = serializationStage;
+        for (S stage : stages) {
+            for (O outcome : outcomes) {
+                timers[stage.ordinal()][outcome.ordinal()] = Timer.builder(METRIC_NAME)
+                        .description("Latency of each stage of a bankapp operation")
+                        .tag("operation", operation)
+                        .tag("stage", stage.name())
+                        .tag("outcome", outcome.name())
+                        .publishPercentiles(percentiles)
+                        .publishPercentileHistogram(percentileHistogram)
+                        .minimumExpectedValue(Duration.ofNanos(1_000))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    public void record(S stage, O outcome, long nanos) {
+        timers[stage.ordinal()][outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra la lectura de headers y la llamada al servicio, y deja en la petición el temporizador de
+     * serialización que corresponde al resultado para {@link TimedJsonHttpMessageConverter}.
+     * Si la petición falló antes de terminar de leer los headers ({@code parsed} en 0), todo cuenta como HEADERS.
+     */
+    public void recordRequest(HttpServletRequest request, O outcome, long started, long parsed) {
+        if (serializationStage != null) {
+            request.setAttribute(TimedJsonHttpMessageConverter.SERIALIZATION_TIMER_ATTRIBUTE,
+                    timers[serializationStage.ordinal()][outcome.ordinal()]);
+        }
+        recordRequest(outcome, started, parsed);
+    }
+
+    /**
+     * Registra la lectura de headers y la llamada al servicio. Si la petición falló antes de terminar de
+     * leer los headers ({@code parsed} en 0), todo cuenta como HEADERS.
+     */
+    public void recordRequest(O outcome, long started, long parsed) {
+        long finished = System.nanoTime();
+        if (parsed == 0L) {
+            record(headersStage, outcome, finished - started);
+            return;
+        }
+        record(headersStage, outcome, parsed - started);
+        record(callStage, outcome, finished - parsed);
+    }
+
+    // Una marca en 0 indica que la etapa no llegó a completarse y no se registra.
+    protected void recordBetween(S stage, O outcome, long from, long to) {
+        if (from != 0L && to != 0L) {
+            record(stage, outcome, to - from);
+        }
+    }
+}
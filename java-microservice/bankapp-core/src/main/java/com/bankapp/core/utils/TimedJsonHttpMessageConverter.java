@@ -0,0 +1,105 @@
+package com.bankapp.core.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Conversor JSON de Spring (reemplaza al que registra Spring Boot) que mide la etapa SERIALIZATION.
+ * Cada servicio deja en la petición el temporizador que corresponde a su operación y resultado; las
+ * respuestas sin ese atributo (Swagger, Actuator, ...) se escriben sin medir.
+ * <p>
+ * Los sobres que tienen un {@link ResponseJsonWriter} registrado se escriben con él directamente sobre la
+ * salida del servlet (el generador reutiliza los búferes de Jackson); el resto, con el ObjectMapper.
+ */
+@Component
+public class TimedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    public static final String SERIALIZATION_TIMER_ATTRIBUTE = TimedJsonHttpMessageConverter.class.getName() + ".SERIALIZATION_TIMER";
+
+    private final Map<Class<?>, ResponseJsonWriter> responseWriters;
+
+    @Autowired
+    public TimedJsonHttpMessageConverter(ObjectMapper objectMapper, ObjectProvider<ResponseJsonWriter> responseWriters,
+                                         @Value("${bankapp.json.direct-writers.enabled:true}") boolean directWritersEnabled) {
+        super(objectMapper);
+        // Con salida indentada los escritores directos no producirían el mismo texto.
+        this.responseWriters = directWritersEnabled && !objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)
+                ? responseWriters.orderedStream().collect(Collectors.toUnmodifiableMap(
+                        ResponseJsonWriter::responseType, Function.identity(), (first, second) -> first))
+                : Map.of();
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object timer = attributes != null ? attributes.getAttribute(SERIALIZATION_TIMER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) : null;
+        if (!(timer instanceof Timer serializationTimer)) {
+            write(object, type, outputMessage);
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            write(object, type, outputMessage);
+        } finally {
+            serializationTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Serializa una respuesta por el mismo camino que una respuesta JSON en UTF-8 (escritor directo si lo hay, si no
+     * el ObjectMapper). Lo usan las tareas de calentamiento para compilar el camino que sirve las peticiones.
+     */
+    public byte[] writeToBytes(Object response) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(512);
+        ResponseJsonWriter writer = directWriter(response);
+        if (writer == null) {
+            getObjectMapper().writeValue(outputStream, response);
+        } else {
+            writeDirect(writer, response, outputStream);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private void write(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ResponseJsonWriter writer = directWriter(object);
+        if (writer == null || getJsonEncoding(outputMessage.getHeaders().getContentType()) != JsonEncoding.UTF8) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        writeDirect(writer, object, StreamUtils.nonClosing(outputMessage.getBody()));
+    }
+
+    private ResponseJsonWriter directWriter(Object response) {
+        ResponseJsonWriter writer = responseWriters.get(response.getClass());
+        return writer != null && writer.canWrite(response) ? writer : null;
+    }
+
+    private void writeDirect(ResponseJsonWriter writer, Object response, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = getObjectMapper().getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            writer.write(response, generator);
+            generator.flush();
+        }
+    }
+}
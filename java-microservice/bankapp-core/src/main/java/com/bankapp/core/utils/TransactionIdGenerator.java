@@ -0,0 +1,209 @@
+package com.bankapp.core.utils;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de identificadores de 64 bits ordenados por tiempo: 41 bits de milisegundos desde
+ * 2024-01-01, 10 bits de nodo y 12 bits de secuencia (4096 ids por milisegundo y nodo).
+ * <p>
+ * El último milisegundo y la secuencia viven juntos en un único {@link AtomicLong} que se avanza por CAS,
+ * sin bloqueos. Si el reloj retrocede, o si se agota la secuencia de un milisegundo, se sigue avanzando
+ * sobre el último valor emitido en lugar de esperar, así que los ids nunca se repiten ni decrecen.
+ * Al ser crecientes, insertarlos como clave primaria mantiene el índice B-tree compacto.
+ * <p>
+ * El nodo se fija con {@code bankapp.node-id} (único por instancia) o, con -1, se toma en alquiler de
+ * {@code bankapp.node_id_leases} (ver {@link NodeIdLease}); sin ninguno de los dos el arranque falla. Con
+ * alquiler, si no se pudo renovar antes de que venza se dejan de emitir ids: otra instancia puede tener el nodo.
+ * Cada renovación guarda el último milisegundo emitido, no el horizonte del alquiler, así que quien retome el
+ * nodo tras una caída no arranca en el futuro. Los ids emitidos entre la última renovación y el vencimiento
+ * quedan por debajo del reloj de la base al retomarlo ({@code lease_until < now()}) siempre que el reloj de
+ * la instancia caída no fuera adelantado respecto al de la base; esa deriva es el único hueco (mantener NTP).
+ * Es perezoso para que los servicios que no emiten ids (balance) no tomen un nodo.
+ */
+@Component
+@Lazy
+public class TransactionIdGenerator {
+    private static final Logger generatorLog = LoggerFactory.getLogger(TransactionIdGenerator.class);
+
+    // 2024-01-01T00:00:00Z
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    // Alfabeto Crockford base32: sin I, L, O ni U; conserva el orden lexicográfico de los ids.
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final int nodeId;
+    private final long nodeBits;
+    // (milisegundo lógico << SEQUENCE_BITS) | secuencia del último id emitido.
+    private final AtomicLong lastState = new AtomicLong();
+
+    private final NodeIdLease lease;
+    private final ScheduledExecutorService renewScheduler;
+    // System.nanoTime() hasta el que vale el alquiler; Long.MAX_VALUE con nodo fijo.
+    private volatile long leaseValidUntilNanos = Long.MAX_VALUE;
+
+    /**
+     * Generador con un nodo fijo, sin alquiler (benchmarks y herramientas).
+     */
+    public TransactionIdGenerator(int nodeId) {
+        this.nodeId = checkNodeId(nodeId);
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.lease = null;
+        this.renewScheduler = null;
+    }
+
+    @Autowired
+    public TransactionIdGenerator(@Value("${bankapp.node-id:-1}") int nodeId,
+                                  @Value("${bankapp.node-id.lease-ms:30000}") long leaseMs,
+                                  ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        if (nodeId >= 0) {
+            this.nodeId = checkNodeId(nodeId);
+            this.lease = null;
+            this.renewScheduler = null;
+            generatorLog.info("Transaction id generator started with configured node id {}.", nodeId);
+        } else {
+            JdbcTemplate template = jdbcTemplate.getIfAvailable();
+            if (template == null) {
+                throw new IllegalStateException("bankapp.node-id is not set and there is no database to lease a node id from.");
+            }
+            this.lease = new NodeIdLease(template, ownerName(), leaseMs);
+            long requested = System.nanoTime();
+            NodeIdLease.Acquired acquired;
+            try {
+                acquired = lease.acquire();
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("bankapp.node-id is not set and no node id could be leased from bankapp.node_id_leases: "
+                        + e.getMessage(), e);
+            }
+            this.nodeId = acquired.nodeId();
+            this.leaseValidUntilNanos = requested + TimeUnit.MILLISECONDS.toNanos(leaseMs);
+            // Ni los ids de la instancia anterior con este nodo ni un reloj local atrasado hacen retroceder la secuencia.
+            long floorMillis = Math.max(acquired.floorMillis(), EPOCH_MILLIS);
+            lastState.set((floorMillis - EPOCH_MILLIS) << SEQUENCE_BITS);
+            if (floorMillis > System.currentTimeMillis()) {
+                generatorLog.warn("Local clock is {} ms behind the last ids of node {}; ids continue from there.",
+                        floorMillis - System.currentTimeMillis(), this.nodeId);
+            }
+            this.renewScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "node-id-lease");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long renewIntervalMs = Math.max(1L, leaseMs / 3);
+            renewScheduler.scheduleWithFixedDelay(this::renewLease, renewIntervalMs, renewIntervalMs, TimeUnit.MILLISECONDS);
+            generatorLog.info("Transaction id generator started with leased node id {}.", this.nodeId);
+        }
+        this.nodeBits = (long) this.nodeId << SEQUENCE_BITS;
+    }
+
+    public long nextId() {
+        if (System.nanoTime() - leaseValidUntilNanos > 0) {
+            throw new IllegalStateException("Node id lease " + nodeId + " expired; refusing to issue transaction ids.");
+        }
+        while (true) {
+            long last = lastState.get();
+            long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            // Con el reloj adelantado se reinicia la secuencia; si no, se incrementa (y desborda hacia el milisegundo siguiente).
+            long next = now > last ? now : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+            }
+        }
+    }
+
+    public String nextTransactionId(String prefix) {
+        return prefix + encode(nextId());
+    }
+
+    /**
+     * Representación de 13 caracteres en base32 (Crockford); el orden lexicográfico coincide con el numérico.
+     */
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        long value = id;
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    public static long timestampMillis(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public int nodeId() {
+        return nodeId;
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        if (lease == null) {
+            return;
+        }
+        renewScheduler.shutdownNow();
+        leaseValidUntilNanos = System.nanoTime();
+        try {
+            lease.release(nodeId, lastIssuedMillis());
+        } catch (RuntimeException e) {
+            generatorLog.warn("Could not release node id lease {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    // Se registra el último milisegundo emitido; lo que se emita después queda cubierto por el reloj de la base.
+    private void renewLease() {
+        long requested = System.nanoTime();
+        try {
+            if (lease.renew(nodeId, lastIssuedMillis())) {
+                leaseValidUntilNanos = requested + TimeUnit.MILLISECONDS.toNanos(lease.durationMs());
+            } else {
+                leaseValidUntilNanos = requested;
+                renewScheduler.shutdown();
+                generatorLog.error("Node id lease {} was taken by another instance; no more transaction ids will be issued.", nodeId);
+            }
+        } catch (RuntimeException e) {
+            generatorLog.warn("Could not renew node id lease {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private long lastIssuedMillis() {
+        return (lastState.get() >>> SEQUENCE_BITS) + EPOCH_MILLIS;
+    }
+
+    private static int checkNodeId(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("bankapp.node-id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        return nodeId;
+    }
+
+    private static String ownerName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
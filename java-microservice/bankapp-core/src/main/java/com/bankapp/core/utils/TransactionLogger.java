@@ -0,0 +1,335 @@
+package com.bankapp.core.utils;
+
+import com.bankapp.core.model.Money;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.MessageFormatter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bitácora de auditoría asíncrona. El hilo de la petición solo copia campos fijos en una ranura
+ * preasignada de un buffer circular; un hilo escritor en segundo plano da formato al mensaje y
+ * escribe las entradas por lotes, ya sea en un archivo con buffer o en el logger "TransactionTraceLogger".
+ */
+@Component
+public class TransactionLogger {
+    private static final Logger traceLogger = LoggerFactory.getLogger("TransactionTraceLogger");
+    private static final Logger writerLog = LoggerFactory.getLogger(TransactionLogger.class);
+    private static final long BLOCK_PARK_NANOS = 10_000L;
+    // Valor de amountUnits en las entradas cuyo monto llegó como BigDecimal (o sin monto).
+    private static final long NO_UNITS = Long.MIN_VALUE;
+
+    public enum OverflowPolicy {
+        // Descarta la entrada y la contabiliza.
+        DROP,
+        // Espera a que el escritor libere espacio.
+        BLOCK,
+        // Escribe la entrada en el hilo que la generó.
+        CALLER_RUNS
+    }
+
+    private final Entry[] ring;
+    private final int mask;
+    private final AtomicLong claimCursor = new AtomicLong();
+    private volatile long drainCursor;
+
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long idleParkNanos;
+    private final Writer fileWriter;
+    private final StringBuilder writerBuffer = new StringBuilder(512);
+    // ReentrantLock en lugar de synchronized para no fijar el hilo portador de un hilo virtual.
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private final AtomicLong droppedEntries = new AtomicLong();
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    @Autowired
+    public TransactionLogger(@Value("${bankapp.audit.buffer-size:8192}") int bufferSize,
+                             @Value("${bankapp.audit.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+                             @Value("${bankapp.audit.batch-size:256}") int batchSize,
+                             @Value("${bankapp.audit.idle-park-micros:1000}") long idleParkMicros,
+                             @Value("${bankapp.audit.file:}") String file,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) throws IOException {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        this.ring = new Entry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Entry();
+        }
+        this.mask = capacity - 1;
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.idleParkNanos = idleParkMicros * 1_000L;
+        this.fileWriter = file == null || file.isBlank() ? null : new BufferedWriter(Files.newBufferedWriter(Path.of(file),
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE), 64 * 1024);
+
+        this.writerThread = virtualThreads
+                ? Thread.ofVirtual().name("transaction-audit-writer").unstarted(this::drainLoop)
+                : Thread.ofPlatform().name("transaction-audit-writer").daemon(true).unstarted(this::drainLoop);
+        this.writerThread.start();
+    }
+
+    /**
+     * Registra una operación con monto. El mensaje usa marcadores {@code {}} y solo se formatea en el hilo escritor.
+     */
+    public void logTransaction(
+            Long userId,
+            String operationType,
+            Long accountId,
+            BigDecimal amount,
+            String currency,
+            String status,
+            String clientIp,
+            String messageTemplate,
+            Object... messageArgs) {
+        append(true, userId, operationType, accountId, amount, NO_UNITS, currency, status, clientIp, messageTemplate, messageArgs);
+    }
+
+    /**
+     * Igual que {@link #logTransaction(Long, String, Long, BigDecimal, String, String, String, String, Object...)}
+     * con el monto en diezmilésimas ({@link Money#units()}); el texto con sus 4 decimales se arma en el hilo escritor.
+     */
+    public void logTransaction(
+            Long userId,
+            String operationType,
+            Long accountId,
+            long amountUnits,
+            String currency,
+            String status,
+            String clientIp,
+            String messageTemplate,
+            Object... messageArgs) {
+        append(true, userId, operationType, accountId, null, amountUnits, currency, status, clientIp, messageTemplate, messageArgs);
+    }
+
+    /**
+     * Registra una operación sin monto (p. ej. una consulta de saldo); la línea no lleva AMOUNT ni CURRENCY.
+     */
+    public void logOperation(
+            Long userId,
+            String operationType,
+            Long accountId,
+            String status,
+            String clientIp,
+            String messageTemplate,
+            Object... messageArgs) {
+        append(false, userId, operationType, accountId, null, NO_UNITS, null, status, clientIp, messageTemplate, messageArgs);
+    }
+
+    private void append(boolean monetary, Long userId, String operationType, Long accountId, BigDecimal amount, long amountUnits,
+                        String currency, String status, String clientIp, String messageTemplate, Object[] messageArgs) {
+        long sequence = claim();
+        if (sequence < 0) {
+            if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+                Entry entry = new Entry();
+                entry.set(System.currentTimeMillis(), monetary, userId, operationType, accountId, amount, amountUnits, currency, status, clientIp,
+                        messageTemplate, messageArgs);
+                writerLock.lock();
+                try {
+                    write(entry);
+                    flush();
+                } finally {
+                    writerLock.unlock();
+                }
+            } else {
+                droppedEntries.incrementAndGet();
+            }
+            return;
+        }
+        Entry entry = ring[(int) sequence & mask];
+        entry.set(System.currentTimeMillis(), monetary, userId, operationType, accountId, amount, amountUnits, currency, status, clientIp,
+                messageTemplate, messageArgs);
+        entry.publish(sequence);
+    }
+
+    public long getDroppedEntries() {
+        return droppedEntries.get();
+    }
+
+    // Devuelve la secuencia reservada, o -1 si el buffer está lleno y la política no es BLOCK.
+    private long claim() {
+        while (true) {
+            long sequence = claimCursor.get();
+            if (sequence - drainCursor >= ring.length) {
+                if (overflowPolicy != OverflowPolicy.BLOCK || !running) {
+                    return -1;
+                }
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                continue;
+            }
+            if (claimCursor.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    private void drainLoop() {
+        long next = 0;
+        while (running || next < claimCursor.get()) {
+            int drained = 0;
+            writerLock.lock();
+            try {
+                Entry entry = ring[(int) next & mask];
+                while (drained < batchSize && entry.isPublished(next)) {
+                    write(entry);
+                    entry.clear();
+                    next++;
+                    drained++;
+                    entry = ring[(int) next & mask];
+                }
+                if (drained > 0) {
+                    flush();
+                }
+            } finally {
+                writerLock.unlock();
+            }
+            if (drained > 0) {
+                drainCursor = next;
+            } else if (running) {
+                LockSupport.parkNanos(idleParkNanos);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void write(Entry entry) {
+        StringBuilder line = writerBuffer;
+        line.setLength(0);
+        line.append("TIMESTAMP: ").append(Instant.ofEpochMilli(entry.timestamp))
+                .append(" | USER_ID: ").append(entry.userId != null ? entry.userId : "N/A")
+                .append(" | OPERATION: ").append(entry.operationType != null ? entry.operationType : "N/A")
+                .append(" | ACCOUNT_ID: ").append(entry.accountId != null ? entry.accountId : "N/A");
+        if (entry.monetary) {
+            line.append(" | AMOUNT: ").append(entry.amountUnits != NO_UNITS ? Money.format(entry.amountUnits)
+                            : entry.amount != null ? entry.amount.toPlainString() : "N/A")
+                    .append(" | CURRENCY: ").append(entry.currency != null ? entry.currency : "N/A");
+        }
+        line.append(" | STATUS: ").append(entry.status != null ? entry.status : "N/A")
+                .append(" | IP: ").append(entry.clientIp != null ? entry.clientIp : "N/A")
+                .append(" | MESSAGE: ").append(formatMessage(entry.messageTemplate, entry.messageArgs));
+        try {
+            if (fileWriter != null) {
+                fileWriter.append(line).append(System.lineSeparator());
+            } else {
+                traceLogger.info(line.toString());
+            }
+        } catch (IOException e) {
+            writerLog.error("Could not write transaction audit entry: {}", e.getMessage());
+        }
+    }
+
+    private void flush() {
+        if (fileWriter == null) {
+            return;
+        }
+        try {
+            fileWriter.flush();
+        } catch (IOException e) {
+            writerLog.error("Could not flush transaction audit file: {}", e.getMessage());
+        }
+    }
+
+    private static String formatMessage(String template, Object[] args) {
+        if (args == null || args.length == 0) {
+            return template;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof BigDecimal decimal) {
+                args[i] = decimal.toPlainString();
+            }
+        }
+        return MessageFormatter.arrayFormat(template, args).getMessage();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long dropped = droppedEntries.get();
+        if (dropped > 0) {
+            writerLog.warn("{} transaction audit entries were dropped because the buffer was full.", dropped);
+        }
+        if (fileWriter != null) {
+            try {
+                fileWriter.close();
+            } catch (IOException e) {
+                writerLog.error("Could not close transaction audit file: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static final class Entry {
+        private volatile long publishedSequence = -1;
+        private long timestamp;
+        private boolean monetary;
+        private Long userId;
+        private String operationType;
+        private Long accountId;
+        private BigDecimal amount;
+        private long amountUnits;
+        private String currency;
+        private String status;
+        private String clientIp;
+        private String messageTemplate;
+        private Object[] messageArgs;
+
+        void set(long timestamp, boolean monetary, Long userId, String operationType, Long accountId, BigDecimal amount, long amountUnits,
+                 String currency, String status, String clientIp, String messageTemplate, Object[] messageArgs) {
+            this.timestamp = timestamp;
+            this.monetary = monetary;
+            this.userId = userId;
+            this.operationType = operationType;
+            this.accountId = accountId;
+            this.amount = amount;
+            this.amountUnits = amountUnits;
+            this.currency = currency;
+            this.status = status;
+            this.clientIp = clientIp;
+            this.messageTemplate = messageTemplate;
+            this.messageArgs = messageArgs;
+        }
+
+        void publish(long sequence) {
+            publishedSequence = sequence;
+        }
+
+        boolean isPublished(long sequence) {
+            return publishedSequence == sequence;
+        }
+
+        void clear() {
+            userId = null;
+            operationType = null;
+            accountId = null;
+            amount = null;
+            currency = null;
+            status = null;
+            clientIp = null;
+            messageTemplate = null;
+            messageArgs = null;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.bankapp.core.utils;
+
+import com.bankapp.core.exception.AccountNotActiveException;
+import com.bankapp.core.exception.IdempotencyConflictException;
+import com.bankapp.core.exception.IdempotencyKeyReuseException;
+import com.bankapp.core.exception.InsufficientFundsException;
+import com.bankapp.core.exception.InvalidInputException;
+import com.bankapp.core.exception.ResourceNotFoundException;
+import com.bankapp.core.exception.UnauthorizedAccessException;
+import com.bankapp.core.result.Rejection;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Etapas y resultados de los depósitos y retiros para {@link StageTimers} ({@code bankapp.operation.stage}).
+ * Cada servicio la registra como bean con su operación.
+ */
+public class TransactionMetrics extends StageTimers<TransactionMetrics.Stage, TransactionMetrics.Outcome> {
+
+    public enum Stage {
+        // Lectura de X-User-ID, IP de origen e Idempotency-Key en el controlador.
+        HEADERS,
+        VALIDATION,
+        // UPDATE condicional de la cuenta (búsqueda por user_id incluida).
+        ACCOUNT_UPDATE,
+        LEDGER,
+        AUDIT_LOG,
+        // Llamada completa al servicio desde el controlador, incluido el commit.
+        TRANSACTION,
+        SERIALIZATION
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        INVALID_INPUT,
+        UNAUTHORIZED,
+        ACCOUNT_NOT_FOUND,
+        ACCOUNT_INACTIVE,
+        // Solo en retiros.
+        INSUFFICIENT_FUNDS,
+        DUPLICATE_REQUEST,
+        CONFLICT,
+        // Descartada por tiempo de espera antes de aplicarse.
+        NOT_APPLIED,
+        SYSTEM_ERROR;
+
+        public static Outcome of(Throwable failure) {
+            if (failure == null) {
+                return SUCCESS;
+            }
+            if (failure instanceof InvalidInputException || failure instanceof IllegalArgumentException
+                    || failure instanceof IdempotencyKeyReuseException) {
+                return INVALID_INPUT;
+            }
+            if (failure instanceof UnauthorizedAccessException) {
+                return UNAUTHORIZED;
+            }
+            if (failure instanceof ResourceNotFoundException) {
+                return ACCOUNT_NOT_FOUND;
+            }
+            if (failure instanceof AccountNotActiveException) {
+                return ACCOUNT_INACTIVE;
+            }
+            if (failure instanceof InsufficientFundsException) {
+                return INSUFFICIENT_FUNDS;
+            }
+            if (failure instanceof DataIntegrityViolationException) {
+                return DUPLICATE_REQUEST;
+            }
+            if (failure instanceof IdempotencyConflictException) {
+                return CONFLICT;
+            }
+            return SYSTEM_ERROR;
+        }
+
+        public static Outcome of(Rejection rejection) {
+            return switch (rejection) {
+                case INVALID_INPUT -> INVALID_INPUT;
+                case ACCOUNT_NOT_FOUND -> ACCOUNT_NOT_FOUND;
+                case ACCOUNT_INACTIVE -> ACCOUNT_INACTIVE;
+                case INSUFFICIENT_FUNDS -> INSUFFICIENT_FUNDS;
+                case NOT_APPLIED -> NOT_APPLIED;
+            };
+        }
+    }
+
+    public TransactionMetrics(MeterRegistry meterRegistry, String operation, double[] percentiles, boolean percentileHistogram) {
+        super(meterRegistry, operation, Stage.class, Outcome.class, Stage.HEADERS, Stage.TRANSACTION, Stage.SERIALIZATION,
+                percentiles, percentileHistogram);
+    }
+
+    /**
+     * Registra las etapas internas del servicio a partir de las marcas de {@link System#nanoTime()}
+     * tomadas al terminar cada una; una marca en 0 indica que la etapa no llegó a completarse.
+     */
+    public void recordService(Outcome outcome, long started, long validated, long updated, long recorded, long audited) {
+        recordBetween(Stage.VALIDATION, outcome, started, validated);
+        recordBetween(Stage.ACCOUNT_UPDATE, outcome, validated, updated);
+        recordBetween(Stage.LEDGER, outcome, updated, recorded);
+        recordBetween(Stage.AUDIT_LOG, outcome, recorded, audited);
+    }
+}
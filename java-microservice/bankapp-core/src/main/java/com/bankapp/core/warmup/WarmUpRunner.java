@@ -0,0 +1,218 @@
+package com.bankapp.core.warmup;
+
+import com.bankapp.core.model.Account;
+import com.bankapp.core.model.User;
+import com.bankapp.core.utils.StageTimers;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calentamiento previo a la disponibilidad. Spring Boot ejecuta los {@link ApplicationRunner} antes de
+ * publicar {@code ReadinessState.ACCEPTING_TRAFFIC}, así que {@code /actuator/health/readiness} no responde
+ * UP hasta que el pool está lleno y los {@link WarmUpTask} de la instancia se ejecutaron las veces
+ * configuradas (o se agotó el tiempo máximo), dando al JIT ocasión de compilar los métodos calientes.
+ * <p>
+ * Después, mientras no llegue tráfico real, repite unas pocas iteraciones a intervalo fijo para que el
+ * código siga compilado y las conexiones no se retiren por inactividad.
+ */
+@Component
+public class WarmUpRunner implements ApplicationRunner {
+    private static final Logger warmUpLog = LoggerFactory.getLogger(WarmUpRunner.class);
+    private static final int ITERATIONS_PER_TRANSACTION = 50;
+    private static final BigDecimal SYNTHETIC_BALANCE = new BigDecimal("1000000000.00");
+
+    private final List<WarmUpTask> tasks;
+    private final DataSource dataSource;
+    private final ObjectProvider<HikariDataSource> pools;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int iterations;
+    private final long maxDurationNanos;
+    private final long keepWarmIntervalMs;
+    private final int keepWarmIterations;
+
+    private ScheduledExecutorService keepWarmExecutor;
+    private double lastRequestCount;
+
+    @Autowired
+    public WarmUpRunner(List<WarmUpTask> tasks, DataSource dataSource, ObjectProvider<HikariDataSource> pools, EntityManager entityManager,
+                        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                        @Value("${bankapp.warm-up.enabled:true}") boolean enabled,
+                        @Value("${bankapp.warm-up.iterations:2000}") int iterations,
+                        @Value("${bankapp.warm-up.max-duration-ms:20000}") long maxDurationMs,
+                        @Value("${bankapp.warm-up.keep-warm-interval-ms:10000}") long keepWarmIntervalMs,
+                        @Value("${bankapp.warm-up.keep-warm-iterations:20}") int keepWarmIterations) {
+        this.tasks = tasks;
+        this.dataSource = dataSource;
+        this.pools = pools;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDurationNanos = TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+        this.keepWarmIntervalMs = keepWarmIntervalMs;
+        this.keepWarmIterations = keepWarmIterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || tasks.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        int completed = 0;
+        try {
+            int connections = fillPool();
+            long deadline = started + maxDurationNanos;
+            while (completed < iterations && System.nanoTime() < deadline) {
+                int batch = Math.min(ITERATIONS_PER_TRANSACTION, iterations - completed);
+                runBatch(batch);
+                completed += batch;
+            }
+            warmUpLog.info("Warm-up completed: {} connections opened, {} iterations of {} tasks in {} ms.",
+                    connections, completed, tasks.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (SQLException | RuntimeException e) {
+            // Una instancia fría sigue siendo mejor que ninguna: se reporta lista de todos modos.
+            warmUpLog.warn("Warm-up stopped after {} iterations: {}", completed, e.getMessage(), e);
+        }
+        startKeepWarm();
+    }
+
+    // Abre a la vez tantas conexiones como admite cada pool (uno, o escritura y lectura con el enrutamiento
+    // activo) para que Hikari no las cree bajo la primera ráfaga.
+    private int fillPool() throws SQLException {
+        List<HikariDataSource> hikariPools = pools.orderedStream().toList();
+        if (hikariPools.isEmpty()) {
+            return open(dataSource, 1);
+        }
+        int opened = 0;
+        for (HikariDataSource pool : hikariPools) {
+            opened += open(pool, pool.getMaximumPoolSize());
+        }
+        return opened;
+    }
+
+    private static int open(DataSource pool, int size) throws SQLException {
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                connections.add(pool.getConnection());
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        return connections.size();
+    }
+
+    private void runBatch(int batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            WarmUpTask.SyntheticAccount account = createSyntheticAccount();
+            for (int i = 0; i < batch; i++) {
+                for (WarmUpTask task : tasks) {
+                    task.warmUp(account);
+                }
+            }
+        });
+    }
+
+    // La cuenta vive solo dentro de la transacción revertida; ni la fila ni sus NOTIFY llegan a confirmarse.
+    private WarmUpTask.SyntheticAccount createSyntheticAccount() {
+        String marker = UUID.randomUUID().toString().replace("-", "");
+        OffsetDateTime now = OffsetDateTime.now();
+
+        User user = new User();
+        user.setAuth0Id("warmup|" + marker);
+        user.setFirstName("Warm-up");
+        user.setLastName("Synthetic");
+        user.setEmail("warmup-" + marker + "@bankapp.invalid");
+        user.setStatus("active");
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+        entityManager.persist(user);
+
+        Account account = new Account();
+        account.setUser(user);
+        account.setAccountNumber("WU" + marker.substring(0, 18));
+        account.setAccountType("savings");
+        account.setBalance(SYNTHETIC_BALANCE);
+        account.setCurrency("COP");
+        account.setStatus("active");
+        account.setCreatedAt(now);
+        account.setUpdatedAt(now);
+        entityManager.persist(account);
+        entityManager.flush();
+
+        return new WarmUpTask.SyntheticAccount(user.getId(), account.getId(), account.getAccountNumber(), account.getCurrency());
+    }
+
+    private void startKeepWarm() {
+        if (keepWarmIntervalMs <= 0 || keepWarmIterations <= 0) {
+            return;
+        }
+        lastRequestCount = requestCount();
+        keepWarmExecutor = Executors.newSingleThreadScheduledExecutor(
+                task -> Thread.ofPlatform().name("keep-warm").daemon(true).unstarted(task));
+        keepWarmExecutor.scheduleWithFixedDelay(this::keepWarm, keepWarmIntervalMs, keepWarmIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Solo corre si no hubo peticiones reales desde el intervalo anterior: con tráfico el código ya está caliente.
+    private void keepWarm() {
+        double requests = requestCount();
+        if (requests != lastRequestCount) {
+            lastRequestCount = requests;
+            return;
+        }
+        try {
+            runBatch(keepWarmIterations);
+        } catch (RuntimeException e) {
+            warmUpLog.warn("Keep-warm iteration failed: {}", e.getMessage());
+        }
+    }
+
+    private double requestCount() {
+        double count = 0;
+        // Cada petición real registra la etapa HEADERS en los temporizadores de StageTimers del servicio.
+        for (Timer timer : meterRegistry.find(StageTimers.METRIC_NAME).tag("stage", "HEADERS").timers()) {
+            count += timer.count();
+        }
+        return count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (keepWarmExecutor != null) {
+            keepWarmExecutor.shutdownNow();
+        }
+    }
+}
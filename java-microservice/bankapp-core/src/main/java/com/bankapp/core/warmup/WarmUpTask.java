@@ -0,0 +1,15 @@
+package com.bankapp.core.warmup;
+
+/**
+ * Recorrido sintético de los caminos calientes de un servicio (consultas, actualizaciones, serialización).
+ * {@link WarmUpRunner} lo ejecuta antes de reportar la instancia como lista y, mientras está ociosa, a baja
+ * frecuencia. Siempre corre dentro de una transacción que se revierte, sobre una cuenta activa creada en esa
+ * misma transacción, así que no debe escribir en la bitácora de auditoría ni en las métricas de operación.
+ */
+public interface WarmUpTask {
+
+    void warmUp(SyntheticAccount account);
+
+    record SyntheticAccount(Long userId, Long accountId, String accountNumber, String currency) {
+    }
+}
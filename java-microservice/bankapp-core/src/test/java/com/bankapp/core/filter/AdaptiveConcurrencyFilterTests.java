@@ -0,0 +1,77 @@
+package com.bankapp.core.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void rejectsMutationsBeyondTheLimitWith503() throws Exception {
+		AdaptiveConcurrencyFilter filter = filter();
+		List<MockHttpServletResponse> nested = new ArrayList<>();
+
+		// Mientras el primer depósito ocupa el único permiso, el segundo se rechaza sin llegar al controlador.
+		MockHttpServletResponse outer = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("POST", "/deposits"), outer, (request, response) -> {
+			MockHttpServletResponse inner = new MockHttpServletResponse();
+			filter.doFilter(new MockHttpServletRequest("POST", "/deposits"), inner,
+					(innerRequest, innerResponse) -> ((MockHttpServletResponse) innerResponse).setStatus(201));
+			nested.add(inner);
+		});
+
+		assertThat(outer.getStatus()).isEqualTo(200);
+		MockHttpServletResponse rejected = nested.get(0);
+		assertThat(rejected.getStatus()).isEqualTo(503);
+		assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(rejected.getContentType()).startsWith("application/json");
+		assertThat(rejected.getContentAsString()).contains("\"status\":\"error\"");
+		assertThat(meterRegistry.get("bankapp.concurrency.rejected").tag("budget", "mutation").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("bankapp.concurrency.in-flight").tag("budget", "mutation").gauge().value()).isZero();
+	}
+
+	@Test
+	void readsHaveTheirOwnBudget() throws Exception {
+		AdaptiveConcurrencyFilter filter = filter();
+		List<MockHttpServletResponse> nested = new ArrayList<>();
+
+		filter.doFilter(new MockHttpServletRequest("POST", "/deposits"), new MockHttpServletResponse(), (request, response) -> {
+			MockHttpServletResponse inner = new MockHttpServletResponse();
+			filter.doFilter(new MockHttpServletRequest("GET", "/balances/1"), inner, (innerRequest, innerResponse) -> {
+			});
+			nested.add(inner);
+		});
+
+		assertThat(nested.get(0).getStatus()).isEqualTo(200);
+		assertThat(meterRegistry.get("bankapp.concurrency.rejected").tag("budget", "read").counter().count()).isZero();
+	}
+
+	@Test
+	void doesNotLimitActuatorEndpoints() throws Exception {
+		AdaptiveConcurrencyFilter filter = filter();
+		List<MockHttpServletResponse> nested = new ArrayList<>();
+
+		filter.doFilter(new MockHttpServletRequest("POST", "/deposits"), new MockHttpServletResponse(), (request, response) -> {
+			MockHttpServletResponse inner = new MockHttpServletResponse();
+			filter.doFilter(new MockHttpServletRequest("POST", "/actuator/refresh"), inner, (innerRequest, innerResponse) -> {
+			});
+			nested.add(inner);
+		});
+
+		assertThat(nested.get(0).getStatus()).isEqualTo(200);
+	}
+
+	// Un permiso por presupuesto, para que la segunda petición concurrente ya quede fuera.
+	private AdaptiveConcurrencyFilter filter() throws Exception {
+		return new AdaptiveConcurrencyFilter(1, 1, 10, 1, 1, 10, 1.5, 0.2, new ObjectMapper(), meterRegistry);
+	}
+}
@@ -0,0 +1,72 @@
+package com.bankapp.core.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTests {
+
+	private static final long MILLI = 1_000_000L;
+
+	@Test
+	void shrinksUnderRisingLatencyAndRecoversAfterwards() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 20, 4, 200, 1.5, 0.2);
+		saturatedSamples(limit, 10 * MILLI, 10);
+		int baseline = limit.limit();
+
+		// La base de datos se degrada: cada escalón de latencia deja un límite menor que el anterior.
+		int previous = baseline;
+		for (long rttMillis : new long[] {20, 40, 80, 160}) {
+			saturatedSamples(limit, rttMillis * MILLI, 10);
+			assertThat(limit.limit()).isLessThan(previous);
+			previous = limit.limit();
+		}
+		assertThat(limit.limit()).isLessThanOrEqualTo(baseline / 2);
+
+		// La latencia vuelve a la habitual y el límite crece de nuevo por encima del de partida.
+		saturatedSamples(limit, 10 * MILLI, 200);
+		assertThat(limit.limit()).isGreaterThan(baseline);
+	}
+
+	@Test
+	void staysWithinTheConfiguredBounds() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 20, 8, 30, 1.5, 0.2);
+		saturatedSamples(limit, 10 * MILLI, 500);
+		assertThat(limit.limit()).isEqualTo(30);
+
+		saturatedSamples(limit, 1_000 * MILLI, 40);
+		assertThat(limit.limit()).isEqualTo(8);
+	}
+
+	@Test
+	void doesNotGrowWhileUnderused() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 20, 4, 200, 1.5, 0.2);
+		for (int i = 0; i < 200; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+			limit.release(10 * MILLI, 1);
+		}
+
+		assertThat(limit.limit()).isEqualTo(20);
+	}
+
+	@Test
+	void rejectsOnceTheLimitIsInUse() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 2, 1, 10, 1.5, 0.2);
+
+		assertThat(limit.tryAcquire()).isTrue();
+		assertThat(limit.tryAcquire()).isTrue();
+		assertThat(limit.tryAcquire()).isFalse();
+		assertThat(limit.inFlight()).isEqualTo(2);
+
+		limit.release();
+		assertThat(limit.tryAcquire()).isTrue();
+	}
+
+	// Muestras de peticiones admitidas con todo el límite en uso, que es cuando el límite se ajusta.
+	private static void saturatedSamples(AdaptiveConcurrencyLimit limit, long rttNanos, int count) {
+		for (int i = 0; i < count; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+			limit.release(rttNanos, limit.limit());
+		}
+	}
+}
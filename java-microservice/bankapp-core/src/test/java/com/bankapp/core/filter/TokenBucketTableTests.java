@@ -0,0 +1,108 @@
+package com.bankapp.core.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenBucketTableTests {
+
+	private static final long SECOND = 1_000_000_000L;
+	// Con maxEntries = 4 la tabla tiene 4 posiciones.
+	private static final int MASK = 3;
+
+	@Test
+	void refillsAtTheConfiguredRate() {
+		TokenBucketTable table = new TokenBucketTable(4, 2, 1);
+
+		assertThat(table.tryAcquire(1, 0)).isZero();
+		assertThat(table.tryAcquire(1, 0)).isZero();
+		assertThat((double) table.tryAcquire(1, 0)).isCloseTo(SECOND, within(2d));
+		assertThat((double) table.tryAcquire(1, SECOND / 2)).isCloseTo(SECOND / 2d, within(2d));
+		assertThat(table.tryAcquire(1, SECOND + 1_000)).isZero();
+		assertThat(table.tryAcquire(1, SECOND + 1_000)).isPositive();
+	}
+
+	@Test
+	void evictsTheBucketWithMoreTokens() {
+		TokenBucketTable table = new TokenBucketTable(4, 2, 1);
+		long[] keys = keysSharingBothSlots(3);
+		long drained = keys[0];
+		long partial = keys[1];
+		long newcomer = keys[2];
+
+		table.tryAcquire(drained, 0);
+		table.tryAcquire(drained, 0);
+		table.tryAcquire(partial, 0);
+		assertThat(table.tryAcquire(newcomer, 0)).isZero();
+
+		// El bucket vacío sigue registrado; el que tenía un token se olvidó y vuelve lleno.
+		assertThat(table.tryAcquire(drained, 0)).isPositive();
+		assertThat(table.tryAcquire(partial, 0)).isZero();
+		assertThat(table.tryAcquire(partial, 0)).isZero();
+	}
+
+	@Test
+	void concurrentInsertsOfANewKeyShareOneBucket() {
+		TokenBucketTable table = new TokenBucketTable(4, 2, 1);
+		long[] keys = raceKeys();
+		long atFirst = keys[0];
+		long atSecond = keys[1];
+		long key = keys[2];
+
+		// Ocupantes de las dos posiciones de key: a los 1,5 s se prefiere la primera y a los 2,5 s la segunda,
+		// porque su ocupante ya está inactivo.
+		table.tryAcquire(atSecond, SECOND / 5);
+		table.tryAcquire(atSecond, SECOND / 5);
+		table.tryAcquire(atFirst, SECOND);
+
+		// Otra petición de key inserta en la segunda posición entre la lectura y la inserción de esta.
+		long[] concurrent = new long[1];
+		table.beforeInsert = () -> {
+			table.beforeInsert = null;
+			concurrent[0] = table.tryAcquire(key, 5 * SECOND / 2);
+		};
+		assertThat(table.tryAcquire(key, 3 * SECOND / 2)).isZero();
+		assertThat(concurrent[0]).isZero();
+
+		// Como un único bucket: 1 token a los 1,5 s, 2 al recargar hasta los 2,5 s y uno consumido en ese momento.
+		assertThat(table.tryAcquire(key, 5 * SECOND / 2)).isZero();
+		assertThat(table.tryAcquire(key, 5 * SECOND / 2)).isPositive();
+	}
+
+	private static int first(long key) {
+		return (int) TokenBucketTable.mix(key) & MASK;
+	}
+
+	private static int second(long key) {
+		return (int) (TokenBucketTable.mix(key) >>> 32) & MASK;
+	}
+
+	private static long[] keysSharingBothSlots(int count) {
+		long reference = LongStream.iterate(1, key -> key + 1).filter(key -> first(key) != second(key)).findFirst().orElseThrow();
+		Set<Integer> slots = Set.of(first(reference), second(reference));
+		return LongStream.iterate(reference, key -> key + 1)
+				.filter(key -> first(key) != second(key) && slots.equals(Set.of(first(key), second(key))))
+				.limit(count)
+				.toArray();
+	}
+
+	// Claves cuya primera posición es la de la tercera (para ocupar su primera y segunda posición, en ese orden).
+	private static long[] raceKeys() {
+		for (long key = 1; key < 10_000; key++) {
+			if (first(key) == second(key)) {
+				continue;
+			}
+			long target = key;
+			long atFirst = LongStream.range(1, 10_000).filter(other -> other != target && first(other) == first(target)).findFirst().orElse(-1);
+			long atSecond = LongStream.range(1, 10_000).filter(other -> other != target && first(other) == second(target)).findFirst().orElse(-1);
+			if (atFirst > 0 && atSecond > 0) {
+				return new long[]{atFirst, atSecond, key};
+			}
+		}
+		throw new IllegalStateException("No keys found.");
+	}
+}
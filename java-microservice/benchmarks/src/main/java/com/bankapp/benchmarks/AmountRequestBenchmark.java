@@ -0,0 +1,57 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.deposit_service.dto.AmountRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.Data;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura del cuerpo de un depósito o retiro: el DTO anterior con el monto en {@link BigDecimal} frente a
+ * {@link AmountRequestDTO}, que lo lee en diezmilésimas con {@code MoneyUnitsDeserializer}. Con el perfilador de GC
+ * de {@link BenchmarkRunner} se comparan los bytes asignados por solicitud ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AmountRequestBenchmark {
+    private final byte[] body = "{\"amount\": 20000.50}".getBytes(StandardCharsets.UTF_8);
+    private ObjectReader decimalReader;
+    private ObjectReader unitsReader;
+
+    // Forma del DTO antes de leer el monto en diezmilésimas.
+    @Data
+    public static class DecimalAmountRequest {
+        private BigDecimal amount;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        decimalReader = objectMapper.readerFor(DecimalAmountRequest.class);
+        unitsReader = objectMapper.readerFor(AmountRequestDTO.class);
+        long expected = decimal().scaleByPowerOfTen(4).longValueExact();
+        if (units() != expected) {
+            throw new IllegalStateException("Units reader does not match the BigDecimal amount.");
+        }
+    }
+
+    @Benchmark
+    public BigDecimal decimal() throws IOException {
+        return decimalReader.<DecimalAmountRequest>readValue(body).getAmount();
+    }
+
+    @Benchmark
+    public long units() throws IOException {
+        return unitsReader.<AmountRequestDTO>readValue(body).getAmountUnits();
+    }
+}
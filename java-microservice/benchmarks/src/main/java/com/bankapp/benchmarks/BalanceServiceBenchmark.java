@@ -0,0 +1,78 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.balance_service.BalanceServiceApplication;
+import com.bankapp.balance_service.cache.BalanceCache;
+import com.bankapp.balance_service.dto.AccountBalanceDataDTO;
+import com.bankapp.balance_service.repository.AccountRepository;
+import com.bankapp.balance_service.service.DefaultBalanceService;
+import com.bankapp.core.model.Account;
+import com.bankapp.core.result.OperationResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BalanceServiceBenchmark {
+    private static final long MISSING_USER_ID = Long.MAX_VALUE;
+
+    private EmbeddedBankDatabase database;
+    private ConfigurableApplicationContext context;
+    private DefaultBalanceService balanceService;
+    private BalanceCache balanceCache;
+    private AccountRepository accountRepository;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = EmbeddedBankDatabase.start();
+        userId = database.createAccount(new BigDecimal("250000.75"), "active");
+        context = database.boot(BalanceServiceApplication.class, Map.of());
+        balanceService = context.getBean(DefaultBalanceService.class);
+        balanceCache = context.getBean(BalanceCache.class);
+        accountRepository = context.getBean(AccountRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    public OperationResult<AccountBalanceDataDTO> getAccountBalanceCached() {
+        return balanceService.getAccountBalance(userId, "127.0.0.1");
+    }
+
+    @Benchmark
+    public OperationResult<AccountBalanceDataDTO> getAccountBalanceFromDatabase() {
+        balanceCache.invalidate(userId);
+        return balanceService.getAccountBalance(userId, "127.0.0.1");
+    }
+
+    // Rechazo esperado (cuenta inexistente): consulta a la base de datos y OperationResult.Rejected, sin excepción.
+    @Benchmark
+    public OperationResult<AccountBalanceDataDTO> getAccountBalanceMissingAccount() {
+        return balanceService.getAccountBalance(MISSING_USER_ID, "127.0.0.1");
+    }
+
+    // Camino anterior: entidad administrada (con proxy de User) copiada al DTO.
+    @Benchmark
+    public AccountBalanceDataDTO loadAccountEntity() {
+        Account account = accountRepository.findByUserId(userId).orElseThrow();
+        return new AccountBalanceDataDTO(account.getId(), account.getAccountNumber(), account.getAccountType(),
+                account.getBalance(), account.getCurrency(), account.getStatus());
+    }
+
+    @Benchmark
+    public AccountBalanceDataDTO loadBalanceProjection() {
+        return accountRepository.findBalanceByUserId(userId).orElseThrow();
+    }
+}
@@ -0,0 +1,58 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.core.model.Money;
+import com.bankapp.core.utils.RequestHeaders;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trabajo que hace la capa de controlador alrededor de la llamada al servicio: lectura de cabeceras
+ * y serialización JSON del sobre {@code ApiResponseDTO<AccountTransactionResponseDataDTO>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerPathBenchmark {
+    private ObjectMapper objectMapper;
+    private ApiResponseDTO<AccountTransactionResponseDataDTO> response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        AccountTransactionResponseDataDTO data = AccountTransactionResponseDataDTO.builder()
+                .message("El retiro de la cuenta PostgreSQL fue completado.")
+                .accountId("1042")
+                .accountNumber("0010000001")
+                .newBalance(Money.of(new BigDecimal("12520350.7500"), "COP"))
+                .currency("COP")
+                .amountWithdrawn(Money.of(new BigDecimal("20000.00"), "COP"))
+                .transactionId("pg_txn_wdr_1748645460027")
+                .transactionTimestamp("2025-05-30T23:11:00.027Z")
+                .build();
+        response = ApiResponseDTO.success(data, "Retiro procesado exitosamente desde Java.");
+    }
+
+    @Benchmark
+    public Long parseUserId() {
+        return RequestHeaders.parseUserId(" 1042 ");
+    }
+
+    @Benchmark
+    public String resolveClientIp() {
+        return RequestHeaders.resolveClientIp("203.0.113.7, 10.0.0.12", "127.0.0.1");
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,48 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.deposit_service.DepositServiceApplication;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.bankapp.deposit_service.service.DefaultDepositService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DepositServiceBenchmark {
+    // 1.0000 en diezmilésimas.
+    private static final long AMOUNT_UNITS = 10_000L;
+
+    private EmbeddedBankDatabase database;
+    private ConfigurableApplicationContext context;
+    private DefaultDepositService depositService;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = EmbeddedBankDatabase.start();
+        userId = database.createAccount(BigDecimal.ZERO, "active");
+        context = database.boot(DepositServiceApplication.class, Map.of());
+        depositService = context.getBean(DefaultDepositService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    public OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> performDeposit() {
+        return depositService.performDeposit(userId, AMOUNT_UNITS, "127.0.0.1", null);
+    }
+}
@@ -0,0 +1,140 @@
+package com.bankapp.benchmarks;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * PostgreSQL embebido con el esquema de bankapp, usado como sustituto de la base de datos real
+ * para medir las rutas de servicio con el mismo SQL que en producción.
+ */
+public final class EmbeddedBankDatabase implements AutoCloseable {
+    private static final String DATABASE = "postgres";
+    private static final String USER = "postgres";
+
+    private final EmbeddedPostgres postgres;
+
+    private EmbeddedBankDatabase(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+    }
+
+    public static EmbeddedBankDatabase start() throws IOException, SQLException {
+        EmbeddedBankDatabase database = new EmbeddedBankDatabase(EmbeddedPostgres.start());
+        database.runScript("/bankapp-schema.sql");
+        return database;
+    }
+
+    public String jdbcUrl() {
+        return postgres.getJdbcUrl(USER, DATABASE) + "&currentSchema=bankapp&reWriteBatchedInserts=true";
+    }
+
+    public Connection connection() throws SQLException {
+        return postgres.getPostgresDatabase().getConnection();
+    }
+
+    /**
+     * Crea un usuario con una cuenta en el estado indicado y devuelve el id del usuario.
+     */
+    public long createAccount(BigDecimal balance, String status) throws SQLException {
+        String suffix = UUID.randomUUID().toString();
+        try (Connection connection = connection()) {
+            long userId;
+            try (PreparedStatement insertUser = connection.prepareStatement(
+                    "INSERT INTO bankapp.users (auth0_id, first_name, last_name, email, status) VALUES (?, 'Bench', 'User', ?, 'active') RETURNING id")) {
+                insertUser.setString(1, "bench|" + suffix);
+                insertUser.setString(2, suffix + "@bench.local");
+                try (ResultSet rs = insertUser.executeQuery()) {
+                    rs.next();
+                    userId = rs.getLong(1);
+                }
+            }
+            try (PreparedStatement insertAccount = connection.prepareStatement(
+                    "INSERT INTO bankapp.accounts (user_id, account_number, account_type, balance, currency, status) VALUES (?, ?, 'savings', ?, 'COP', ?)")) {
+                insertAccount.setLong(1, userId);
+                insertAccount.setString(2, suffix.substring(0, 20));
+                insertAccount.setBigDecimal(3, balance);
+                insertAccount.setString(4, status);
+                insertAccount.executeUpdate();
+            }
+            return userId;
+        }
+    }
+
+    /**
+     * Reparte la cuenta del usuario en {@code slots} filas de bankapp.account_balance_slots; el saldo pasa al slot 0.
+     */
+    public void splitIntoSlots(long userId, int slots) throws SQLException {
+        try (Connection connection = connection()) {
+            try (PreparedStatement insertSlots = connection.prepareStatement("""
+                    INSERT INTO bankapp.account_balance_slots (account_id, slot, balance)
+                    SELECT a.id, s, CASE WHEN s = 0 THEN a.balance ELSE 0 END
+                    FROM bankapp.accounts a, generate_series(0, ? - 1) s
+                    WHERE a.user_id = ?
+                    """)) {
+                insertSlots.setInt(1, slots);
+                insertSlots.setLong(2, userId);
+                insertSlots.executeUpdate();
+            }
+            try (PreparedStatement clearBalance = connection.prepareStatement(
+                    "UPDATE bankapp.accounts SET balance = 0 WHERE user_id = ?")) {
+                clearBalance.setLong(1, userId);
+                clearBalance.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Arranca la aplicación Spring Boot indicada, sin servidor web, contra esta base de datos.
+     */
+    public ConfigurableApplicationContext boot(Class<?> application, Map<String, Object> extraProperties) throws IOException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", jdbcUrl());
+        properties.put("spring.datasource.username", USER);
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.hibernate.ddl-auto", "validate");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("bankapp.audit.file", Files.createTempFile("bench-audit", ".log").toString());
+        // JMH hace su propio calentamiento; el de la aplicación y su repetición en segundo plano alterarían las mediciones.
+        properties.put("bankapp.warm-up.enabled", "false");
+        properties.putAll(extraProperties);
+        return new SpringApplicationBuilder(application)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+    }
+
+    private void runScript(String resource) throws IOException, SQLException {
+        String script;
+        try (InputStream in = EmbeddedBankDatabase.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing schema script " + resource);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Connection connection = connection(); Statement statement = connection.createStatement()) {
+            statement.execute(script);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        postgres.close();
+    }
+}
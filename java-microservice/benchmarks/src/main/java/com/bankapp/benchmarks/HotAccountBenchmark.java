@@ -0,0 +1,66 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.deposit_service.DepositServiceApplication;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.bankapp.deposit_service.service.DepositService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Depósitos concurrentes sobre una misma cuenta según en cuántos slots está repartida su saldo
+ * ({@code bankapp.balance-slots}); 0 es el camino normal sobre la fila de bankapp.accounts. Con
+ * {@code groupCommit} los depósitos pasan por {@code GroupCommitDepositService}, que los agrupa en un UPDATE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class HotAccountBenchmark {
+    // 1.0000 en diezmilésimas.
+    private static final long AMOUNT_UNITS = 10_000L;
+
+    @Param({"0", "1", "4", "16"})
+    public int slots;
+
+    @Param({"false", "true"})
+    public boolean groupCommit;
+
+    private EmbeddedBankDatabase database;
+    private ConfigurableApplicationContext context;
+    private DepositService depositService;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = EmbeddedBankDatabase.start();
+        userId = database.createAccount(BigDecimal.ZERO, "active");
+        if (slots > 0) {
+            database.splitIntoSlots(userId, slots);
+        }
+        context = database.boot(DepositServiceApplication.class, Map.of(
+                "bankapp.balance-slots.enabled", "true",
+                "bankapp.deposit.group-commit.enabled", String.valueOf(groupCommit),
+                "spring.datasource.hikari.maximum-pool-size", "16"));
+        depositService = context.getBean(DepositService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    public OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> depositIntoHotAccount() {
+        return depositService.performDeposit(userId, AMOUNT_UNITS, "127.0.0.1", null);
+    }
+}
@@ -0,0 +1,81 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.core.model.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aritmética de saldos de un lote agrupado de depósitos (el de {@code performDepositBatch}) con {@link BigDecimal}
+ * frente a {@link Money}: total del lote, saldo de partida, saldo acumulado por depósito, comparación y el texto
+ * que se escribe en la respuesta. En el camino de {@link Money} el saldo de partida llega en diezmilésimas, como
+ * lo devuelve la sentencia. Con el perfilador de GC de {@link BenchmarkRunner} se comparan los bytes
+ * asignados por lote ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+    private static final String CURRENCY = "COP";
+
+    @Param({"1", "16"})
+    public int batchSize;
+
+    private BigDecimal balance;
+    private long balanceUnits;
+    private BigDecimal[] decimalAmounts;
+    private Money[] moneyAmounts;
+    private char[] scratch;
+
+    @Setup
+    public void setUp() {
+        // Valores como los devuelve la base: NUMERIC(19,4).
+        balance = new BigDecimal("12520350.7500");
+        balanceUnits = Money.toUnits(balance);
+        decimalAmounts = new BigDecimal[batchSize];
+        moneyAmounts = new Money[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            decimalAmounts[i] = new BigDecimal(20000 + i * 25).setScale(Money.SCALE);
+            moneyAmounts[i] = Money.of(decimalAmounts[i], CURRENCY);
+        }
+        scratch = new char[Money.MAX_TEXT_LENGTH];
+    }
+
+    @Benchmark
+    public int bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimalAmounts) {
+            total = total.add(amount);
+        }
+        BigDecimal running = balance.subtract(total);
+        int length = 0;
+        for (BigDecimal amount : decimalAmounts) {
+            running = running.add(amount);
+            if (running.compareTo(BigDecimal.ZERO) > 0) {
+                length += running.toPlainString().length();
+            }
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int money() {
+        long totalUnits = 0L;
+        for (Money amount : moneyAmounts) {
+            totalUnits = Math.addExact(totalUnits, amount.units());
+        }
+        Money running = Money.ofUnits(balanceUnits, CURRENCY).minus(Money.ofUnits(totalUnits, CURRENCY));
+        int length = 0;
+        for (Money amount : moneyAmounts) {
+            running = running.plus(amount);
+            if (running.isPositive()) {
+                length += running.formatTo(scratch);
+            }
+        }
+        return length;
+    }
+}
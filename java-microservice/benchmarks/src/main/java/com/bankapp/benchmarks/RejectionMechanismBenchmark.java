@@ -0,0 +1,80 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.result.Rejection;
+import com.bankapp.core.exception.InsufficientFundsException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de hacer llegar un rechazo esperado (fondos insuficientes) desde el servicio hasta el controlador:
+ * antes, una excepción con traza de pila atravesando la pila de llamadas; ahora, un
+ * {@link OperationResult.Rejected} devuelto. También mide la excepción sin traza que queda para los resultados
+ * controlados de la capa web. {@code depth} simula los marcos entre el controlador y el servicio (proxies de
+ * Spring, filtros, DispatcherServlet).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RejectionMechanismBenchmark {
+    private static final String MESSAGE = "Withdrawal failed: Insufficient funds in account 1 (User: 1). Balance: 0, Requested: 1.00.";
+
+    @Param({"20", "120"})
+    private int depth;
+
+    @Benchmark
+    public Object exceptionWithStackTrace() {
+        try {
+            return throwWithStackTrace(depth);
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public Object stacklessException() {
+        try {
+            return throwStackless(depth);
+        } catch (InsufficientFundsException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public Object returnedRejection() {
+        OperationResult<String> result = returnRejected(depth);
+        if (result instanceof OperationResult.Rejected<String> rejected) {
+            return rejected.message();
+        }
+        return result;
+    }
+
+    // Comportamiento anterior de InsufficientFundsException: RuntimeException con traza de pila.
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private static String throwWithStackTrace(int remaining) {
+        if (remaining == 0) {
+            throw new RuntimeException(MESSAGE);
+        }
+        return throwWithStackTrace(remaining - 1);
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private static String throwStackless(int remaining) {
+        if (remaining == 0) {
+            throw new InsufficientFundsException(MESSAGE);
+        }
+        return throwStackless(remaining - 1);
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private static OperationResult<String> returnRejected(int remaining) {
+        if (remaining == 0) {
+            return OperationResult.rejected(Rejection.INSUFFICIENT_FUNDS, MESSAGE);
+        }
+        return returnRejected(remaining - 1);
+    }
+}
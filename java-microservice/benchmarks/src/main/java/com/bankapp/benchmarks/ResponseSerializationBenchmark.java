@@ -0,0 +1,103 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.core.model.Money;
+import com.bankapp.balance_service.dto.AccountBalanceDataDTO;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.bankapp.core.dto.TransactionResponseJsonWriter;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de los sobres de respuesta con el ObjectMapper (camino anterior) frente a los escritores directos
+ * ({@code TransactionResponseJsonWriter} y el de balance) que usa {@code TimedJsonHttpMessageConverter}. Ambos escriben en el mismo búfer
+ * reutilizado, como lo haría la salida del servlet; con el perfilador de GC de {@link BenchmarkRunner} se
+ * comparan los bytes asignados por respuesta ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+    private ObjectMapper objectMapper;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(1024);
+    private ApiResponseDTO<AccountTransactionResponseDataDTO> transactionResponse;
+    private com.bankapp.balance_service.dto.ApiResponseDTO<AccountBalanceDataDTO> balanceResponse;
+    private TransactionResponseJsonWriter transactionWriter;
+    private com.bankapp.balance_service.dto.ApiResponseJsonWriter balanceWriter;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        AccountTransactionResponseDataDTO data = AccountTransactionResponseDataDTO.builder()
+                .message("El retiro de la cuenta PostgreSQL fue completado.")
+                .accountId("1042")
+                .accountNumber("0010000001")
+                .newBalance(Money.of(new BigDecimal("12520350.7500"), "COP"))
+                .currency("COP")
+                .amountWithdrawn(Money.of(new BigDecimal("20000.00"), "COP"))
+                .transactionId("pg_txn_wdr_1748645460027")
+                .transactionTimestamp("2025-05-30T23:11:00.027Z")
+                .build();
+        transactionResponse = ApiResponseDTO.success(data, "Retiro procesado exitosamente desde Java.");
+        balanceResponse = com.bankapp.balance_service.dto.ApiResponseDTO.success(
+                new AccountBalanceDataDTO(1042L, "0010000001", "savings", new BigDecimal("12520350.7500"), "COP", "active"));
+        transactionWriter = new TransactionResponseJsonWriter();
+        balanceWriter = new com.bankapp.balance_service.dto.ApiResponseJsonWriter();
+
+        // Ambos caminos deben producir exactamente los mismos bytes.
+        objectMapperTransaction();
+        byte[] expectedTransaction = output.toByteArray();
+        directTransaction();
+        boolean transactionMatches = Arrays.equals(expectedTransaction, output.toByteArray());
+        objectMapperBalance();
+        byte[] expectedBalance = output.toByteArray();
+        directBalance();
+        if (!transactionMatches || !Arrays.equals(expectedBalance, output.toByteArray())) {
+            throw new IllegalStateException("Direct writers do not match the ObjectMapper output.");
+        }
+    }
+
+    @Benchmark
+    public int objectMapperTransaction() throws IOException {
+        output.reset();
+        objectMapper.writeValue(output, transactionResponse);
+        return output.size();
+    }
+
+    @Benchmark
+    public int directTransaction() throws IOException {
+        output.reset();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            transactionWriter.write(transactionResponse, generator);
+        }
+        return output.size();
+    }
+
+    @Benchmark
+    public int objectMapperBalance() throws IOException {
+        output.reset();
+        objectMapper.writeValue(output, balanceResponse);
+        return output.size();
+    }
+
+    @Benchmark
+    public int directBalance() throws IOException {
+        output.reset();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            balanceWriter.write(balanceResponse, generator);
+        }
+        return output.size();
+    }
+}
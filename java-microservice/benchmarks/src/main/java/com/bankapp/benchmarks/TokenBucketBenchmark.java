@@ -0,0 +1,36 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.core.filter.TokenBucketTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por petición del límite por usuario ({@code bankapp.rate-limit}) con la tabla de tamaño por defecto,
+ * tanto con pocos usuarios activos como con millones de usuarios distintos que obligan a desplazar buckets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TokenBucketBenchmark {
+
+    @Param({"1000", "10000000"})
+    public int distinctUsers;
+
+    private TokenBucketTable buckets;
+
+    @Setup
+    public void setUp() {
+        buckets = new TokenBucketTable(262_144, 20, 10);
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return buckets.tryAcquire(ThreadLocalRandom.current().nextInt(distinctUsers), System.nanoTime());
+    }
+}
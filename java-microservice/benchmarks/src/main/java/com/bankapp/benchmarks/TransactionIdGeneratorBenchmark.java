@@ -0,0 +1,49 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.core.utils.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de generar el id de una transacción con el generador ordenado por tiempo, frente al prefijo más
+ * {@code System.currentTimeMillis()} que usaban antes los servicios (que repetía ids dentro del mismo milisegundo)
+ * y a {@code UUID.randomUUID()}. Corre con varios hilos para medir la contención del CAS.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TransactionIdGeneratorBenchmark {
+
+    private TransactionIdGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new TransactionIdGenerator(1);
+    }
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String nextTransactionId() {
+        return generator.nextTransactionId("pg_txn_dep_");
+    }
+
+    @Benchmark
+    public String legacyCurrentTimeMillis() {
+        return "pg_txn_dep_" + System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return "pg_txn_dep_" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,63 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.core.utils.TransactionLogger;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo en el hilo de la petición de registrar una operación, frente al formateo síncrono con
+ * {@code String.format} que hacía la versión anterior de {@code TransactionLogger}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionLoggerBenchmark {
+    private static final Long USER_ID = 1042L;
+    private static final Long ACCOUNT_ID = 77L;
+    private static final BigDecimal AMOUNT = new BigDecimal("20000.00");
+    private static final BigDecimal NEW_BALANCE = new BigDecimal("12520350.7500");
+
+    private TransactionLogger transactionLogger;
+
+    @Setup
+    public void setUp() throws Exception {
+        String file = Files.createTempFile("bench-audit", ".log").toString();
+        transactionLogger = new TransactionLogger(65536, TransactionLogger.OverflowPolicy.DROP, 256, 100, file, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        transactionLogger.shutdown();
+    }
+
+    @Benchmark
+    public void logTransaction() {
+        transactionLogger.logTransaction(USER_ID, "WITHDRAWAL", ACCOUNT_ID, AMOUNT, "COP", "SUCCESS", "127.0.0.1",
+                "Withdrawal of {} {} successful from account {} (User: {}, AccountNumber: {}). New balance: {}.",
+                AMOUNT, "COP", ACCOUNT_ID, USER_ID, "0010000001", NEW_BALANCE);
+    }
+
+    @Benchmark
+    public String legacyStringFormat() {
+        String logMessage = String.format("Withdrawal of %s %s successful from account %s (User: %s, AccountNumber: %s). New balance: %s.",
+                AMOUNT.toPlainString(), "COP", ACCOUNT_ID, USER_ID, "0010000001", NEW_BALANCE.toPlainString());
+        return String.format("TIMESTAMP: %s | USER_ID: %s | OPERATION: %s | ACCOUNT_ID: %s | AMOUNT: %s | CURRENCY: %s | STATUS: %s | IP: %s | MESSAGE: %s",
+                Instant.now().toString(),
+                Objects.toString(USER_ID, "N/A"),
+                Objects.toString("WITHDRAWAL", "N/A"),
+                Objects.toString(ACCOUNT_ID, "N/A"),
+                Objects.toString(AMOUNT.toPlainString(), "N/A"),
+                Objects.toString("COP", "N/A"),
+                Objects.toString("SUCCESS", "N/A"),
+                Objects.toString("127.0.0.1", "N/A"),
+                logMessage);
+    }
+}
@@ -0,0 +1,69 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.withdrawal_service.WithdrawalServiceApplication;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.bankapp.withdrawal_service.service.WithdrawalService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Retiros concurrentes sobre una misma cuenta con y sin el motor en memoria ({@code bankapp.withdrawal.engine}):
+ * sin él cada hilo espera el lock de la fila en PostgreSQL; con él un solo hilo de shard decide y agrupa el fsync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class WithdrawalEngineBenchmark {
+    // 1.0000 en diezmilésimas.
+    private static final long AMOUNT_UNITS = 10_000L;
+
+    @Param({"false", "true"})
+    public boolean engine;
+
+    private EmbeddedBankDatabase database;
+    private ConfigurableApplicationContext context;
+    private WithdrawalService withdrawalService;
+    private Path journalDirectory;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = EmbeddedBankDatabase.start();
+        userId = database.createAccount(new BigDecimal("1000000000000.00"), "active");
+        journalDirectory = Files.createTempDirectory("bankapp-withdrawal-journal");
+        context = database.boot(WithdrawalServiceApplication.class, Map.of(
+                "bankapp.withdrawal.engine.enabled", Boolean.toString(engine),
+                "bankapp.withdrawal.engine.journal-directory", journalDirectory.toString()));
+        withdrawalService = context.getBean(WithdrawalService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        database.close();
+        try (Stream<Path> files = Files.walk(journalDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> performWithdrawalOnHotAccount() {
+        return withdrawalService.performWithdrawal(userId, AMOUNT_UNITS, "127.0.0.1", null);
+    }
+}
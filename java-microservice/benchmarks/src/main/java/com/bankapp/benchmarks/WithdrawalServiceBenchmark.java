@@ -0,0 +1,63 @@
+package com.bankapp.benchmarks;
+
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.withdrawal_service.WithdrawalServiceApplication;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.bankapp.withdrawal_service.service.DefaultWithdrawalService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WithdrawalServiceBenchmark {
+    // 1.0000 en diezmilésimas.
+    private static final long AMOUNT_UNITS = 10_000L;
+
+    private EmbeddedBankDatabase database;
+    private ConfigurableApplicationContext context;
+    private DefaultWithdrawalService withdrawalService;
+    private long userId;
+    private long emptyAccountUserId;
+    private long inactiveAccountUserId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = EmbeddedBankDatabase.start();
+        userId = database.createAccount(new BigDecimal("1000000000000.00"), "active");
+        emptyAccountUserId = database.createAccount(BigDecimal.ZERO, "active");
+        inactiveAccountUserId = database.createAccount(new BigDecimal("1000.00"), "inactive");
+        context = database.boot(WithdrawalServiceApplication.class, Map.of());
+        withdrawalService = context.getBean(DefaultWithdrawalService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    public OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> performWithdrawal() {
+        return withdrawalService.performWithdrawal(userId, AMOUNT_UNITS, "127.0.0.1", null);
+    }
+
+    // Rechazos esperados: se devuelven como OperationResult.Rejected, sin construir excepciones.
+    @Benchmark
+    public OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> withdrawInsufficientFunds() {
+        return withdrawalService.performWithdrawal(emptyAccountUserId, AMOUNT_UNITS, "127.0.0.1", null);
+    }
+
+    @Benchmark
+    public OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> withdrawFromInactiveAccount() {
+        return withdrawalService.performWithdrawal(inactiveAccountUserId, AMOUNT_UNITS, "127.0.0.1", null);
+    }
+}
@@ -0,0 +1,217 @@
+-- Esquema usado por los benchmarks; refleja el script SQL del README.
+CREATE SCHEMA bankapp;
+
+-- Función para actualizar updated_at automáticamente
+CREATE OR REPLACE FUNCTION bankapp.update_updated_at_column()
+RETURNS TRIGGER AS $$
+BEGIN
+   NEW.updated_at = NOW();
+   RETURN NEW;
+END;
+$$ LANGUAGE 'plpgsql';
+
+-- Tabla de usuarios
+CREATE TABLE bankapp.users (
+    id                                  BIGSERIAL PRIMARY KEY,
+    auth0_id                            VARCHAR(255) NOT NULL UNIQUE,
+    first_name                          VARCHAR(100) NOT NULL,
+    last_name                           VARCHAR(100) NOT NULL,
+    email                               VARCHAR(255) NOT NULL UNIQUE,
+    email_verified                      BOOLEAN DEFAULT FALSE,
+    phone_country_code                  VARCHAR(10),
+    phone_number                        VARCHAR(50),
+    phone_is_verified                   BOOLEAN DEFAULT FALSE,
+    address_street                      VARCHAR(255),
+    address_apartment_or_unit           VARCHAR(100),
+    address_city                        VARCHAR(100),
+    address_state_or_department         VARCHAR(100),
+    address_zip_code                    VARCHAR(20),
+    address_country                     VARCHAR(5) DEFAULT 'CO',
+    date_of_birth                       DATE,
+    nationality                         VARCHAR(100),
+    identification_document_type        VARCHAR(20),
+    identification_document_number      VARCHAR(50),
+    identification_document_issue_date  DATE,
+    identification_document_expiry_date DATE,
+    status                              VARCHAR(50) DEFAULT 'pending_verification' NOT NULL,
+    agreed_to_terms_version             VARCHAR(50),
+    preferences_language                VARCHAR(10) DEFAULT 'es',
+    preferences_notifications_email     BOOLEAN DEFAULT TRUE,
+    preferences_notifications_sms       BOOLEAN DEFAULT FALSE,
+    preferences_notifications_push      BOOLEAN DEFAULT TRUE,
+    last_login_at                       TIMESTAMPTZ,
+    created_at                          TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    updated_at                          TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    CONSTRAINT check_user_status CHECK (status IN ('active', 'inactive', 'pending_verification', 'suspended'))
+);
+
+-- Trigger para actualizar updated_at
+CREATE TRIGGER trigger_update_users_updated_at
+    BEFORE UPDATE ON bankapp.users
+    FOR EACH ROW
+    EXECUTE FUNCTION bankapp.update_updated_at_column();
+
+-- Tabla de roles
+CREATE TABLE bankapp.roles (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE,
+    description TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TRIGGER trigger_update_roles_updated_at
+    BEFORE UPDATE ON bankapp.roles
+    FOR EACH ROW
+    EXECUTE FUNCTION bankapp.update_updated_at_column();
+
+-- Tabla de unión user_roles
+CREATE TABLE bankapp.user_roles (
+    user_id BIGINT NOT NULL,
+    role_id INTEGER NOT NULL,
+    assigned_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user
+        FOREIGN KEY(user_id)
+        REFERENCES bankapp.users(id)
+        ON DELETE CASCADE,
+    CONSTRAINT fk_user_roles_role
+        FOREIGN KEY(role_id)
+        REFERENCES bankapp.roles(id)
+        ON DELETE CASCADE
+);
+
+-- Tabla de cuentas
+CREATE TABLE bankapp.accounts (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    account_number VARCHAR(20) NOT NULL UNIQUE,
+    account_type VARCHAR(50) NOT NULL,
+    balance NUMERIC(19, 4) NOT NULL DEFAULT 0.00,
+    currency VARCHAR(3) NOT NULL DEFAULT 'COP',
+    status VARCHAR(50) NOT NULL DEFAULT 'pending_activation',
+    overdraft_limit NUMERIC(19, 4) NOT NULL DEFAULT 0.00,
+    interest_rate NUMERIC(5, 4) DEFAULT 0.0000,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_accounts_user
+        FOREIGN KEY(user_id)
+        REFERENCES bankapp.users(id)
+        ON DELETE CASCADE,
+    CONSTRAINT check_account_type
+        CHECK (account_type IN ('savings', 'checking', 'loan', 'credit')),
+    CONSTRAINT check_account_status
+        CHECK (status IN ('active', 'inactive', 'closed', 'suspended', 'pending_activation')),
+    CONSTRAINT check_currency_code
+        CHECK (currency ~ '^[A-Z]{3}$')
+);
+
+CREATE TRIGGER trigger_update_accounts_updated_at
+    BEFORE UPDATE ON bankapp.accounts
+    FOR EACH ROW
+    EXECUTE FUNCTION bankapp.update_updated_at_column();
+
+-- Todas las consultas de los servicios Java buscan la cuenta por usuario
+CREATE INDEX idx_accounts_user_id ON bankapp.accounts (user_id);
+
+-- Libro mayor de depósitos y retiros. La secuencia incrementa de a 50 para que los servicios
+-- reserven bloques de identificadores (allocationSize = 50) sin consultarla en cada inserción.
+CREATE SEQUENCE bankapp.transactions_id_seq INCREMENT BY 50;
+
+CREATE TABLE bankapp.transactions (
+    id BIGINT PRIMARY KEY DEFAULT nextval('bankapp.transactions_id_seq'),
+    transaction_id VARCHAR(64) NOT NULL,
+    account_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    operation VARCHAR(20) NOT NULL,
+    amount NUMERIC(19, 4) NOT NULL,
+    balance_after NUMERIC(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    client_ip VARCHAR(45),
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_transactions_account
+        FOREIGN KEY(account_id)
+        REFERENCES bankapp.accounts(id)
+        ON DELETE CASCADE,
+    CONSTRAINT check_transaction_operation
+        CHECK (operation IN ('DEPOSIT', 'WITHDRAWAL'))
+);
+
+ALTER SEQUENCE bankapp.transactions_id_seq OWNED BY bankapp.transactions.id;
+
+CREATE INDEX idx_transactions_account_created_at ON bankapp.transactions (account_id, created_at);
+CREATE UNIQUE INDEX idx_transactions_transaction_id ON bankapp.transactions (transaction_id);
+
+-- Claves de idempotencia de depósitos, retiros y elementos de depósitos masivos (header Idempotency-Key)
+CREATE TABLE bankapp.idempotency_keys (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    operation VARCHAR(20) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    account_id BIGINT NOT NULL,
+    account_number VARCHAR(20) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    amount NUMERIC(19, 4) NOT NULL,
+    new_balance NUMERIC(19, 4) NOT NULL,
+    transaction_id VARCHAR(64) NOT NULL,
+    transaction_timestamp TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uq_idempotency_keys_user_operation_key
+        UNIQUE (user_id, operation, idempotency_key),
+    CONSTRAINT fk_idempotency_keys_user
+        FOREIGN KEY(user_id)
+        REFERENCES bankapp.users(id)
+        ON DELETE CASCADE,
+    CONSTRAINT fk_idempotency_keys_account
+        FOREIGN KEY(account_id)
+        REFERENCES bankapp.accounts(id)
+        ON DELETE CASCADE,
+    CONSTRAINT check_idempotency_operation
+        CHECK (operation IN ('DEPOSIT', 'WITHDRAWAL', 'BULK_DEPOSIT'))
+);
+
+-- Los elementos de un depósito masivo se buscan solo por su clave (la del lote más su posición)
+CREATE INDEX idx_idempotency_keys_bulk_deposit ON bankapp.idempotency_keys (idempotency_key)
+    WHERE operation = 'BULK_DEPOSIT';
+
+-- Saldo repartido de cuentas muy concurridas (bankapp.balance-slots.*): el saldo de una cuenta con filas aquí
+-- es accounts.balance más la suma de sus slots, y cada depósito o retiro bloquea un solo slot
+CREATE TABLE bankapp.account_balance_slots (
+    account_id BIGINT NOT NULL,
+    slot SMALLINT NOT NULL,
+    balance NUMERIC(19, 4) NOT NULL DEFAULT 0.00,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (account_id, slot),
+    CONSTRAINT fk_account_balance_slots_account
+        FOREIGN KEY(account_id)
+        REFERENCES bankapp.accounts(id)
+        ON DELETE CASCADE,
+    CONSTRAINT check_account_balance_slots_balance
+        CHECK (balance >= 0)
+);
+
+-- Nodos del generador de ids de transacción (bankapp.node-id=-1): cada instancia toma en alquiler un nodo libre
+-- y lo renueva mientras corre; issued_until_millis es el último milisegundo emitido, para no repetir ids al reusarlo
+CREATE TABLE bankapp.node_id_leases (
+    node_id SMALLINT PRIMARY KEY,
+    owner VARCHAR(255),
+    lease_until TIMESTAMPTZ NOT NULL DEFAULT '-infinity',
+    issued_until_millis BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT check_node_id_leases_node_id
+        CHECK (node_id BETWEEN 0 AND 1023)
+);
+
+-- Datos iniciales
+INSERT INTO bankapp.roles (name, description) VALUES
+('customer', 'Cliente estándar de la aplicación bancaria.'),
+('admin', 'Administrador del sistema con todos los privilegios.')
+ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO bankapp.node_id_leases (node_id)
+SELECT generate_series(0, 1023)
+ON CONFLICT (node_id) DO NOTHING;
@@ -2,8 +2,11 @@ package com.bankapp.deposit_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
 
-@SpringBootApplication
+// Entidades, bitácora, generador de ids y filtros comunes viven en bankapp-core.
+@SpringBootApplication(scanBasePackages = {"com.bankapp.deposit_service", "com.bankapp.core"})
+@EntityScan("com.bankapp.core.model")
 public class DepositServiceApplication {
 
 	public static void main(String[] args) {
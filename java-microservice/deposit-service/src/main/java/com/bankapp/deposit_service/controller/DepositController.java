@@ -1,10 +1,22 @@
 package com.bankapp.deposit_service.controller;
 
-import com.bankapp.deposit_service.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.exception.InvalidInputException;
+import com.bankapp.core.exception.UnauthorizedAccessException;
+import com.bankapp.core.filter.AdaptiveConcurrencyFilter;
+import com.bankapp.core.model.Money;
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.utils.RequestHeaders;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
 import com.bankapp.deposit_service.dto.AmountRequestDTO;
-import com.bankapp.deposit_service.dto.ApiResponseDTO;
-import com.bankapp.deposit_service.exception.InvalidInputException;
-import com.bankapp.deposit_service.service.DefaultDepositService;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.bankapp.deposit_service.dto.BulkDepositItemDTO;
+import com.bankapp.deposit_service.dto.BulkDepositItemResultDTO;
+import com.bankapp.deposit_service.dto.BulkDepositRequestDTO;
+import com.bankapp.deposit_service.service.BulkDepositService;
+import com.bankapp.deposit_service.service.DepositService;
+import com.bankapp.deposit_service.service.DepositIdempotencyService;
+import com.bankapp.deposit_service.utils.OperationMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -15,26 +27,58 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
 
 @RestController
 @RequestMapping("/")
 @Tag(name = "Deposit Service", description = "Endpoints para operaciones de depósito en cuentas")
 @SecurityRequirement(name = "bearerAuth")
 public class DepositController {
-    private final DefaultDepositService depositService;
+    private final DepositService depositService;
+    private final DepositIdempotencyService idempotencyService;
+    private final BulkDepositService bulkDepositService;
+    private final OperationMetrics operationMetrics;
+    private final ObjectMapper objectMapper;
+    private final int bulkChunkSize;
+    private final int bulkMaxItems;
+    // Credencial de los sistemas autorizados a enviar depósitos masivos; vacía deshabilita el endpoint.
+    private final byte[] bulkServiceToken;
     private static final Logger controllerLog = LoggerFactory.getLogger(DepositController.class);
+    // Deja sitio en idempotency_key (255) para el sufijo ":<posición>" de cada elemento.
+    private static final int MAX_BULK_IDEMPOTENCY_KEY_LENGTH = 200;
 
     @Autowired
-    public DepositController(DefaultDepositService depositService) {
+    public DepositController(DepositService depositService,
+                             DepositIdempotencyService idempotencyService,
+                             BulkDepositService bulkDepositService,
+                             OperationMetrics operationMetrics,
+                             ObjectMapper objectMapper,
+                             @Value("${bankapp.deposit.bulk.chunk-size:1000}") int bulkChunkSize,
+                             @Value("${bankapp.deposit.bulk.max-items:100000}") int bulkMaxItems,
+                             @Value("${bankapp.deposit.bulk.service-token:}") String bulkServiceToken) {
         this.depositService = depositService;
+        this.idempotencyService = idempotencyService;
+        this.bulkDepositService = bulkDepositService;
+        this.operationMetrics = operationMetrics;
+        this.objectMapper = objectMapper;
+        this.bulkChunkSize = bulkChunkSize;
+        this.bulkMaxItems = bulkMaxItems;
+        this.bulkServiceToken = bulkServiceToken.getBytes(StandardCharsets.UTF_8);
     }
 
     @Operation(
@@ -53,50 +97,153 @@ public class DepositController {
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class))),
             @ApiResponse(responseCode = "404", description = "No encontrado (ej. no se encontró una cuenta para el X-User-ID proporcionado).",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "409", description = "Conflicto (ej. otra petición con el mismo Idempotency-Key sigue en proceso).",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "422", description = "El Idempotency-Key ya se usó con otro monto.",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class))),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor.",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class)))
     })
     @PostMapping
-    public ResponseEntity<ApiResponseDTO<AccountTransactionResponseDataDTO>> handleDeposit(
+    public ResponseEntity<ApiResponseDTO<?>> handleDeposit(
             @Parameter(in = ParameterIn.HEADER, name = "X-User-ID", required = true,
                     description = "ID del usuario (PostgreSQL ID) inyectado por el API Gateway.",
                     schema = @Schema(type = "string"), example = "1")
             @RequestHeader("X-User-ID") String userIdString,
+            @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key", required = false,
+                    description = "Clave única del intento de depósito. Los reintentos con la misma clave devuelven la respuesta original sin volver a acreditar.",
+                    schema = @Schema(type = "string"))
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKeyHeader,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Monto a depositar.", required = true,
                     content = @Content(schema = @Schema(implementation = AmountRequestDTO.class)))
             @Valid @RequestBody AmountRequestDTO amountRequest,
             HttpServletRequest request) {
-        controllerLog.info("Received deposit request for X-User-ID: {}, Amount: {}", userIdString, amountRequest.getAmount());
-        Long userId;
+        controllerLog.info("Received deposit request for X-User-ID: {}, Amount: {}", userIdString,
+                amountRequest.getAmountUnits() != null ? Money.format(amountRequest.getAmountUnits()) : null);
+        long started = System.nanoTime();
+        long parsed = 0L;
+        OperationMetrics.Outcome outcome = OperationMetrics.Outcome.SUCCESS;
         try {
-            if (userIdString == null || userIdString.trim().isEmpty()) {
-                controllerLog.warn("X-User-ID header is missing or empty.");
-                throw new InvalidInputException("X-User-ID header is missing or empty.");
+            Long userId = RequestHeaders.parseUserId(userIdString);
+            if (amountRequest.getAmountUnits() == null) {
+                controllerLog.warn("Amount is null in the request body.");
+                throw new InvalidInputException("Amount field is required and cannot be null.");
+            }
+            long amountUnits = amountRequest.getAmountUnits();
+            String clientIp = RequestHeaders.resolveClientIp(request);
+            controllerLog.debug("Client IP for deposit request: {}", clientIp);
+
+            String idempotencyKey = RequestHeaders.parseIdempotencyKey(idempotencyKeyHeader);
+            parsed = System.nanoTime();
+            OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> result = idempotencyKey == null
+                    ? depositService.performDeposit(userId, amountUnits, clientIp, null)
+                    : idempotencyService.execute(userId, idempotencyKey, amountUnits,
+                            () -> depositService.performDeposit(userId, amountUnits, clientIp, idempotencyKey));
+            if (result instanceof OperationResult.Rejected<?> rejected) {
+                outcome = OperationMetrics.Outcome.of(rejected.reason());
+                controllerLog.warn("Deposit rejected for user ID {} ({}): {}", userId, rejected.reason(), rejected.message());
+                return rejection(rejected);
             }
-            userId = Long.parseLong(userIdString.trim());
-        } catch (NumberFormatException e) {
-            controllerLog.warn("X-User-ID header contains an invalid user ID format: {}", userIdString, e);
-            throw new InvalidInputException("X-User-ID header contains an invalid user ID format.");
+            controllerLog.info("Deposit processed successfully for user ID: {}", userId);
+            return ResponseEntity.ok(((OperationResult.Success<ApiResponseDTO<AccountTransactionResponseDataDTO>>) result).value());
+        } catch (RuntimeException | Error e) {
+            outcome = OperationMetrics.Outcome.of(e);
+            throw e;
+        } finally {
+            operationMetrics.recordRequest(request, outcome, started, parsed);
         }
-        if (amountRequest.getAmount() == null) {
-            controllerLog.warn("Amount is null in the request body.");
-            throw new InvalidInputException("Amount field is required and cannot be null.");
+    }
+
+    @Operation(
+            summary = "Realizar depósitos masivos (p. ej. nómina)",
+            description = "Acredita una lista de depósitos identificando cada cuenta por 'userId' o 'accountNumber'. Solo para sistemas internos autorizados mediante el header 'X-Service-Token'. Los depósitos se aplican en bloques transaccionales y el resultado de cada elemento se devuelve en streaming como NDJSON (una línea JSON por elemento, en el orden de la solicitud). Un elemento inválido, sin cuenta o con cuenta no activa se reporta en su línea sin revertir el resto del bloque. Cada elemento acreditado queda registrado con el 'Idempotency-Key' del lote y su posición: reenviar la misma solicitud devuelve los resultados originales sin volver a acreditar."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultados por elemento en formato NDJSON.",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = BulkDepositItemResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Solicitud incorrecta (ej. lista vacía, con más elementos de los permitidos o sin Idempotency-Key).",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "403", description = "Prohibido (X-Service-Token faltante o inválido, o depósitos masivos deshabilitados).",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDTO.class)))
+    })
+    @PostMapping(value = "/bulk", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void handleBulkDeposit(
+            @Parameter(in = ParameterIn.HEADER, name = "X-Service-Token", required = true,
+                    description = "Credencial del sistema interno autorizado a enviar depósitos masivos.",
+                    schema = @Schema(type = "string"))
+            @RequestHeader(value = "X-Service-Token", required = false) String serviceToken,
+            @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key", required = true,
+                    description = "Clave única del lote (máximo " + MAX_BULK_IDEMPOTENCY_KEY_LENGTH + " caracteres). Reenviar el lote con la misma clave devuelve los resultados ya acreditados sin volver a acreditar.",
+                    schema = @Schema(type = "string"))
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKeyHeader,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Depósitos a aplicar.", required = true,
+                    content = @Content(schema = @Schema(implementation = BulkDepositRequestDTO.class)))
+            @Valid @RequestBody BulkDepositRequestDTO bulkRequest,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        checkServiceToken(serviceToken);
+        List<BulkDepositItemDTO> items = bulkRequest.getItems();
+        controllerLog.info("Received bulk deposit request with {} items.", items.size());
+        if (items.size() > bulkMaxItems) {
+            controllerLog.warn("Bulk deposit request exceeds the maximum of {} items.", bulkMaxItems);
+            throw new InvalidInputException(String.format("A bulk deposit request cannot contain more than %d items.", bulkMaxItems));
         }
-        BigDecimal amount = amountRequest.getAmount();
-        String clientIp = request.getHeader("X-Forwarded-For");
-        if (clientIp == null || clientIp.isEmpty() || "unknown".equalsIgnoreCase(clientIp)) {
-            clientIp = request.getRemoteAddr();
-        } else {
-            clientIp = clientIp.split(",")[0].trim();
+        String batchKey = RequestHeaders.parseIdempotencyKey(idempotencyKeyHeader);
+        if (batchKey == null || batchKey.length() > MAX_BULK_IDEMPOTENCY_KEY_LENGTH) {
+            controllerLog.warn("Bulk deposit request without a valid Idempotency-Key header.");
+            throw new InvalidInputException("Bulk deposits require an Idempotency-Key header of at most "
+                    + MAX_BULK_IDEMPOTENCY_KEY_LENGTH + " characters.");
         }
-        controllerLog.debug("Client IP for deposit request: {}", clientIp);
+        String clientIp = RequestHeaders.resolveClientIp(request);
+
+        // Se escribe en el hilo de la petición, no con un StreamingResponseBody: así los filtros de admisión
+        // (concurrencia, base de datos, usuario) conservan el permiso mientras se aplican los bloques y un lote
+        // nunca corre fuera de su presupuesto. El límite adaptativo no toma su duración como muestra.
+        request.setAttribute(AdaptiveConcurrencyFilter.UNSAMPLED_ATTRIBUTE, Boolean.TRUE);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream output = response.getOutputStream();
+        for (int offset = 0; offset < items.size(); offset += bulkChunkSize) {
+            List<BulkDepositItemDTO> chunk = items.subList(offset, Math.min(offset + bulkChunkSize, items.size()));
+            for (BulkDepositItemResultDTO result : depositChunk(chunk, offset, batchKey, clientIp)) {
+                output.write(objectMapper.writeValueAsBytes(result));
+                output.write('\n');
+            }
+            output.flush();
+        }
+        controllerLog.info("Bulk deposit request with {} items completed.", items.size());
+    }
+
+    // Una violación de unicidad indica que otra petición con la misma clave acreditó parte del bloque a la vez:
+    // se reintenta una vez para devolver esos elementos como ya aplicados.
+    private List<BulkDepositItemResultDTO> depositChunk(List<BulkDepositItemDTO> chunk, int offset, String batchKey, String clientIp) {
+        try {
+            try {
+                return bulkDepositService.depositChunk(chunk, offset, batchKey, clientIp);
+            } catch (DataIntegrityViolationException e) {
+                controllerLog.warn("Bulk deposit chunk at offset {} raced with a replay of Idempotency-Key {}; retrying once.", offset, batchKey);
+                return bulkDepositService.depositChunk(chunk, offset, batchKey, clientIp);
+            }
+        } catch (RuntimeException e) {
+            return bulkDepositService.failChunk(chunk, offset, clientIp, e);
+        }
+    }
+
+    private void checkServiceToken(String serviceToken) {
+        if (bulkServiceToken.length == 0) {
+            controllerLog.warn("Rejected bulk deposit request: bankapp.deposit.bulk.service-token is not configured.");
+            throw new UnauthorizedAccessException("Bulk deposits are disabled on this instance.");
+        }
+        if (serviceToken == null || !MessageDigest.isEqual(bulkServiceToken, serviceToken.getBytes(StandardCharsets.UTF_8))) {
+            controllerLog.warn("Rejected bulk deposit request with a missing or invalid X-Service-Token header.");
+            throw new UnauthorizedAccessException("A valid X-Service-Token header is required for bulk deposits.");
+        }
+    }
 
-        ApiResponseDTO<AccountTransactionResponseDataDTO> apiResponse = depositService.performDeposit(
-                userId,
-                amount,
-                clientIp
-        );
-        controllerLog.info("Deposit processed successfully for user ID: {}", userId);
-        return ResponseEntity.ok(apiResponse);
+    // Mismo código HTTP y cuerpo que producía GlobalExceptionHandler con la excepción equivalente.
+    private static ResponseEntity<ApiResponseDTO<?>> rejection(OperationResult.Rejected<?> rejected) {
+        return ResponseEntity.status(rejected.reason().getHttpStatus())
+                .body(ApiResponseDTO.fail(null, rejected.message()));
     }
 }
@@ -1,17 +1,24 @@
 package com.bankapp.deposit_service.dto;
 
-import jakarta.validation.constraints.DecimalMin;
+import com.bankapp.core.utils.MoneyUnitsDeserializer;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import java.math.BigDecimal;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class AmountRequestDTO {
+    // Campo "amount" del JSON leído en diezmilésimas (Money#units) y redondeado a 4 decimales; 100 = 0.01.
+    @JsonProperty("amount")
+    @JsonDeserialize(using = MoneyUnitsDeserializer.class)
+    @Schema(name = "amount", type = "number", example = "20000.00", description = "Monto con hasta 4 decimales.")
     @NotNull(message = "El monto no puede ser nulo.")
-    @DecimalMin(value = "0.01", message = "El monto del depósito debe ser positivo.")
-    private BigDecimal amount;
+    @Min(value = 100, message = "El monto del depósito debe ser positivo.")
+    private Long amountUnits;
 }
@@ -0,0 +1,21 @@
+package com.bankapp.deposit_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Un crédito dentro de un depósito masivo. La cuenta se identifica por {@code userId} o, si este
+ * no viene, por {@code accountNumber}. La validación se hace por elemento para reportar el error
+ * en el resultado correspondiente sin rechazar la solicitud completa.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDepositItemDTO {
+    private Long userId;
+    private String accountNumber;
+    private BigDecimal amount;
+}
@@ -14,17 +14,19 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @Builder
 @JsonInclude(JsonInclude.Include.NON_NULL)
-public class AccountTransactionResponseDataDTO {
+public class BulkDepositItemResultDTO {
+    // Posición del elemento en la solicitud original.
+    private int index;
+    private String status;
     private String message;
+    private Long userId;
     private String accountId;
     private String accountNumber;
     @JsonFormat(shape = JsonFormat.Shape.STRING)
-    private BigDecimal newBalance;
-    private String currency;
-    @JsonFormat(shape = JsonFormat.Shape.STRING)
     private BigDecimal amountDeposited;
     @JsonFormat(shape = JsonFormat.Shape.STRING)
-    private BigDecimal amountWithdrawn;
+    private BigDecimal newBalance;
+    private String currency;
     private String transactionId;
     private String transactionTimestamp;
 }
@@ -0,0 +1,16 @@
+package com.bankapp.deposit_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDepositRequestDTO {
+    @NotEmpty(message = "La lista de depósitos no puede estar vacía.")
+    private List<BulkDepositItemDTO> items;
+}
@@ -1,11 +0,0 @@
-package com.bankapp.deposit_service.exception;
-
-import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ResponseStatus;
-
-@ResponseStatus(HttpStatus.FORBIDDEN)
-public class AccountNotActiveException extends RuntimeException {
-    public AccountNotActiveException(String message) {
-        super(message);
-    }
-}
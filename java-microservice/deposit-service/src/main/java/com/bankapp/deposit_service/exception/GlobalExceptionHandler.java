@@ -1,6 +1,12 @@
 package com.bankapp.deposit_service.exception;
 
-import com.bankapp.deposit_service.dto.ApiResponseDTO;
+import com.bankapp.core.exception.AccountNotActiveException;
+import com.bankapp.core.exception.IdempotencyConflictException;
+import com.bankapp.core.exception.IdempotencyKeyReuseException;
+import com.bankapp.core.exception.InvalidInputException;
+import com.bankapp.core.exception.ResourceNotFoundException;
+import com.bankapp.core.exception.UnauthorizedAccessException;
+import com.bankapp.core.dto.ApiResponseDTO;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,7 +17,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
-@ControllerAdvice
+@ControllerAdvice(basePackages = "com.bankapp.deposit_service")
 public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
@@ -77,7 +83,21 @@ public class GlobalExceptionHandler {
                 .body(ApiResponseDTO.fail(null, message));
     }
 
-    @ExceptionHandler(Exception.class)
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleIdempotencyConflictException(IdempotencyConflictException ex) {
+        log.warn("Idempotency conflict: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponseDTO.fail(null, ex.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleIdempotencyKeyReuseException(IdempotencyKeyReuseException ex) {
+        log.warn("Idempotency-Key reused with a different request: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ApiResponseDTO.fail(null, ex.getMessage()));
+    }
+
+        @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponseDTO<Object>> handleGlobalException(Exception ex) {
         log.error("Ocurrió un error inesperado:", ex); // Loguear el stack trace completo en producción es importante
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
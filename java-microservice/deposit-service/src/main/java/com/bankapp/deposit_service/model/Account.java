@@ -1,70 +0,0 @@
-package com.bankapp.deposit_service.model;
-
-import jakarta.persistence.*;
-import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import org.hibernate.annotations.ColumnDefault;
-import org.hibernate.annotations.OnDelete;
-import org.hibernate.annotations.OnDeleteAction;
-
-import java.math.BigDecimal;
-import java.time.OffsetDateTime;
-
-@Entity
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-@Table(name = "accounts", schema = "bankapp")
-public class Account {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "id", nullable = false)
-    private Long id;
-
-    @NotNull
-    @ManyToOne(fetch = FetchType.LAZY, optional = false)
-    @OnDelete(action = OnDeleteAction.CASCADE)
-    @JoinColumn(name = "user_id", nullable = false)
-    private User user;
-
-    @Size(max = 100)
-    @NotNull
-    @Column(name = "account_number", nullable = false, length = 100)
-    private String accountNumber;
-
-    @Size(max = 50)
-    @NotNull
-    @Column(name = "account_type", nullable = false, length = 50)
-    private String accountType;
-
-    @NotNull
-    @ColumnDefault("0.00")
-    @Column(name = "balance", nullable = false, precision = 19, scale = 4)
-    private BigDecimal balance;
-
-    @Size(max = 3)
-    @NotNull
-    @ColumnDefault("'COP'")
-    @Column(name = "currency", nullable = false, length = 3)
-    private String currency;
-
-    @Size(max = 50)
-    @NotNull
-    @ColumnDefault("'pending_activation'")
-    @Column(name = "status", nullable = false, length = 50)
-    private String status;
-
-    @NotNull
-    @ColumnDefault("CURRENT_TIMESTAMP")
-    @Column(name = "created_at", nullable = false)
-    private OffsetDateTime createdAt;
-
-    @NotNull
-    @ColumnDefault("CURRENT_TIMESTAMP")
-    @Column(name = "updated_at", nullable = false)
-    private OffsetDateTime updatedAt;
-}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.bankapp.deposit_service.repository;
+
+/**
+ * Resultado de una mutación atómica de saldo ejecutada en una sola sentencia SQL.
+ * Si la consulta no devuelve fila, el usuario no tiene cuenta; si {@code applied} es falso,
+ * {@code status} y {@code balanceUnits} (saldo en diezmilésimas) reflejan el estado que impidió la operación.
+ */
+public interface AccountBalanceMutation {
+    Long getAccountId();
+    String getAccountNumber();
+    String getCurrency();
+    String getStatus();
+    Long getBalanceUnits();
+    Boolean getApplied();
+}
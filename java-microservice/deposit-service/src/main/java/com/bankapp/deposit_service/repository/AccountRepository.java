@@ -1,12 +1,54 @@
 package com.bankapp.deposit_service.repository;
 
-import com.bankapp.deposit_service.model.Account;
+import com.bankapp.core.model.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByUserId(Long userId);
+
+    // Bloquea la fila, valida el estado y acredita el monto en un único viaje a la base de datos.
+    // El monto llega y el saldo sale en diezmilésimas; PostgreSQL los convierte a NUMERIC(19,4).
+    // El NOTIFY se entrega al confirmar la transacción e invalida la caché de saldos de balance-service.
+    // Con idempotencyKey el resultado se registra en la misma sentencia; si la clave ya existe, la
+    // restricción única aborta la sentencia completa y el saldo no se modifica.
+    @Transactional
+    @Query(value = """
+            WITH target AS (
+                SELECT id, account_number, currency, status, balance
+                FROM bankapp.accounts
+                WHERE user_id = :userId
+                FOR UPDATE
+            ), updated AS (
+                UPDATE bankapp.accounts a
+                SET balance = a.balance + :amountUnits * 0.0001, updated_at = CURRENT_TIMESTAMP
+                FROM target t
+                WHERE a.id = t.id AND LOWER(t.status) = 'active'
+                RETURNING a.id, a.user_id, a.balance
+            ), recorded AS (
+                INSERT INTO bankapp.idempotency_keys (user_id, operation, idempotency_key, account_id, account_number,
+                                                      currency, amount, new_balance, transaction_id, transaction_timestamp)
+                SELECT u.user_id, 'DEPOSIT', CAST(:idempotencyKey AS varchar), u.id, t.account_number, t.currency,
+                       :amountUnits * 0.0001, u.balance, CAST(:transactionId AS varchar), CAST(:transactionTimestamp AS timestamptz)
+                FROM updated u JOIN target t ON t.id = u.id
+                WHERE CAST(:idempotencyKey AS varchar) IS NOT NULL
+            ), notified AS (
+                SELECT u.id FROM updated u, LATERAL pg_notify('bankapp_balance_changed', CAST(u.user_id AS text))
+            )
+            SELECT t.id AS "accountId", t.account_number AS "accountNumber", t.currency AS "currency",
+                   t.status AS "status", CAST(COALESCE(u.balance, t.balance) * 10000 AS bigint) AS "balanceUnits", (n.id IS NOT NULL) AS "applied"
+            FROM target t LEFT JOIN updated u ON u.id = t.id LEFT JOIN notified n ON n.id = t.id
+            """, nativeQuery = true)
+    Optional<AccountBalanceMutation> depositIfActive(@Param("userId") Long userId,
+                                                     @Param("amountUnits") long amountUnits,
+                                                     @Param("idempotencyKey") String idempotencyKey,
+                                                     @Param("transactionId") String transactionId,
+                                                     @Param("transactionTimestamp") Instant transactionTimestamp);
 }
@@ -0,0 +1,140 @@
+package com.bankapp.deposit_service.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Acreditación masiva en una sola sentencia: recibe el lote como arreglos (unnest), bloquea las cuentas
+ * en orden de id para no interbloquearse con otros lotes, suma por cuenta, actualiza saldos, escribe el
+ * libro mayor y notifica a balance-service. Los elementos sin cuenta o con cuenta no activa no se aplican
+ * y se devuelven con {@code applied = false}, sin afectar al resto del lote.
+ * <p>
+ * Cada elemento lleva su propia clave de idempotencia (la del lote más su posición). Igual que en los depósitos
+ * individuales, la clave de cada crédito aplicado se registra en {@code bankapp.idempotency_keys} dentro de la
+ * misma sentencia; los elementos cuya clave ya estaba registrada no se vuelven a acreditar y se devuelven con
+ * el resultado guardado ({@code replayedAmount} distinto de null).
+ */
+@Repository
+public class BulkDepositRepository {
+    private static final String CREDIT_ALL_SQL = """
+            WITH input AS (
+                SELECT i.idx, i.user_id, i.account_number, i.amount, i.transaction_id, i.idempotency_key
+                FROM unnest(CAST(? AS int[]), CAST(? AS bigint[]), CAST(? AS varchar[]), CAST(? AS numeric[]), CAST(? AS varchar[]),
+                            CAST(? AS varchar[]))
+                     AS i(idx, user_id, account_number, amount, transaction_id, idempotency_key)
+            ), stored AS (
+                SELECT i.idx, k.account_id, k.user_id, k.account_number, k.currency, k.amount, k.new_balance,
+                       k.transaction_id, k.transaction_timestamp
+                FROM input i JOIN bankapp.idempotency_keys k
+                     ON k.operation = 'BULK_DEPOSIT' AND k.idempotency_key = i.idempotency_key
+            ), pending AS (
+                SELECT i.* FROM input i WHERE NOT EXISTS (SELECT 1 FROM stored s WHERE s.idx = i.idx)
+            ), matched AS (
+                SELECT i.idx, i.amount, i.transaction_id, i.idempotency_key, a.id AS account_id
+                FROM pending i JOIN bankapp.accounts a ON a.user_id = i.user_id
+                UNION ALL
+                SELECT i.idx, i.amount, i.transaction_id, i.idempotency_key, a.id AS account_id
+                FROM pending i JOIN bankapp.accounts a ON i.user_id IS NULL AND a.account_number = i.account_number
+            ), locked AS (
+                SELECT a.id, a.user_id, a.account_number, a.currency, a.status, a.balance
+                FROM bankapp.accounts a
+                WHERE a.id IN (SELECT account_id FROM matched)
+                ORDER BY a.id
+                FOR UPDATE
+            ), credited AS (
+                SELECT m.idx, m.amount, m.transaction_id, m.idempotency_key, l.id AS account_id, l.user_id, l.account_number,
+                       l.currency, l.balance + SUM(m.amount) OVER (PARTITION BY l.id ORDER BY m.idx) AS balance_after
+                FROM matched m JOIN locked l ON l.id = m.account_id
+                WHERE LOWER(l.status) = 'active'
+            ), updated AS (
+                UPDATE bankapp.accounts a
+                SET balance = a.balance + t.total, updated_at = CURRENT_TIMESTAMP
+                FROM (SELECT account_id, SUM(amount) AS total FROM credited GROUP BY account_id) t
+                WHERE a.id = t.account_id
+                RETURNING a.id, a.user_id
+            ), ledger AS (
+                INSERT INTO bankapp.transactions (transaction_id, account_id, user_id, operation, amount, balance_after, currency, client_ip)
+                SELECT c.transaction_id, c.account_id, c.user_id, 'DEPOSIT', c.amount, c.balance_after, c.currency, CAST(? AS varchar)
+                FROM credited c
+            ), recorded AS (
+                INSERT INTO bankapp.idempotency_keys (user_id, operation, idempotency_key, account_id, account_number,
+                                                      currency, amount, new_balance, transaction_id, transaction_timestamp)
+                SELECT c.user_id, 'BULK_DEPOSIT', c.idempotency_key, c.account_id, c.account_number, c.currency,
+                       c.amount, c.balance_after, c.transaction_id, CAST(? AS timestamptz)
+                FROM credited c
+            ), notified AS (
+                SELECT u.id FROM updated u, LATERAL pg_notify('bankapp_balance_changed', CAST(u.user_id AS text))
+            )
+            SELECT i.idx, COALESCE(s.account_id, l.id) AS account_id, COALESCE(s.user_id, l.user_id) AS user_id,
+                   COALESCE(s.account_number, l.account_number) AS account_number, COALESCE(s.currency, l.currency) AS currency,
+                   l.status, COALESCE(s.new_balance, c.balance_after) AS balance_after,
+                   COALESCE(s.transaction_id, c.transaction_id) AS transaction_id,
+                   (c.idx IS NOT NULL AND n.id IS NOT NULL) AS applied,
+                   s.amount AS replayed_amount, s.transaction_timestamp AS replayed_timestamp
+            FROM input i
+            LEFT JOIN stored s ON s.idx = i.idx
+            LEFT JOIN matched m ON m.idx = i.idx
+            LEFT JOIN locked l ON l.id = m.account_id
+            LEFT JOIN credited c ON c.idx = i.idx
+            LEFT JOIN notified n ON n.id = l.id
+            ORDER BY i.idx
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BulkDepositRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Se ejecuta dentro de la transacción activa (JpaTransactionManager expone la misma conexión a JDBC).
+    // Si otra petición registra a la vez la clave de un elemento, la restricción única aborta la sentencia completa.
+    public List<BulkCreditResult> creditAll(Integer[] indexes, Long[] userIds, String[] accountNumbers, BigDecimal[] amounts,
+                                            String[] transactionIds, String[] idempotencyKeys, String clientIp,
+                                            Instant transactionTimestamp) {
+        return jdbcTemplate.query(CREDIT_ALL_SQL, statement -> {
+            Connection connection = statement.getConnection();
+            statement.setArray(1, connection.createArrayOf("int4", indexes));
+            statement.setArray(2, connection.createArrayOf("int8", userIds));
+            statement.setArray(3, connection.createArrayOf("varchar", accountNumbers));
+            statement.setArray(4, connection.createArrayOf("numeric", amounts));
+            statement.setArray(5, connection.createArrayOf("varchar", transactionIds));
+            statement.setArray(6, connection.createArrayOf("varchar", idempotencyKeys));
+            statement.setString(7, clientIp);
+            statement.setObject(8, transactionTimestamp.atOffset(ZoneOffset.UTC));
+        }, (row, rowNum) -> new BulkCreditResult(
+                row.getInt("idx"),
+                row.getObject("account_id", Long.class),
+                row.getObject("user_id", Long.class),
+                row.getString("account_number"),
+                row.getString("currency"),
+                row.getString("status"),
+                row.getBigDecimal("balance_after"),
+                row.getString("transaction_id"),
+                row.getBoolean("applied"),
+                row.getBigDecimal("replayed_amount"),
+                row.getObject("replayed_timestamp", OffsetDateTime.class)));
+    }
+
+    /**
+     * Resultado por elemento; {@code accountId} es null si no se encontró la cuenta. Si la clave del elemento ya
+     * estaba registrada, {@code replayedAmount} y {@code replayedTimestamp} son los del crédito original y
+     * {@code applied} es falso: no se acreditó de nuevo.
+     */
+    public record BulkCreditResult(int index, Long accountId, Long userId, String accountNumber, String currency,
+                                   String status, BigDecimal balanceAfter, String transactionId, boolean applied,
+                                   BigDecimal replayedAmount, OffsetDateTime replayedTimestamp) {
+
+        public boolean replayed() {
+            return replayedAmount != null;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.bankapp.deposit_service.repository;
+
+import com.bankapp.core.model.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+}
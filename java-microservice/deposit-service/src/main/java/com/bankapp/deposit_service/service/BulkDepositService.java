@@ -0,0 +1,213 @@
+package com.bankapp.deposit_service.service;
+
+import com.bankapp.core.utils.TransactionIdGenerator;
+import com.bankapp.core.utils.TransactionLogger;
+import com.bankapp.deposit_service.dto.BulkDepositItemDTO;
+import com.bankapp.deposit_service.dto.BulkDepositItemResultDTO;
+import com.bankapp.deposit_service.repository.BulkDepositRepository.BulkCreditResult;
+import com.bankapp.deposit_service.repository.BulkDepositRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Depósitos masivos (p. ej. nómina). Cada bloque se aplica en su propia transacción con una única
+ * sentencia basada en conjuntos; los elementos inválidos, sin cuenta o con cuenta no activa se
+ * reportan individualmente y no revierten el resto del bloque.
+ * <p>
+ * La solicitud lleva una clave de idempotencia de lote; cada elemento se registra con esa clave más su
+ * posición en la solicitud, en la misma sentencia que lo acredita. Reenviar el lote (completo o desde
+ * un bloque que no llegó a confirmarse) devuelve los resultados guardados de los elementos ya acreditados
+ * en lugar de acreditarlos otra vez; los rechazados no se guardan y se vuelven a evaluar.
+ */
+@Service
+public class BulkDepositService {
+    private static final Logger serviceLog = LoggerFactory.getLogger(BulkDepositService.class);
+    private static final int MAX_ACCOUNT_NUMBER_LENGTH = 20;
+
+    private final BulkDepositRepository bulkDepositRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TransactionLogger transactionLogger;
+
+    @Autowired
+    public BulkDepositService(BulkDepositRepository bulkDepositRepository, TransactionIdGenerator transactionIdGenerator,
+                              TransactionLogger transactionLogger) {
+        this.bulkDepositRepository = bulkDepositRepository;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.transactionLogger = transactionLogger;
+    }
+
+    /**
+     * Aplica un bloque de la solicitud. {@code offset} es la posición del primer elemento del bloque en
+     * la solicitud completa; los resultados se devuelven en el mismo orden que los elementos.
+     */
+    @Transactional
+    public List<BulkDepositItemResultDTO> depositChunk(List<BulkDepositItemDTO> items, int offset, String batchKey, String clientIp) {
+        BulkDepositItemResultDTO[] results = new BulkDepositItemResultDTO[items.size()];
+
+        int valid = 0;
+        Integer[] indexes = new Integer[items.size()];
+        Long[] userIds = new Long[items.size()];
+        String[] accountNumbers = new String[items.size()];
+        BigDecimal[] amounts = new BigDecimal[items.size()];
+        String[] transactionIds = new String[items.size()];
+        String[] idempotencyKeys = new String[items.size()];
+
+        for (int i = 0; i < items.size(); i++) {
+            BulkDepositItemDTO item = items.get(i);
+            String invalidReason = validate(item);
+            if (invalidReason != null) {
+                transactionLogger.logTransaction(item != null ? item.getUserId() : null, "BULK_DEPOSIT", null,
+                        item != null ? item.getAmount() : null, null, "INVALID_ATTEMPT", clientIp, invalidReason);
+                results[i] = failure(offset + i, item, "INVALID_INPUT", invalidReason);
+                continue;
+            }
+            indexes[valid] = i;
+            userIds[valid] = item.getUserId();
+            accountNumbers[valid] = item.getUserId() == null ? item.getAccountNumber().trim() : null;
+            amounts[valid] = item.getAmount();
+            transactionIds[valid] = transactionIdGenerator.nextTransactionId(DefaultDepositService.TRANSACTION_ID_PREFIX);
+            idempotencyKeys[valid] = itemKey(batchKey, offset + i);
+            valid++;
+        }
+
+        if (valid > 0) {
+            // Con la misma precisión que la columna, para que un reenvío devuelva exactamente el mismo instante.
+            Instant transactionTimestamp = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+            List<BulkCreditResult> credits = bulkDepositRepository.creditAll(
+                    Arrays.copyOf(indexes, valid), Arrays.copyOf(userIds, valid),
+                    Arrays.copyOf(accountNumbers, valid), Arrays.copyOf(amounts, valid),
+                    Arrays.copyOf(transactionIds, valid), Arrays.copyOf(idempotencyKeys, valid), clientIp, transactionTimestamp);
+            String timestamp = transactionTimestamp.toString();
+            for (BulkCreditResult credit : credits) {
+                BulkDepositItemDTO item = items.get(credit.index());
+                results[credit.index()] = credit.replayed()
+                        ? replayed(offset, item, credit, batchKey, clientIp)
+                        : toResult(offset, item, credit, timestamp, clientIp);
+            }
+        }
+
+        serviceLog.info("Bulk deposit chunk processed: offset={}, items={}, submitted={}", offset, items.size(), valid);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Resultado de error para todos los elementos de un bloque que no pudo aplicarse.
+     */
+    public List<BulkDepositItemResultDTO> failChunk(List<BulkDepositItemDTO> items, int offset, String clientIp, Exception cause) {
+        serviceLog.error("Unexpected error during bulk deposit chunk at offset {}: {}", offset, cause.getMessage(), cause);
+        List<BulkDepositItemResultDTO> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BulkDepositItemDTO item = items.get(i);
+            transactionLogger.logTransaction(item != null ? item.getUserId() : null, "BULK_DEPOSIT", null,
+                    item != null ? item.getAmount() : null, null, "SYSTEM_ERROR", clientIp,
+                    "Unexpected error during bulk deposit chunk at offset {}: {}", offset, cause.getMessage());
+            results.add(failure(offset + i, item, "SYSTEM_ERROR", "Unexpected error while applying this chunk; no deposit was applied."));
+        }
+        return results;
+    }
+
+    // Clave con la que se registra cada elemento: la del lote y su posición en la solicitud completa.
+    static String itemKey(String batchKey, int index) {
+        return batchKey + ":" + index;
+    }
+
+    private BulkDepositItemResultDTO replayed(int offset, BulkDepositItemDTO item, BulkCreditResult credit, String batchKey, String clientIp) {
+        int index = offset + credit.index();
+        boolean sameAccount = item.getUserId() != null
+                ? item.getUserId().equals(credit.userId())
+                : item.getAccountNumber().trim().equals(credit.accountNumber());
+        if (!sameAccount || credit.replayedAmount().compareTo(item.getAmount()) != 0) {
+            String msg = String.format("Idempotency-Key %s was already used for a different deposit at index %d.", batchKey, index);
+            transactionLogger.logTransaction(item.getUserId(), "BULK_DEPOSIT", null, item.getAmount(), null, "INVALID_ATTEMPT", clientIp, msg);
+            return failure(index, item, "INVALID_INPUT", msg);
+        }
+
+        transactionLogger.logTransaction(credit.userId(), "BULK_DEPOSIT", credit.accountId(), item.getAmount(), credit.currency(),
+                "DUPLICATE_REQUEST", clientIp, "Replaying bulk deposit item {} with Idempotency-Key {}: transaction {} was already applied.",
+                index, batchKey, credit.transactionId());
+        return BulkDepositItemResultDTO.builder()
+                .index(index)
+                .status("SUCCESS")
+                .userId(credit.userId())
+                .accountId(credit.accountId().toString())
+                .accountNumber(credit.accountNumber())
+                .amountDeposited(item.getAmount())
+                .newBalance(credit.balanceAfter())
+                .currency(credit.currency())
+                .transactionId(credit.transactionId())
+                .transactionTimestamp(credit.replayedTimestamp().toInstant().toString())
+                .build();
+    }
+
+    private BulkDepositItemResultDTO toResult(int offset, BulkDepositItemDTO item, BulkCreditResult credit, String transactionTimestamp, String clientIp) {
+        int index = offset + credit.index();
+        if (credit.accountId() == null) {
+            String msg = item.getUserId() != null
+                    ? String.format("No account found for user %s to perform deposit.", item.getUserId())
+                    : String.format("No account found with number %s to perform deposit.", item.getAccountNumber());
+            transactionLogger.logTransaction(item.getUserId(), "BULK_DEPOSIT", null, item.getAmount(), null, "ACCOUNT_NOT_FOUND", clientIp, msg);
+            return failure(index, item, "ACCOUNT_NOT_FOUND", msg);
+        }
+        if (!credit.applied()) {
+            String msg = String.format("Deposit failed: Account %s (User: %s) is not active. Current status: %s.",
+                    credit.accountId(), credit.userId(), credit.status());
+            transactionLogger.logTransaction(credit.userId(), "BULK_DEPOSIT", credit.accountId(), item.getAmount(), credit.currency(),
+                    "ACCOUNT_INACTIVE", clientIp, msg);
+            return failure(index, item, "ACCOUNT_INACTIVE", msg);
+        }
+
+        transactionLogger.logTransaction(credit.userId(), "BULK_DEPOSIT", credit.accountId(), item.getAmount(), credit.currency(), "SUCCESS", clientIp,
+                "Deposit of {} {} successful into account {} (User: {}, AccountNumber: {}). New balance: {}.",
+                item.getAmount(), credit.currency(), credit.accountId(), credit.userId(), credit.accountNumber(), credit.balanceAfter());
+        return BulkDepositItemResultDTO.builder()
+                .index(index)
+                .status("SUCCESS")
+                .userId(credit.userId())
+                .accountId(credit.accountId().toString())
+                .accountNumber(credit.accountNumber())
+                .amountDeposited(item.getAmount())
+                .newBalance(credit.balanceAfter())
+                .currency(credit.currency())
+                .transactionId(credit.transactionId())
+                .transactionTimestamp(transactionTimestamp)
+                .build();
+    }
+
+    private static String validate(BulkDepositItemDTO item) {
+        if (item == null) {
+            return "Deposit item is empty.";
+        }
+        if (item.getUserId() == null && (item.getAccountNumber() == null || item.getAccountNumber().isBlank())) {
+            return "Either userId or accountNumber is required.";
+        }
+        if (item.getUserId() == null && item.getAccountNumber().trim().length() > MAX_ACCOUNT_NUMBER_LENGTH) {
+            return String.format("Account number must not exceed %d characters.", MAX_ACCOUNT_NUMBER_LENGTH);
+        }
+        if (item.getAmount() == null || item.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return String.format("Invalid deposit amount: %s. Amount must be positive.",
+                    item.getAmount() != null ? item.getAmount().toPlainString() : "N/A");
+        }
+        return null;
+    }
+
+    private static BulkDepositItemResultDTO failure(int index, BulkDepositItemDTO item, String status, String message) {
+        return BulkDepositItemResultDTO.builder()
+                .index(index)
+                .status(status)
+                .message(message)
+                .userId(item != null ? item.getUserId() : null)
+                .accountNumber(item != null ? item.getAccountNumber() : null)
+                .amountDeposited(item != null ? item.getAmount() : null)
+                .build();
+    }
+}
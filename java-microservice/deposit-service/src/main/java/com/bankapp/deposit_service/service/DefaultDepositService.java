@@ -1,122 +1,294 @@
 package com.bankapp.deposit_service.service;
 
-import com.bankapp.deposit_service.dto.ApiResponseDTO;
-import com.bankapp.deposit_service.model.Account;
+import com.bankapp.core.model.LedgerEntry;
+import com.bankapp.core.model.Money;
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.result.Rejection;
+import com.bankapp.core.slots.BalanceSlots;
+import com.bankapp.core.utils.TransactionIdGenerator;
+import com.bankapp.core.utils.TransactionLogger;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.bankapp.deposit_service.repository.AccountBalanceMutation;
 import com.bankapp.deposit_service.repository.AccountRepository;
-import com.bankapp.deposit_service.dto.AccountTransactionResponseDataDTO;
-import com.bankapp.deposit_service.exception.AccountNotActiveException;
-import com.bankapp.deposit_service.exception.InvalidInputException;
-import com.bankapp.deposit_service.exception.ResourceNotFoundException;
-import com.bankapp.deposit_service.utils.TransactionLogger;
+import com.bankapp.deposit_service.repository.LedgerEntryRepository;
+import com.bankapp.deposit_service.repository.SlotBalanceMutation;
+import com.bankapp.deposit_service.utils.OperationMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.Objects;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
 @Service
 public class DefaultDepositService implements DepositService{
     private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TransactionLogger transactionLogger;
+    private final OperationMetrics operationMetrics;
+    private final BalanceSlots balanceSlots;
     private static final Logger serviceLog = LoggerFactory.getLogger(DefaultDepositService.class);
+    private static final int MAX_CLIENT_IP_LENGTH = 45;
+    static final String TRANSACTION_ID_PREFIX = "pg_txn_dep_";
 
     @Autowired
-    public DefaultDepositService(AccountRepository accountRepository) {
+    public DefaultDepositService(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository,
+                                 TransactionIdGenerator transactionIdGenerator, TransactionLogger transactionLogger,
+                                 OperationMetrics operationMetrics, BalanceSlots balanceSlots) {
         this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.transactionLogger = transactionLogger;
+        this.operationMetrics = operationMetrics;
+        this.balanceSlots = balanceSlots;
     }
 
+    // Los rechazos esperados (monto inválido, cuenta inexistente o inactiva) se devuelven como OperationResult
+    // sin lanzar excepciones; la transacción confirma sin cambios en ese caso.
     @Override
     @Transactional
-    public ApiResponseDTO<AccountTransactionResponseDataDTO> performDeposit(Long userId, BigDecimal amount, String clientIp) {
-        String userIdForLog = Objects.toString(userId, "N/A_IN_SERVICE");
-        String amountForLog = (amount != null) ? amount.toPlainString() : "N/A";
-        String accountIdForLog = "N/A_UNTIL_FETCHED";
-        Account account = null;
+    public OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> performDeposit(Long userId, long amountUnits, String clientIp, String idempotencyKey) {
+        Long accountId = null;
+        String currency = null;
 
-        String operationStatus;
         String logMessage;
 
-        serviceLog.info("Attempting deposit: userId={}, amount={}", userIdForLog, amountForLog);
+        // Marcas de fin de cada etapa para OperationMetrics (0 = etapa no completada).
+        long started = System.nanoTime();
+        long validated = 0L;
+        long updated = 0L;
+        long recorded = 0L;
+        long audited = 0L;
+        OperationMetrics.Outcome outcome = OperationMetrics.Outcome.SUCCESS;
+
+        serviceLog.info("Attempting deposit: userId={}, amount={}", userId, Money.format(amountUnits));
 
         try {
             if (userId == null) {
                 logMessage = "User ID not provided for deposit (X-User-ID header may be missing).";
-                operationStatus = "INVALID_ATTEMPT";
-                TransactionLogger.logTransaction(userIdForLog, "DEPOSIT", accountIdForLog, amountForLog, "N/A", operationStatus, logMessage, clientIp);
-                throw new InvalidInputException(logMessage);
+                transactionLogger.logTransaction(null, "DEPOSIT", null, amountUnits, null, "INVALID_ATTEMPT", clientIp, logMessage);
+                outcome = OperationMetrics.Outcome.INVALID_INPUT;
+                return rejected(userId, Rejection.INVALID_INPUT, logMessage);
             }
 
-            if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-                logMessage = String.format("Invalid deposit amount: %s. Amount must be positive.", amountForLog);
-                operationStatus = "INVALID_ATTEMPT";
-                TransactionLogger.logTransaction(userIdForLog, "DEPOSIT", accountIdForLog, amountForLog, "N/A", operationStatus, logMessage, clientIp);
-                throw new InvalidInputException(logMessage);
+            if (amountUnits <= 0) {
+                logMessage = String.format("Invalid deposit amount: %s. Amount must be positive.", Money.format(amountUnits));
+                transactionLogger.logTransaction(userId, "DEPOSIT", null, amountUnits, null, "INVALID_ATTEMPT", clientIp, logMessage);
+                outcome = OperationMetrics.Outcome.INVALID_INPUT;
+                return rejected(userId, Rejection.INVALID_INPUT, logMessage);
             }
 
-            final String initialAccountIdForLog = accountIdForLog;
-            account = accountRepository.findByUserId(userId)
-                    .orElseThrow(() -> {
-                        String msg = String.format("No account found for user %s to perform deposit.", userIdForLog);
-                        TransactionLogger.logTransaction(userIdForLog, "DEPOSIT", initialAccountIdForLog, amountForLog, "N/A", "ACCOUNT_NOT_FOUND", msg, clientIp);
-                        return new ResourceNotFoundException(msg);
-                    });
+            String transactionId = transactionIdGenerator.nextTransactionId(TRANSACTION_ID_PREFIX);
+            Instant transactionTimestamp = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+            validated = System.nanoTime();
+
+            Optional<AccountBalanceMutation> result = applyDeposit(userId, amountUnits, idempotencyKey, transactionId, transactionTimestamp);
+            updated = System.nanoTime();
+            if (result.isEmpty()) {
+                logMessage = String.format("No account found for user %s to perform deposit.", userId);
+                transactionLogger.logTransaction(userId, "DEPOSIT", null, amountUnits, null, "ACCOUNT_NOT_FOUND", clientIp, logMessage);
+                outcome = OperationMetrics.Outcome.ACCOUNT_NOT_FOUND;
+                return rejected(userId, Rejection.ACCOUNT_NOT_FOUND, logMessage);
+            }
 
-            accountIdForLog = account.getId().toString();
+            AccountBalanceMutation mutation = result.get();
+            accountId = mutation.getAccountId();
+            currency = mutation.getCurrency();
 
-            if (!"active".equalsIgnoreCase(account.getStatus())) {
+            if (!Boolean.TRUE.equals(mutation.getApplied())) {
                 logMessage = String.format("Deposit failed: Account %s (User: %s) is not active. Current status: %s.",
-                        accountIdForLog, userIdForLog, account.getStatus());
-                operationStatus = "ACCOUNT_INACTIVE";
-                TransactionLogger.logTransaction(userIdForLog, "DEPOSIT", accountIdForLog, amountForLog, account.getCurrency(), operationStatus, logMessage, clientIp);
-                throw new AccountNotActiveException(logMessage);
+                        accountId, userId, mutation.getStatus());
+                transactionLogger.logTransaction(userId, "DEPOSIT", accountId, amountUnits, currency, "ACCOUNT_INACTIVE", clientIp, logMessage);
+                outcome = OperationMetrics.Outcome.ACCOUNT_INACTIVE;
+                return rejected(userId, Rejection.ACCOUNT_INACTIVE, logMessage);
             }
 
-            BigDecimal currentBalance = account.getBalance();
-            BigDecimal newBalance = currentBalance.add(amount);
-            account.setBalance(newBalance);
-            accountRepository.save(account);
+            // El monto y el saldo llegan en diezmilésimas desde la solicitud y la sentencia; no hay BigDecimal en el camino.
+            Money newBalance = Money.ofUnits(mutation.getBalanceUnits(), currency);
+            Money applied = Money.ofUnits(amountUnits, currency);
+            ledgerEntryRepository.save(ledgerEntry(userId, accountId, applied, newBalance, clientIp, transactionId, transactionTimestamp));
+            recorded = System.nanoTime();
 
-            operationStatus = "SUCCESS";
-            logMessage = String.format("Deposit of %s %s successful into account %s (User: %s, AccountNumber: %s). New balance: %s.",
-                    amountForLog, account.getCurrency(), accountIdForLog, userIdForLog, account.getAccountNumber(), newBalance.toPlainString());
+            transactionLogger.logTransaction(userId, "DEPOSIT", accountId, amountUnits, currency, "SUCCESS", clientIp,
+                    "Deposit of {} {} successful into account {} (User: {}, AccountNumber: {}). New balance: {}.",
+                    applied, currency, accountId, userId, mutation.getAccountNumber(), newBalance);
+            audited = System.nanoTime();
 
-            TransactionLogger.logTransaction(userIdForLog, "DEPOSIT", accountIdForLog, amountForLog, account.getCurrency(), operationStatus, logMessage, clientIp);
+            return OperationResult.success(buildSuccessResponse(accountId, mutation.getAccountNumber(), newBalance, applied, transactionId, transactionTimestamp));
 
-            AccountTransactionResponseDataDTO dataDto = AccountTransactionResponseDataDTO.builder()
-                    .message("El depósito en la cuenta PostgreSQL fue completado.")
-                    .accountId(accountIdForLog)
-                    .accountNumber(account.getAccountNumber())
-                    .newBalance(newBalance)
-                    .currency(account.getCurrency())
-                    .amountDeposited(amount)
-                    .transactionId("pg_txn_dep_" + System.currentTimeMillis())
-                    .transactionTimestamp(Instant.now().toString())
-                    .build();
+        } catch (Exception e) {
+            outcome = OperationMetrics.Outcome.of(e);
+            if (idempotencyKey != null && e instanceof DataIntegrityViolationException) {
+                // La clave ya estaba registrada: IdempotencyService responde con el resultado almacenado.
+                transactionLogger.logTransaction(userId, "DEPOSIT", accountId, amountUnits, currency, "DUPLICATE_REQUEST", clientIp,
+                        "Deposit with Idempotency-Key {} was already applied for user {}.", idempotencyKey, userId);
+                serviceLog.warn("Duplicate deposit for user {} with Idempotency-Key {}", userId, idempotencyKey);
+            } else {
+                transactionLogger.logTransaction(userId, "DEPOSIT", accountId, amountUnits, currency, "SYSTEM_ERROR", clientIp,
+                        "Unexpected error during deposit for user {}: {}", userId, e.getMessage());
+                serviceLog.error("Unexpected error during deposit for user {}: {}", userId, e.getMessage(), e);
+            }
+            throw e;
+        } finally {
+            operationMetrics.recordService(outcome, started, validated, updated, recorded, audited);
+        }
+    }
 
-            return ApiResponseDTO.success(dataDto, "Depósito procesado exitosamente desde Java.");
+    // Las cuentas repartidas en slots (BalanceSlots) no bloquean la fila de la cuenta; si la cuenta dejó de
+    // estarlo desde la última lectura del índice se usa la sentencia normal.
+    private Optional<AccountBalanceMutation> applyDeposit(Long userId, long amountUnits, String idempotencyKey, String transactionId,
+                                                        Instant transactionTimestamp) {
+        BalanceSlots.SlotAccount slotAccount = balanceSlots.find(userId);
+        if (slotAccount != null) {
+            Optional<AccountBalanceMutation> result = balanceSlots.deposit(slotAccount, amountUnits, idempotencyKey, transactionId, transactionTimestamp)
+                    .filter(mutation -> mutation.sharded())
+                    .map(SlotBalanceMutation::new);
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return accountRepository.depositIfActive(userId, amountUnits, idempotencyKey, transactionId, transactionTimestamp);
+    }
 
-        } catch (Exception e) {
-            if (!(e instanceof InvalidInputException ||
-                    e instanceof ResourceNotFoundException ||
-                    e instanceof AccountNotActiveException)) {
-
-                logMessage = "Unexpected error during deposit for user " + userIdForLog + ": " + e.getMessage();
-                String currencyForErrorLog = "N/A";
-                if (account != null) {
-                    currencyForErrorLog = account.getCurrency();
+    private static <T> OperationResult<T> rejected(Long userId, Rejection reason, String message) {
+        serviceLog.warn("Deposit rejected for user {}: {}", userId, message);
+        return OperationResult.rejected(reason, message);
+    }
+
+    /**
+     * Aplica en una sola transacción y un solo UPDATE todos los depósitos agrupados para un usuario, por el mismo
+     * camino que un depósito individual (slots de BalanceSlots incluidos). Cada elemento de la lista resultante
+     * corresponde, en el mismo orden, al monto recibido y refleja el saldo acumulado tras aplicar ese depósito.
+     * Un rechazo aplica a todo el lote; las etapas se registran en OperationMetrics una vez por depósito.
+     */
+    @Transactional
+    public OperationResult<List<ApiResponseDTO<AccountTransactionResponseDataDTO>>> performDepositBatch(Long userId, long[] amountUnits, List<String> clientIps) {
+        long started = System.nanoTime();
+        long validated = 0L;
+        long updated = 0L;
+        long recorded = 0L;
+        long audited = 0L;
+        OperationMetrics.Outcome outcome = OperationMetrics.Outcome.SUCCESS;
+
+        try {
+            // Los montos ya vienen en diezmilésimas, así que los saldos intermedios coinciden con el total acreditado.
+            long totalUnits = 0L;
+            for (long units : amountUnits) {
+                totalUnits = Math.addExact(totalUnits, units);
+            }
+            // Todo el lote se aplica en la misma sentencia y confirma junto: comparte la marca de tiempo.
+            Instant transactionTimestamp = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+            validated = System.nanoTime();
+
+            serviceLog.info("Attempting grouped deposit: userId={}, deposits={}, total={}", userId, amountUnits.length, Money.format(totalUnits));
+
+            Optional<AccountBalanceMutation> result = applyDeposit(userId, totalUnits, null, null, transactionTimestamp);
+            updated = System.nanoTime();
+            if (result.isEmpty()) {
+                String msg = String.format("No account found for user %s to perform deposit.", userId);
+                for (int i = 0; i < amountUnits.length; i++) {
+                    transactionLogger.logTransaction(userId, "DEPOSIT", null, amountUnits[i], null, "ACCOUNT_NOT_FOUND", clientIps.get(i), msg);
                 }
+                serviceLog.warn("Grouped deposit rejected for user {}: {}", userId, msg);
+                outcome = OperationMetrics.Outcome.ACCOUNT_NOT_FOUND;
+                return OperationResult.rejected(Rejection.ACCOUNT_NOT_FOUND, msg);
+            }
 
-                TransactionLogger.logTransaction(userIdForLog, "DEPOSIT",
-                        accountIdForLog.equals("N/A_UNTIL_FETCHED") ? null : accountIdForLog,
-                        amountForLog, currencyForErrorLog, "SYSTEM_ERROR", logMessage, clientIp);
-                serviceLog.error("Unexpected error during deposit for user {}: {}", userIdForLog, e.getMessage(), e);
-            } else {
-                serviceLog.warn("Controlled exception during deposit for user {}: {}", userIdForLog, e.getMessage());
+            AccountBalanceMutation mutation = result.get();
+            Long accountId = mutation.getAccountId();
+            String currency = mutation.getCurrency();
+
+            if (!Boolean.TRUE.equals(mutation.getApplied())) {
+                String msg = String.format("Deposit failed: Account %s (User: %s) is not active. Current status: %s.",
+                        accountId, userId, mutation.getStatus());
+                for (int i = 0; i < amountUnits.length; i++) {
+                    transactionLogger.logTransaction(userId, "DEPOSIT", accountId, amountUnits[i], currency, "ACCOUNT_INACTIVE", clientIps.get(i), msg);
+                }
+                serviceLog.warn("Grouped deposit rejected for user {}: {}", userId, msg);
+                outcome = OperationMetrics.Outcome.ACCOUNT_INACTIVE;
+                return OperationResult.rejected(Rejection.ACCOUNT_INACTIVE, msg);
+            }
+
+            // En una cuenta repartida el saldo devuelto ya es el total de la cuenta más sus slots.
+            List<ApiResponseDTO<AccountTransactionResponseDataDTO>> responses = new ArrayList<>(amountUnits.length);
+            List<LedgerEntry> ledgerEntries = new ArrayList<>(amountUnits.length);
+            List<Money> deposits = new ArrayList<>(amountUnits.length);
+            List<Money> balances = new ArrayList<>(amountUnits.length);
+            Money runningBalance = Money.ofUnits(mutation.getBalanceUnits(), currency).minus(Money.ofUnits(totalUnits, currency));
+            for (int i = 0; i < amountUnits.length; i++) {
+                Money deposited = Money.ofUnits(amountUnits[i], currency);
+                runningBalance = runningBalance.plus(deposited);
+                deposits.add(deposited);
+                balances.add(runningBalance);
+                String transactionId = transactionIdGenerator.nextTransactionId(TRANSACTION_ID_PREFIX);
+                ledgerEntries.add(ledgerEntry(userId, accountId, deposited, runningBalance, clientIps.get(i), transactionId, transactionTimestamp));
+                responses.add(buildSuccessResponse(accountId, mutation.getAccountNumber(), runningBalance, deposited,
+                        transactionId, transactionTimestamp));
+            }
+            // Todo el lote sale en un único INSERT agrupado al confirmar.
+            ledgerEntryRepository.saveAll(ledgerEntries);
+            recorded = System.nanoTime();
+
+            for (int i = 0; i < amountUnits.length; i++) {
+                transactionLogger.logTransaction(userId, "DEPOSIT", accountId, amountUnits[i], currency, "SUCCESS", clientIps.get(i),
+                        "Deposit of {} {} successful into account {} (User: {}, AccountNumber: {}). New balance: {}.",
+                        deposits.get(i), currency, accountId, userId, mutation.getAccountNumber(), balances.get(i));
             }
+            audited = System.nanoTime();
+            return OperationResult.success(responses);
+
+        } catch (Exception e) {
+            outcome = OperationMetrics.Outcome.of(e);
+            for (int i = 0; i < amountUnits.length; i++) {
+                transactionLogger.logTransaction(userId, "DEPOSIT", null, amountUnits[i], null, "SYSTEM_ERROR", clientIps.get(i),
+                        "Unexpected error during grouped deposit for user {}: {}", userId, e.getMessage());
+            }
+            serviceLog.error("Unexpected error during grouped deposit for user {}: {}", userId, e.getMessage(), e);
             throw e;
+        } finally {
+            for (int i = 0; i < amountUnits.length; i++) {
+                operationMetrics.recordService(outcome, started, validated, updated, recorded, audited);
+            }
         }
     }
+
+    // El INSERT queda en la acción pendiente de Hibernate y sale en el lote JDBC del flush al confirmar.
+    static LedgerEntry ledgerEntry(Long userId, Long accountId, Money amount, Money balanceAfter, String clientIp,
+                                   String transactionId, Instant transactionTimestamp) {
+        return LedgerEntry.builder()
+                .transactionId(transactionId)
+                .accountId(accountId)
+                .userId(userId)
+                .operation("DEPOSIT")
+                .amount(amount)
+                .balanceAfter(balanceAfter)
+                .clientIp(clientIp != null && clientIp.length() > MAX_CLIENT_IP_LENGTH ? clientIp.substring(0, MAX_CLIENT_IP_LENGTH) : clientIp)
+                .createdAt(transactionTimestamp.atOffset(ZoneOffset.UTC))
+                .build();
+    }
+
+    static ApiResponseDTO<AccountTransactionResponseDataDTO> buildSuccessResponse(Long accountId, String accountNumber, Money newBalance,
+                                                                                   Money amount, String transactionId, Instant transactionTimestamp) {
+        AccountTransactionResponseDataDTO dataDto = AccountTransactionResponseDataDTO.builder()
+                .message("El depósito en la cuenta PostgreSQL fue completado.")
+                .accountId(accountId.toString())
+                .accountNumber(accountNumber)
+                .newBalance(newBalance)
+                .currency(newBalance.currency())
+                .amountDeposited(amount)
+                .transactionId(transactionId)
+                .transactionTimestamp(transactionTimestamp.toString())
+                .build();
+
+        return ApiResponseDTO.success(dataDto, "Depósito procesado exitosamente desde Java.");
+    }
 }
@@ -1,10 +1,10 @@
 package com.bankapp.deposit_service.service;
 
-import com.bankapp.deposit_service.dto.AccountTransactionResponseDataDTO;
-import com.bankapp.deposit_service.dto.ApiResponseDTO;
-
-import java.math.BigDecimal;
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
 
 public interface DepositService {
-    ApiResponseDTO<AccountTransactionResponseDataDTO> performDeposit(Long userId, BigDecimal amount, String clientIp);
+    // amountUnits: monto en diezmilésimas (Money#units), tal como lo entrega AmountRequestDTO.
+    OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> performDeposit(Long userId, long amountUnits, String clientIp, String idempotencyKey);
 }
@@ -0,0 +1,73 @@
+package com.bankapp.deposit_service.service;
+
+import com.bankapp.core.model.Money;
+import com.bankapp.core.utils.TimedJsonHttpMessageConverter;
+import com.bankapp.core.utils.TransactionIdGenerator;
+import com.bankapp.core.warmup.WarmUpTask;
+import com.bankapp.deposit_service.repository.AccountBalanceMutation;
+import com.bankapp.deposit_service.repository.AccountRepository;
+import com.bankapp.deposit_service.repository.BulkDepositRepository;
+import com.bankapp.deposit_service.repository.LedgerEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Camino del depósito sin auditoría ni métricas: búsqueda por user_id, UPDATE condicional, INSERT en el libro
+ * mayor, acreditación masiva de un elemento y serialización de la respuesta.
+ */
+@Component
+public class DepositWarmUpTask implements WarmUpTask {
+    // 1.0000 en diezmilésimas.
+    private static final long AMOUNT_UNITS = 10_000L;
+    private static final String CLIENT_IP = "127.0.0.1";
+
+    private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BulkDepositRepository bulkDepositRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TimedJsonHttpMessageConverter jsonConverter;
+
+    @Autowired
+    public DepositWarmUpTask(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository,
+                             BulkDepositRepository bulkDepositRepository, TransactionIdGenerator transactionIdGenerator,
+                             TimedJsonHttpMessageConverter jsonConverter) {
+        this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.bulkDepositRepository = bulkDepositRepository;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.jsonConverter = jsonConverter;
+    }
+
+    @Override
+    public void warmUp(SyntheticAccount account) {
+        accountRepository.findByUserId(account.userId());
+
+        String transactionId = transactionIdGenerator.nextTransactionId(DefaultDepositService.TRANSACTION_ID_PREFIX);
+        Instant transactionTimestamp = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        AccountBalanceMutation mutation = accountRepository
+                .depositIfActive(account.userId(), AMOUNT_UNITS, null, transactionId, transactionTimestamp)
+                .orElseThrow(() -> new IllegalStateException("Synthetic warm-up account not found."));
+
+        Money amount = Money.ofUnits(AMOUNT_UNITS, mutation.getCurrency());
+        Money newBalance = Money.ofUnits(mutation.getBalanceUnits(), mutation.getCurrency());
+        ledgerEntryRepository.saveAndFlush(DefaultDepositService.ledgerEntry(account.userId(), mutation.getAccountId(), amount,
+                newBalance, CLIENT_IP, transactionId, transactionTimestamp));
+
+        String bulkTransactionId = transactionIdGenerator.nextTransactionId(DefaultDepositService.TRANSACTION_ID_PREFIX);
+        bulkDepositRepository.creditAll(new Integer[]{0}, new Long[]{null}, new String[]{account.accountNumber()},
+                new BigDecimal[]{amount.toBigDecimal()}, new String[]{bulkTransactionId},
+                new String[]{BulkDepositService.itemKey(bulkTransactionId, 0)}, CLIENT_IP, transactionTimestamp);
+
+        try {
+            jsonConverter.writeToBytes(DefaultDepositService.buildSuccessResponse(mutation.getAccountId(),
+                    mutation.getAccountNumber(), newBalance, amount, transactionId, transactionTimestamp));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize warm-up deposit response.", e);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.bankapp.deposit_service.service;
+
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.result.Rejection;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Modo opcional de "group commit": los depósitos que llegan a la misma cuenta dentro de una ventana
+ * corta se aplican juntos con un único UPDATE y una única transacción. Cada llamador sigue recibiendo
+ * su propia respuesta con el saldo acumulado correspondiente a su depósito.
+ * <p>
+ * Si no hay un lote de esa cuenta confirmándose, el depósito sale de inmediato; los que llegan mientras
+ * un lote se confirma se acumulan y salen juntos cuando ese lote termina (o al vencer la ventana). Un
+ * depósito que agota la espera mientras sigue en cola se retira del lote y se responde como no aplicado;
+ * si su lote ya se está confirmando se espera el resultado, para no responder error a algo que se aplicó.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "bankapp.deposit.group-commit", name = "enabled", havingValue = "true")
+public class GroupCommitDepositService implements DepositService {
+    private static final Logger serviceLog = LoggerFactory.getLogger(GroupCommitDepositService.class);
+
+    private final DefaultDepositService depositService;
+    private final long maxDelayMicros;
+    private final int maxBatchSize;
+    private final long responseTimeoutMs;
+
+    private final ConcurrentHashMap<Long, PendingBatch> openBatches = new ConcurrentHashMap<>();
+    // Lotes cerrados y aún sin confirmar, por usuario.
+    private final ConcurrentHashMap<Long, Integer> committingBatches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushScheduler;
+    private final ExecutorService flushExecutor;
+
+    @Autowired
+    public GroupCommitDepositService(DefaultDepositService depositService,
+                                     @Value("${bankapp.deposit.group-commit.max-delay-micros:2000}") long maxDelayMicros,
+                                     @Value("${bankapp.deposit.group-commit.max-batch-size:64}") int maxBatchSize,
+                                     @Value("${bankapp.deposit.group-commit.flush-threads:4}") int flushThreads,
+                                     @Value("${bankapp.deposit.group-commit.response-timeout-ms:5000}") long responseTimeoutMs) {
+        this.depositService = depositService;
+        this.maxDelayMicros = maxDelayMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.responseTimeoutMs = responseTimeoutMs;
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("deposit-group-timer"));
+        this.flushExecutor = Executors.newFixedThreadPool(flushThreads, daemonThreads("deposit-group-commit"));
+    }
+
+    @Override
+    public OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> performDeposit(Long userId, long amountUnits, String clientIp, String idempotencyKey) {
+        if (userId == null || amountUnits <= 0) {
+            // La validación y su traza quedan a cargo del servicio por defecto.
+            return depositService.performDeposit(userId, amountUnits, clientIp, idempotencyKey);
+        }
+        if (idempotencyKey != null) {
+            // La clave se registra en la misma sentencia que el depósito, así que no se agrupa con otros.
+            return depositService.performDeposit(userId, amountUnits, clientIp, idempotencyKey);
+        }
+
+        PendingDeposit deposit = new PendingDeposit(amountUnits, clientIp);
+        PendingBatch batch = enqueue(userId, deposit);
+
+        try {
+            try {
+                return deposit.result.get(responseTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (batch.remove(deposit)) {
+                    String message = String.format("Grouped deposit for user %s was not committed within %d ms and was discarded.",
+                            userId, responseTimeoutMs);
+                    serviceLog.warn(message);
+                    return OperationResult.rejected(Rejection.NOT_APPLIED, message);
+                }
+                // El lote ya salió: su transacción termina (confirmada o revertida) y se responde con eso.
+                serviceLog.warn("Grouped deposit for user {} still committing after {} ms, waiting for the outcome.", userId, responseTimeoutMs);
+                return deposit.result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Grouped deposit failed for user " + userId, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for grouped deposit commit for user " + userId, e);
+        }
+    }
+
+    private PendingBatch enqueue(Long userId, PendingDeposit deposit) {
+        while (true) {
+            PendingBatch batch = openBatches.computeIfAbsent(userId, PendingBatch::new);
+            int size = batch.tryAdd(deposit);
+            if (size > 0) {
+                if (size >= maxBatchSize || !committingBatches.containsKey(userId)) {
+                    // Sin otro lote en curso no hay con qué agrupar: esperar la ventana solo sumaría latencia.
+                    flush(batch);
+                } else if (size == 1) {
+                    // Sale al terminar el lote en curso (ver flush) o, a más tardar, al vencer la ventana.
+                    flushScheduler.schedule(() -> flush(batch), maxDelayMicros, TimeUnit.MICROSECONDS);
+                }
+                return batch;
+            }
+            // El lote ya se cerró: se retira del índice y se abre uno nuevo.
+            openBatches.remove(userId, batch);
+        }
+    }
+
+    private void flush(PendingBatch batch) {
+        List<PendingDeposit> deposits = batch.close();
+        if (deposits == null) {
+            return;
+        }
+        openBatches.remove(batch.userId, batch);
+        if (deposits.isEmpty()) {
+            // Todos sus depósitos agotaron la espera y se retiraron.
+            return;
+        }
+        committingBatches.merge(batch.userId, 1, Integer::sum);
+        try {
+            flushExecutor.execute(() -> {
+                try {
+                    commit(batch.userId, deposits);
+                } finally {
+                    committingBatches.computeIfPresent(batch.userId, (userId, count) -> count > 1 ? count - 1 : null);
+                    // Lo acumulado mientras este lote se confirmaba sale ya, sin esperar la ventana.
+                    PendingBatch next = openBatches.get(batch.userId);
+                    if (next != null) {
+                        flush(next);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Apagado en curso: el lote no llegó a la base.
+            committingBatches.computeIfPresent(batch.userId, (userId, count) -> count > 1 ? count - 1 : null);
+            OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> notApplied = OperationResult.rejected(Rejection.NOT_APPLIED,
+                    "Grouped deposit was discarded because the service is shutting down.");
+            deposits.forEach(deposit -> deposit.result.complete(notApplied));
+        }
+    }
+
+    private void commit(Long userId, List<PendingDeposit> deposits) {
+        long[] amountUnits = new long[deposits.size()];
+        List<String> clientIps = new ArrayList<>(deposits.size());
+        for (int i = 0; i < amountUnits.length; i++) {
+            amountUnits[i] = deposits.get(i).amountUnits;
+            clientIps.add(deposits.get(i).clientIp);
+        }
+
+        try {
+            OperationResult<List<ApiResponseDTO<AccountTransactionResponseDataDTO>>> result = depositService.performDepositBatch(userId, amountUnits, clientIps);
+            if (result instanceof OperationResult.Rejected<List<ApiResponseDTO<AccountTransactionResponseDataDTO>>> rejected) {
+                for (PendingDeposit deposit : deposits) {
+                    deposit.result.complete(rejected.cast());
+                }
+                return;
+            }
+            List<ApiResponseDTO<AccountTransactionResponseDataDTO>> responses =
+                    ((OperationResult.Success<List<ApiResponseDTO<AccountTransactionResponseDataDTO>>>) result).value();
+            for (int i = 0; i < deposits.size(); i++) {
+                deposits.get(i).result.complete(OperationResult.success(responses.get(i)));
+            }
+        } catch (RuntimeException e) {
+            for (PendingDeposit deposit : deposits) {
+                deposit.result.completeExceptionally(e);
+            }
+        } catch (Error e) {
+            serviceLog.error("Fatal error while committing grouped deposits for user {}", userId, e);
+            for (PendingDeposit deposit : deposits) {
+                deposit.result.completeExceptionally(e);
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+        openBatches.values().forEach(this::flush);
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(responseTimeoutMs, TimeUnit.MILLISECONDS)) {
+                serviceLog.warn("Grouped deposit commits still running at shutdown.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class PendingDeposit {
+        private final long amountUnits;
+        private final String clientIp;
+        private final CompletableFuture<OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>>> result = new CompletableFuture<>();
+
+        private PendingDeposit(long amountUnits, String clientIp) {
+            this.amountUnits = amountUnits;
+            this.clientIp = clientIp;
+        }
+    }
+
+    private static final class PendingBatch {
+        private final Long userId;
+        private List<PendingDeposit> deposits = new ArrayList<>();
+
+        private PendingBatch(Long userId) {
+            this.userId = userId;
+        }
+
+        // Devuelve el tamaño del lote tras agregar el depósito, o 0 si el lote ya estaba cerrado.
+        synchronized int tryAdd(PendingDeposit deposit) {
+            if (deposits == null) {
+                return 0;
+            }
+            deposits.add(deposit);
+            return deposits.size();
+        }
+
+        // Retira un depósito que agotó la espera; false si el lote ya se cerró y el depósito va a confirmarse.
+        synchronized boolean remove(PendingDeposit deposit) {
+            return deposits != null && deposits.remove(deposit);
+        }
+
+        // Cierra el lote y devuelve sus depósitos; null si otro hilo ya lo cerró.
+        synchronized List<PendingDeposit> close() {
+            List<PendingDeposit> closed = deposits;
+            deposits = null;
+            return closed;
+        }
+    }
+}
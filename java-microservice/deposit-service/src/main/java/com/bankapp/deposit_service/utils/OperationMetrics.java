@@ -0,0 +1,22 @@
+package com.bankapp.deposit_service.utils;
+
+import com.bankapp.core.utils.TransactionMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Temporizadores por etapa del depósito ({@link TransactionMetrics}, {@code bankapp.operation.stage}).
+ */
+@Component
+public class OperationMetrics extends TransactionMetrics {
+    public static final String OPERATION = "DEPOSIT";
+
+    @Autowired
+    public OperationMetrics(MeterRegistry meterRegistry,
+                            @Value("${bankapp.metrics.percentiles:0.5,0.95,0.99}") double[] percentiles,
+                            @Value("${bankapp.metrics.percentile-histogram:false}") boolean percentileHistogram) {
+        super(meterRegistry, OPERATION, percentiles, percentileHistogram);
+    }
+}
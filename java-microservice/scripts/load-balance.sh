@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Arranca una variante del servicio de saldos, le aplica una carga fija con wrk y reporta throughput,
+# latencias, heap usado y memoria residente. Ejecutarlo con cada jar usando los mismos parámetros
+# permite comparar balance-service (Servlet + JPA) con balance-service-reactive (WebFlux + R2DBC).
+#
+# Uso:
+#   scripts/load-balance.sh <jar> [argumentos de la JVM o de la aplicación...]
+#
+# Ejemplos:
+#   scripts/load-balance.sh balance-service/target/balance-service-0.0.1-SNAPSHOT.jar \
+#       --bankapp.balance.cache.maximum-size=0
+#   scripts/load-balance.sh balance-service-reactive/target/balance-service-reactive-0.0.1-SNAPSHOT.jar
+#
+# Variables: CONNECTIONS (256), THREADS (4), DURATION (30s), WARMUP (10s), USER_ID (1), HEAP (256m),
+# PORT (8080). balance-service tiene caché de saldos y la variante reactiva no: para comparar la consulta
+# a la base de datos en ambas, desactivar la caché como en el primer ejemplo.
+set -euo pipefail
+
+if [ "$#" -lt 1 ]; then
+    sed -n '6,7p' "$0" >&2
+    exit 2
+fi
+command -v wrk > /dev/null || { echo "wrk is required." >&2; exit 2; }
+
+jar="$1"
+shift
+port="${PORT:-8080}"
+base_url="http://localhost:${port}"
+
+java "-Xmx${HEAP:-256m}" -jar "$jar" "--server.port=${port}" "$@" > "${LOG_FILE:-/dev/null}" 2>&1 &
+service_pid=$!
+trap 'kill "$service_pid" 2>/dev/null || true; wait "$service_pid" 2>/dev/null || true' EXIT
+
+until curl -sf -o /dev/null "${base_url}/actuator/health/readiness"; do
+    if ! kill -0 "$service_pid" 2>/dev/null; then
+        echo "Service exited before becoming ready." >&2
+        exit 1
+    fi
+    sleep 0.2
+done
+
+wrk_args=(-t "${THREADS:-4}" -c "${CONNECTIONS:-256}" -H "X-User-ID: ${USER_ID:-1}")
+wrk "${wrk_args[@]}" -d "${WARMUP:-10s}" "${base_url}/" > /dev/null
+wrk "${wrk_args[@]}" -d "${DURATION:-30s}" --latency "${base_url}/"
+
+heap_used=$(curl -s "${base_url}/actuator/metrics/jvm.memory.used?tag=area:heap" \
+    | sed -n 's/.*"value":\([0-9.E]*\).*/\1/p')
+rss_kb=$(ps -o rss= -p "$service_pid" | tr -d ' ')
+echo "heap-used-bytes: ${heap_used}"
+echo "rss: $((rss_kb / 1024)) MB"
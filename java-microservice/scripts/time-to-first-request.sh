@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+# Mide el tiempo desde que se lanza un servicio hasta su primera respuesta 2xx.
+#
+# Uso:
+#   scripts/time-to-first-request.sh <url> [argumentos de curl...] -- <comando que arranca el servicio...>
+#
+# Ejemplos:
+#   scripts/time-to-first-request.sh http://localhost:8080/ -H 'X-User-ID: 1' -- \
+#       java -jar balance-service/target/balance-service-0.0.1-SNAPSHOT.jar
+#   scripts/time-to-first-request.sh http://localhost:8080/ -H 'X-User-ID: 1' -- \
+#       java -XX:SharedArchiveFile=balance-service/target/fast-start/application.jsa -Dspring.aot.enabled=true \
+#       -jar balance-service/target/fast-start/balance-service-0.0.1-SNAPSHOT.jar
+#
+# El servicio se detiene al terminar la medición.
+set -euo pipefail
+
+if [ "$#" -lt 3 ]; then
+    sed -n '4,5p' "$0" >&2
+    exit 2
+fi
+
+url="$1"
+shift
+curl_args=()
+while [ "$#" -gt 0 ] && [ "$1" != "--" ]; do
+    curl_args+=("$1")
+    shift
+done
+if [ "$#" -eq 0 ]; then
+    echo "Missing '--' before the service command." >&2
+    exit 2
+fi
+shift
+
+timeout_seconds="${TIMEOUT_SECONDS:-120}"
+
+started=$(date +%s%N)
+"$@" > "${LOG_FILE:-/dev/null}" 2>&1 &
+service_pid=$!
+trap 'kill "$service_pid" 2>/dev/null || true; wait "$service_pid" 2>/dev/null || true' EXIT
+
+deadline=$((started + timeout_seconds * 1000000000))
+while true; do
+    if ! kill -0 "$service_pid" 2>/dev/null; then
+        echo "Service exited before answering." >&2
+        exit 1
+    fi
+    status=$(curl -s -o /dev/null -w '%{http_code}' "${curl_args[@]}" "$url" || true)
+    if [ "${status:0:1}" = "2" ]; then
+        break
+    fi
+    if [ "$(date +%s%N)" -gt "$deadline" ]; then
+        echo "No successful response within ${timeout_seconds}s (last status: ${status})." >&2
+        exit 1
+    fi
+    sleep 0.02
+done
+
+finished=$(date +%s%N)
+echo "time-to-first-successful-request: $(( (finished - started) / 1000000 )) ms (HTTP ${status})"
@@ -1,10 +1,15 @@
 package com.bankapp.withdrawal_service.controller;
 
-import com.bankapp.withdrawal_service.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.exception.InvalidInputException;
+import com.bankapp.core.model.Money;
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.utils.RequestHeaders;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
 import com.bankapp.withdrawal_service.dto.AmountRequestDTO;
-import com.bankapp.withdrawal_service.dto.ApiResponseDTO;
-import com.bankapp.withdrawal_service.exception.InvalidInputException;
-import com.bankapp.withdrawal_service.service.DefaultWithdrawalService;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.bankapp.withdrawal_service.service.WithdrawalIdempotencyService;
+import com.bankapp.withdrawal_service.service.WithdrawalService;
+import com.bankapp.withdrawal_service.utils.OperationMetrics;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -22,7 +27,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
 
 @RestController
 @RequestMapping("/")
@@ -30,12 +34,17 @@ import java.math.BigDecimal;
 @SecurityRequirement(name = "bearerAuth")
 public class WithdrawalController {
 
-    private final DefaultWithdrawalService withdrawalService;
+    private final WithdrawalService withdrawalService;
+    private final WithdrawalIdempotencyService idempotencyService;
+    private final OperationMetrics operationMetrics;
     private static final Logger controllerLog = LoggerFactory.getLogger(WithdrawalController.class);
 
     @Autowired
-    public WithdrawalController(DefaultWithdrawalService withdrawalService) {
+    public WithdrawalController(WithdrawalService withdrawalService, WithdrawalIdempotencyService idempotencyService,
+                                OperationMetrics operationMetrics) {
         this.withdrawalService = withdrawalService;
+        this.idempotencyService = idempotencyService;
+        this.operationMetrics = operationMetrics;
     }
 
     @Operation(
@@ -58,54 +67,70 @@ public class WithdrawalController {
             @ApiResponse(responseCode = "404", description = "No encontrado (ej. cuenta no encontrada para el X-User-ID)",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "409", description = "Conflicto (ej. otra petición con el mismo Idempotency-Key sigue en proceso)",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponseDTO.class))),
+            @ApiResponse(responseCode = "422", description = "El Idempotency-Key ya se usó con otro monto",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ApiResponseDTO.class))),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ApiResponseDTO.class)))
     })
     @PostMapping
-    public ResponseEntity<ApiResponseDTO<AccountTransactionResponseDataDTO>> handleWithdrawal(
+    public ResponseEntity<ApiResponseDTO<?>> handleWithdrawal(
             @Parameter(in = ParameterIn.HEADER, name = "X-User-ID", required = true, description = "ID del usuario (PostgreSQL ID) inyectado por el API Gateway.", schema = @Schema(type = "string"), example = "123")
             @RequestHeader("X-User-ID") String userIdString,
+            @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key", required = false, description = "Clave única del intento de retiro. Los reintentos con la misma clave devuelven la respuesta original sin volver a debitar.", schema = @Schema(type = "string"))
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKeyHeader,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Monto a retirar.", required = true,
                     content = @Content(schema = @Schema(implementation = AmountRequestDTO.class)))
             @Valid @RequestBody AmountRequestDTO amountRequest,
             HttpServletRequest request) {
 
-        controllerLog.info("Received withdrawal request for X-User-ID: {}, Amount: {}", userIdString, amountRequest.getAmount());
+        controllerLog.info("Received withdrawal request for X-User-ID: {}, Amount: {}", userIdString,
+                amountRequest.getAmountUnits() != null ? Money.format(amountRequest.getAmountUnits()) : null);
 
-        Long userId;
+        long started = System.nanoTime();
+        long parsed = 0L;
+        OperationMetrics.Outcome outcome = OperationMetrics.Outcome.SUCCESS;
         try {
-            if (userIdString == null || userIdString.trim().isEmpty()) {
-                controllerLog.warn("X-User-ID header is missing or empty.");
-                throw new InvalidInputException("X-User-ID header is missing or empty.");
+            Long userId = RequestHeaders.parseUserId(userIdString);
+
+            if (amountRequest.getAmountUnits() == null) {
+                controllerLog.warn("Amount is null in the request body.");
+                throw new InvalidInputException("Amount field is required and cannot be null.");
             }
-            userId = Long.parseLong(userIdString.trim());
-        } catch (NumberFormatException e) {
-            controllerLog.warn("X-User-ID header contains an invalid user ID format: {}", userIdString, e);
-            throw new InvalidInputException("X-User-ID header contains an invalid user ID format.");
-        }
+            long amountUnits = amountRequest.getAmountUnits();
 
-        if (amountRequest.getAmount() == null) {
-            controllerLog.warn("Amount is null in the request body.");
-            throw new InvalidInputException("Amount field is required and cannot be null.");
-        }
-        BigDecimal amount = amountRequest.getAmount();
+            String clientIp = RequestHeaders.resolveClientIp(request);
+            controllerLog.debug("Client IP for withdrawal request: {}", clientIp);
 
-        String clientIp = request.getHeader("X-Forwarded-For");
-        if (clientIp == null || clientIp.isEmpty() || "unknown".equalsIgnoreCase(clientIp)) {
-            clientIp = request.getRemoteAddr();
-        } else {
-            clientIp = clientIp.split(",")[0].trim();
-        }
-        controllerLog.debug("Client IP for withdrawal request: {}", clientIp);
+            String idempotencyKey = RequestHeaders.parseIdempotencyKey(idempotencyKeyHeader);
+            parsed = System.nanoTime();
+            OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> result = idempotencyKey == null
+                    ? withdrawalService.performWithdrawal(userId, amountUnits, clientIp, null)
+                    : idempotencyService.execute(userId, idempotencyKey, amountUnits,
+                            () -> withdrawalService.performWithdrawal(userId, amountUnits, clientIp, idempotencyKey));
 
-        ApiResponseDTO<AccountTransactionResponseDataDTO> apiResponse = withdrawalService.performWithdrawal(
-                userId,
-                amount,
-                clientIp
-        );
+            if (result instanceof OperationResult.Rejected<?> rejected) {
+                outcome = OperationMetrics.Outcome.of(rejected.reason());
+                controllerLog.warn("Withdrawal rejected for user ID {} ({}): {}", userId, rejected.reason(), rejected.message());
+                return rejection(rejected);
+            }
+            controllerLog.info("Withdrawal processed successfully for user ID: {}", userId);
+            return ResponseEntity.ok(((OperationResult.Success<ApiResponseDTO<AccountTransactionResponseDataDTO>>) result).value());
+        } catch (RuntimeException | Error e) {
+            outcome = OperationMetrics.Outcome.of(e);
+            throw e;
+        } finally {
+            operationMetrics.recordRequest(request, outcome, started, parsed);
+        }
+    }
 
-        controllerLog.info("Withdrawal processed successfully for user ID: {}", userId);
-        return ResponseEntity.ok(apiResponse);
+    // Mismo código HTTP y cuerpo que producía GlobalExceptionHandler con la excepción equivalente.
+    private static ResponseEntity<ApiResponseDTO<?>> rejection(OperationResult.Rejected<?> rejected) {
+        return ResponseEntity.status(rejected.reason().getHttpStatus())
+                .body(ApiResponseDTO.fail(null, rejected.message()));
     }
 }
@@ -0,0 +1,139 @@
+package com.bankapp.withdrawal_service.engine;
+
+import com.bankapp.withdrawal_service.repository.AccountEngineRepository;
+import com.bankapp.withdrawal_service.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Motor opcional de retiros en memoria. Las cuentas se reparten por userId entre {@code shards} hilos; cada uno
+ * es el único que lee y modifica los saldos de sus cuentas (ver {@link EngineShard}), escribe los retiros
+ * aceptados en su journal y los aplica en PostgreSQL en segundo plano (ver {@link ShardWriter}).
+ * <p>
+ * Al arrancar, antes de aceptar retiros, vuelve a aplicar lo que quedó en los journals de una ejecución
+ * anterior; la sentencia omite los transaction_id ya presentes en el libro mayor, así que reaplicar es seguro.
+ * Supone una sola instancia de withdrawal-service con el motor activo: otra instancia retirando de las mismas
+ * cuentas no sería vista hasta la siguiente recarga de la cuenta.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bankapp.withdrawal.engine", name = "enabled", havingValue = "true")
+public class AccountEngine {
+    private static final Logger engineLog = LoggerFactory.getLogger(AccountEngine.class);
+    private static final String SHARD_DIRECTORY_PREFIX = "shard-";
+
+    private final EngineShard[] shards;
+    private final AtomicLong pendingWrites = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final long shutdownTimeoutMs;
+
+    @Autowired
+    public AccountEngine(AccountEngineRepository accountEngineRepository,
+                         IdempotencyRecordRepository idempotencyRecordRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${bankapp.withdrawal.engine.shards:4}") int shardCount,
+                         @Value("${bankapp.withdrawal.engine.journal-directory:./withdrawal-journal}") String journalDirectory,
+                         @Value("${bankapp.withdrawal.engine.journal-segment-bytes:67108864}") long segmentBytes,
+                         @Value("${bankapp.withdrawal.engine.batch-size:256}") int batchSize,
+                         @Value("${bankapp.withdrawal.engine.idle-park-micros:100}") long idleParkMicros,
+                         @Value("${bankapp.withdrawal.engine.account-ttl-ms:5000}") long accountTtlMs,
+                         @Value("${bankapp.withdrawal.engine.account-idle-ms:60000}") long accountIdleMs,
+                         @Value("${bankapp.withdrawal.engine.write-batch-size:512}") int writeBatchSize,
+                         @Value("${bankapp.withdrawal.engine.write-retry-delay-ms:1000}") long writeRetryDelayMs,
+                         @Value("${bankapp.withdrawal.engine.write-max-attempts:10}") int writeMaxAttempts,
+                         @Value("${bankapp.withdrawal.engine.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) throws IOException {
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        Path root = Path.of(journalDirectory);
+        recover(root, accountEngineRepository, writeBatchSize);
+
+        this.shards = new EngineShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            Path directory = root.resolve(SHARD_DIRECTORY_PREFIX + i);
+            WithdrawalJournal journal = new WithdrawalJournal(directory, segmentBytes);
+            long firstSegment = journal.currentSegment();
+            shards[i] = new EngineShard(i, journal,
+                    shard -> new ShardWriter(shard, accountEngineRepository, idempotencyRecordRepository, directory,
+                            firstSegment, writeBatchSize, writeRetryDelayMs, writeMaxAttempts, pendingWrites, deadLettered),
+                    batchSize, idleParkMicros, accountTtlMs, accountIdleMs);
+        }
+        for (EngineShard shard : shards) {
+            shard.start();
+        }
+
+        Gauge.builder("bankapp.withdrawal.engine.pending-writes", pendingWrites, AtomicLong::get)
+                .description("Withdrawals accepted and journaled but not yet applied to PostgreSQL")
+                .register(meterRegistry);
+        Gauge.builder("bankapp.withdrawal.engine.dead-lettered", deadLettered, AtomicLong::get)
+                .description("Confirmed withdrawals that kept failing to apply and were moved to the dead-letter journal")
+                .register(meterRegistry);
+        engineLog.info("Withdrawal engine started with {} shards, journal at {}.", shardCount, root.toAbsolutePath());
+    }
+
+    /**
+     * Encola el retiro en el shard de la cuenta; el futuro se completa cuando el shard decide y, si lo
+     * aceptó, después de escribirlo en el journal. {@code cancel} lo descarta mientras el shard no haya
+     * descontado el monto y devuelve false después.
+     */
+    public CompletableFuture<EngineDecision> withdraw(long userId, BigDecimal amount, String clientIp, String idempotencyKey,
+                                                      String transactionId, Instant transactionTimestamp) {
+        EngineShard.Withdraw command = new EngineShard.Withdraw(userId, amount, clientIp, idempotencyKey, transactionId, transactionTimestamp);
+        shards[(int) Math.floorMod(userId, (long) shards.length)].post(command);
+        return command.result;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (EngineShard shard : shards) {
+            shard.stop(shutdownTimeoutMs);
+        }
+        if (pendingWrites.get() > 0) {
+            engineLog.info("Withdrawal engine stopping with {} withdrawals still being written behind.", pendingWrites.get());
+        }
+    }
+
+    // Aplica los journals de todos los shards de la ejecución anterior (aunque ahora haya otra cantidad) y los borra.
+    private static void recover(Path root, AccountEngineRepository repository, int writeBatchSize) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> directories;
+        try (Stream<Path> entries = Files.list(root)) {
+            directories = entries.filter(path -> Files.isDirectory(path)
+                    && path.getFileName().toString().startsWith(SHARD_DIRECTORY_PREFIX)).toList();
+        }
+        int recovered = 0;
+        int applied = 0;
+        for (Path directory : directories) {
+            for (long number : WithdrawalJournal.segments(directory)) {
+                Path segment = WithdrawalJournal.segmentPath(directory, number);
+                List<JournalRecord> records = new ArrayList<>();
+                WithdrawalJournal.read(segment, records::add);
+                for (int from = 0; from < records.size(); from += writeBatchSize) {
+                    applied += repository.applyWithdrawals(records.subList(from, Math.min(records.size(), from + writeBatchSize)));
+                }
+                recovered += records.size();
+                Files.delete(segment);
+            }
+        }
+        if (recovered > 0) {
+            engineLog.info("Recovered {} journaled withdrawals, {} of them were not yet applied.", recovered, applied);
+        }
+    }
+}
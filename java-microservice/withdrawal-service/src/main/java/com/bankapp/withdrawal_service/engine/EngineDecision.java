@@ -0,0 +1,24 @@
+package com.bankapp.withdrawal_service.engine;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Resultado de un retiro en el motor. Los campos de la cuenta son null si no se encontró; {@code balance} es
+ * el saldo tras el retiro cuando se aplicó y el saldo que impidió el retiro cuando no. {@code decidedAt} y
+ * {@code journaledAt} son marcas de {@link System#nanoTime()} (0 si la etapa no ocurrió).
+ */
+public record EngineDecision(Status status, Long accountId, String accountNumber, String currency, String accountStatus,
+                             BigDecimal balance, BigDecimal amount, String transactionId, Instant transactionTimestamp,
+                             long decidedAt, long journaledAt) {
+
+    public enum Status {
+        APPLIED,
+        // El Idempotency-Key ya estaba registrado en la base de datos, o lo usó un retiro aplicado que aún no llega a
+        // ella; se devuelve el resultado de ese retiro.
+        REPLAYED,
+        ACCOUNT_NOT_FOUND,
+        ACCOUNT_INACTIVE,
+        INSUFFICIENT_FUNDS
+    }
+}
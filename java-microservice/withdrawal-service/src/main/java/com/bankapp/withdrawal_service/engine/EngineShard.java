@@ -0,0 +1,490 @@
+package com.bankapp.withdrawal_service.engine;
+
+import com.bankapp.core.exception.IdempotencyKeyReuseException;
+import com.bankapp.core.model.IdempotencyRecord;
+import com.bankapp.withdrawal_service.repository.AccountEngineRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Un shard del motor: un único hilo dueño de los saldos de sus cuentas. Los productores dejan mensajes en una
+ * cola sin bloqueos ({@link ConcurrentLinkedQueue}) y el hilo los consume por lotes, así que validar estado y
+ * fondos y descontar el monto no toma ningún lock de fila ni de Java.
+ * <p>
+ * Al final de cada lote los retiros aceptados se escriben en el journal con un solo fsync, se entregan al
+ * write-behind y recién entonces se responde a sus clientes. El hilo nunca espera a PostgreSQL: las cargas de
+ * cuentas y las búsquedas de Idempotency-Key las hace {@link ShardWriter}, y mientras tanto los retiros de
+ * esa cuenta quedan en espera dentro del shard.
+ * <p>
+ * Un Idempotency-Key solo llega a la tabla {@code idempotency_keys} cuando el write-behind aplica el retiro, así
+ * que el shard recuerda el primer retiro de cada clave desde que lo recibe hasta que está en la base de datos.
+ * Los duplicados que llegan mientras tanto no consultan la base: esperan la decisión del primero y reciben la
+ * misma (REPLAYED si se aplicó), o un 422 si la clave se reutiliza con otro monto.
+ * <p>
+ * Una cuenta sin actividad durante {@code accountIdleMs} y sin retiros pendientes de aplicar se olvida; la próxima
+ * vez se carga de nuevo desde la base de datos.
+ */
+final class EngineShard implements Runnable {
+    private static final Logger shardLog = LoggerFactory.getLogger(EngineShard.class);
+
+    sealed interface Message permits Withdraw, AccountLoaded, KeyChecked, Persisted {
+    }
+
+    static final class Withdraw implements Message {
+        final long userId;
+        final BigDecimal amount;
+        final String clientIp;
+        final String idempotencyKey;
+        final String transactionId;
+        final Instant transactionTimestamp;
+        final Decision result = new Decision();
+        // Estado propio del hilo del shard.
+        private boolean keyChecked;
+        private boolean refreshed;
+        private BigDecimal newBalance;
+        private long decidedAt;
+        // Retiros con el mismo Idempotency-Key recibidos antes de que este se decidiera.
+        private List<Withdraw> duplicates;
+
+        Withdraw(long userId, BigDecimal amount, String clientIp, String idempotencyKey, String transactionId,
+                 Instant transactionTimestamp) {
+            this.userId = userId;
+            this.amount = amount;
+            this.clientIp = clientIp;
+            this.idempotencyKey = idempotencyKey;
+            this.transactionId = transactionId;
+            this.transactionTimestamp = transactionTimestamp;
+        }
+    }
+
+    /**
+     * Decisión de un retiro. {@link #cancel(boolean)} lo descarta sin tocar la cuenta mientras el shard no haya
+     * descontado el monto, y devuelve false desde ese momento: entonces la decisión llega al terminar el journal.
+     */
+    static final class Decision extends CompletableFuture<EngineDecision> {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        // El shard lo reclama justo antes de descontar; falla si el cliente ya lo canceló.
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return claimed.compareAndSet(false, true) && super.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    // account es null si el usuario no tiene cuenta; failure no es null si la carga falló.
+    record AccountLoaded(long userId, AccountEngineRepository.AccountSnapshot account, RuntimeException failure) implements Message {
+    }
+
+    record KeyChecked(Withdraw command, IdempotencyRecord stored, RuntimeException failure) implements Message {
+    }
+
+    // Retiros que el write-behind ya aplicó en PostgreSQL, con sus Idempotency-Key.
+    record Persisted(List<JournalRecord> records) implements Message {
+    }
+
+    private record PendingKey(long userId, String idempotencyKey) {
+    }
+
+    private static final class AccountState {
+        private final long userId;
+        private Long accountId;
+        private String accountNumber;
+        private String currency;
+        private String status;
+        private BigDecimal balance;
+        // Suma de retiros aceptados mientras la cuenta está en memoria, y de los que el write-behind ya aplicó.
+        private BigDecimal acceptedDebits = BigDecimal.ZERO;
+        private BigDecimal persistedDebits = BigDecimal.ZERO;
+        private long loadedAt;
+        private long usedAt;
+        private boolean loaded;
+        private boolean loading;
+        private final ArrayDeque<Withdraw> waiting = new ArrayDeque<>();
+
+        private AccountState(long userId) {
+            this.userId = userId;
+        }
+    }
+
+    private final int index;
+    private final WithdrawalJournal journal;
+    private final ShardWriter writer;
+    private final int batchSize;
+    private final long idleParkNanos;
+    private final long accountTtlNanos;
+    private final long accountIdleNanos;
+
+    private final ConcurrentLinkedQueue<Message> inbox = new ConcurrentLinkedQueue<>();
+    private final Map<Long, AccountState> accounts = new HashMap<>();
+    // Primer retiro de cada Idempotency-Key en curso, o aceptado y todavía sin aplicar en la base de datos.
+    private final Map<PendingKey, Withdraw> keys = new HashMap<>();
+    private final List<Withdraw> accepted = new ArrayList<>();
+    private final List<JournalRecord> acceptedRecords = new ArrayList<>();
+
+    private long sweptAt = System.nanoTime();
+
+    private volatile boolean running = true;
+    private volatile Thread thread;
+
+    EngineShard(int index, WithdrawalJournal journal, ShardWriter.Factory writerFactory, int batchSize,
+                long idleParkMicros, long accountTtlMs, long accountIdleMs) {
+        this.index = index;
+        this.journal = journal;
+        this.writer = writerFactory.create(this);
+        this.batchSize = batchSize;
+        this.idleParkNanos = TimeUnit.MICROSECONDS.toNanos(idleParkMicros);
+        this.accountTtlNanos = TimeUnit.MILLISECONDS.toNanos(accountTtlMs);
+        this.accountIdleNanos = TimeUnit.MILLISECONDS.toNanos(accountIdleMs);
+    }
+
+    void start() {
+        thread = Thread.ofPlatform().name("withdrawal-shard-" + index).daemon(true).start(this);
+        Thread.ofPlatform().name("withdrawal-write-behind-" + index).daemon(true).start(writer);
+    }
+
+    void post(Message message) {
+        inbox.offer(message);
+        LockSupport.unpark(thread);
+    }
+
+    // Procesa lo que ya está en la cola, cierra el journal y deja que el write-behind vacíe su cola.
+    void stop(long timeoutMs) throws InterruptedException {
+        running = false;
+        Thread shardThread = thread;
+        if (shardThread != null) {
+            LockSupport.unpark(shardThread);
+            shardThread.join(timeoutMs);
+        }
+        writer.stop();
+    }
+
+    @Override
+    public void run() {
+        while (running || !inbox.isEmpty()) {
+            int processed = 0;
+            Message message;
+            while (processed < batchSize && (message = inbox.poll()) != null) {
+                try {
+                    dispatch(message);
+                } catch (RuntimeException e) {
+                    shardLog.error("Withdrawal shard {} failed to process {}: {}", index, message.getClass().getSimpleName(), e.getMessage(), e);
+                    if (message instanceof Withdraw withdraw) {
+                        fail(withdraw, e);
+                    }
+                }
+                processed++;
+            }
+            flushAccepted();
+            evictIdleAccounts();
+            if (processed == 0) {
+                LockSupport.parkNanos(this, idleParkNanos);
+            }
+        }
+        // Los retiros que esperaban una carga no se aceptaron: fallan sin haber tocado el saldo.
+        IllegalStateException stopped = new IllegalStateException("Withdrawal engine is shutting down.");
+        for (AccountState state : accounts.values()) {
+            for (Withdraw command : state.waiting) {
+                fail(command, stopped);
+            }
+            state.waiting.clear();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            shardLog.warn("Could not close journal of withdrawal shard {}: {}", index, e.getMessage());
+        }
+    }
+
+    private void dispatch(Message message) {
+        switch (message) {
+            case Withdraw withdraw -> onWithdraw(withdraw);
+            case AccountLoaded loaded -> onAccountLoaded(loaded);
+            case KeyChecked checked -> onKeyChecked(checked);
+            case Persisted persisted -> onPersisted(persisted);
+        }
+    }
+
+    private void onWithdraw(Withdraw command) {
+        if (command.result.isCancelled()) {
+            abandon(command);
+            return;
+        }
+        AccountState state = accounts.computeIfAbsent(command.userId, AccountState::new);
+        state.usedAt = System.nanoTime();
+        if (state.loading) {
+            state.waiting.add(command);
+            return;
+        }
+        // El estado de la cuenta (y los depósitos de deposit-service) se relee de la base pasado el TTL.
+        if (!state.loaded || System.nanoTime() - state.loadedAt > accountTtlNanos) {
+            state.waiting.add(command);
+            requestLoad(state);
+            return;
+        }
+        if (state.accountId == null) {
+            complete(command, rejection(EngineDecision.Status.ACCOUNT_NOT_FOUND, state));
+            return;
+        }
+        if (command.idempotencyKey != null && !command.keyChecked) {
+            Withdraw first = keys.putIfAbsent(new PendingKey(command.userId, command.idempotencyKey), command);
+            if (first == null) {
+                writer.submit(new ShardWriter.LookupKey(command));
+            } else {
+                onDuplicate(first, command);
+            }
+            return;
+        }
+
+        if (!"active".equalsIgnoreCase(state.status)) {
+            complete(command, rejection(EngineDecision.Status.ACCOUNT_INACTIVE, state));
+            return;
+        }
+        if (state.balance.compareTo(command.amount) < 0) {
+            // Un depósito reciente puede no haberse visto todavía: se relee una vez antes de rechazar.
+            if (!command.refreshed) {
+                command.refreshed = true;
+                state.waiting.add(command);
+                requestLoad(state);
+                return;
+            }
+            complete(command, rejection(EngineDecision.Status.INSUFFICIENT_FUNDS, state));
+            return;
+        }
+
+        if (!command.result.claim()) {
+            // El cliente dejó de esperar y ya recibió NOT_APPLIED.
+            abandon(command);
+            return;
+        }
+        state.balance = state.balance.subtract(command.amount);
+        state.acceptedDebits = state.acceptedDebits.add(command.amount);
+        command.newBalance = state.balance;
+        command.decidedAt = System.nanoTime();
+        accepted.add(command);
+        acceptedRecords.add(new JournalRecord(command.userId, state.accountId, state.accountNumber, state.currency,
+                command.amount, state.balance, command.transactionId, command.transactionTimestamp.toEpochMilli(),
+                command.clientIp, command.idempotencyKey));
+    }
+
+    private void onAccountLoaded(AccountLoaded loaded) {
+        AccountState state = accounts.get(loaded.userId());
+        if (state == null) {
+            return;
+        }
+        state.loading = false;
+        List<Withdraw> waiting = new ArrayList<>(state.waiting);
+        state.waiting.clear();
+
+        if (loaded.failure() != null) {
+            for (Withdraw command : waiting) {
+                fail(command, loaded.failure());
+            }
+            return;
+        }
+
+        AccountEngineRepository.AccountSnapshot account = loaded.account();
+        state.loaded = true;
+        state.loadedAt = System.nanoTime();
+        if (account == null) {
+            state.accountId = null;
+        } else {
+            state.accountId = account.accountId();
+            state.accountNumber = account.accountNumber();
+            state.currency = account.currency();
+            state.status = account.status();
+            // Saldo en la base menos los retiros aceptados que el write-behind todavía no aplicó. El write-behind
+            // avisa de cada lote aplicado (Persisted) antes de responder a cualquier carga posterior.
+            state.balance = account.balance().subtract(state.acceptedDebits.subtract(state.persistedDebits));
+        }
+        for (Withdraw command : waiting) {
+            onWithdraw(command);
+        }
+    }
+
+    private void onKeyChecked(KeyChecked checked) {
+        Withdraw command = checked.command();
+        if (checked.failure() != null) {
+            fail(command, checked.failure());
+            return;
+        }
+        IdempotencyRecord stored = checked.stored();
+        if (stored != null) {
+            if (stored.getAmount().compareTo(command.amount) != 0) {
+                fail(command, keyReused(command));
+                return;
+            }
+            complete(command, new EngineDecision(EngineDecision.Status.REPLAYED, stored.getAccountId(), stored.getAccountNumber(),
+                    stored.getCurrency(), null, stored.getNewBalance(), stored.getAmount(), stored.getTransactionId(),
+                    stored.getTransactionTimestamp().toInstant(), System.nanoTime(), 0L));
+            return;
+        }
+        command.keyChecked = true;
+        onWithdraw(command);
+    }
+
+    private void onDuplicate(Withdraw first, Withdraw duplicate) {
+        if (first.amount.compareTo(duplicate.amount) != 0) {
+            duplicate.result.completeExceptionally(keyReused(duplicate));
+            return;
+        }
+        // El primero ya se aplicó y solo falta que llegue a la base de datos. Si se canceló, sus duplicados se
+        // vuelven a procesar al descartarlo.
+        EngineDecision decided = first.result.isCancelled() ? null : first.result.getNow(null);
+        if (decided != null) {
+            duplicate.result.complete(replayed(decided));
+            return;
+        }
+        if (first.duplicates == null) {
+            first.duplicates = new ArrayList<>();
+        }
+        first.duplicates.add(duplicate);
+    }
+
+    private void onPersisted(Persisted persisted) {
+        for (JournalRecord record : persisted.records()) {
+            AccountState state = accounts.get(record.userId());
+            if (state != null) {
+                state.persistedDebits = state.persistedDebits.add(record.amount());
+            }
+            if (record.idempotencyKey() == null) {
+                continue;
+            }
+            // A partir de aquí un duplicado encuentra la clave en la base de datos.
+            PendingKey key = new PendingKey(record.userId(), record.idempotencyKey());
+            Withdraw first = keys.get(key);
+            if (first != null && first.transactionId.equals(record.transactionId())) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    // Un retiro cancelado se descarta sin decisión; sus duplicados se procesan como si el primero no hubiera llegado.
+    private void abandon(Withdraw command) {
+        releaseKey(command);
+        List<Withdraw> duplicates = command.duplicates;
+        command.duplicates = null;
+        if (duplicates != null) {
+            for (Withdraw duplicate : duplicates) {
+                onWithdraw(duplicate);
+            }
+        }
+    }
+
+    // Olvida las cuentas inactivas cuyos retiros ya están todos en la base de datos; se recorre a lo sumo una vez
+    // por accountIdleMs.
+    private void evictIdleAccounts() {
+        long now = System.nanoTime();
+        if (now - sweptAt < accountIdleNanos) {
+            return;
+        }
+        sweptAt = now;
+        accounts.values().removeIf(state -> !state.loading && state.waiting.isEmpty()
+                && now - state.usedAt >= accountIdleNanos
+                && state.acceptedDebits.compareTo(state.persistedDebits) == 0);
+    }
+
+    private void requestLoad(AccountState state) {
+        state.loading = true;
+        writer.submit(new ShardWriter.LoadAccount(state.userId));
+    }
+
+    private void flushAccepted() {
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            long segment = journal.append(acceptedRecords);
+            long journaledAt = System.nanoTime();
+            writer.submit(new ShardWriter.Persist(List.copyOf(acceptedRecords), segment));
+            for (Withdraw command : accepted) {
+                AccountState state = accounts.get(command.userId);
+                complete(command, new EngineDecision(EngineDecision.Status.APPLIED, state.accountId, state.accountNumber,
+                        state.currency, state.status, command.newBalance, command.amount, command.transactionId,
+                        command.transactionTimestamp, command.decidedAt, journaledAt));
+            }
+        } catch (IOException e) {
+            // Sin journal no hay durabilidad: se deshacen los descuentos en memoria y los retiros fallan.
+            shardLog.error("Withdrawal shard {} could not write its journal: {}", index, e.getMessage(), e);
+            IllegalStateException failure = new IllegalStateException("Could not write the withdrawal journal.", e);
+            for (Withdraw command : accepted) {
+                AccountState state = accounts.get(command.userId);
+                state.balance = state.balance.add(command.amount);
+                state.acceptedDebits = state.acceptedDebits.subtract(command.amount);
+                fail(command, failure);
+            }
+        } finally {
+            accepted.clear();
+            acceptedRecords.clear();
+        }
+    }
+
+    private static EngineDecision rejection(EngineDecision.Status status, AccountState state) {
+        return new EngineDecision(status, state.accountId, state.accountNumber, state.currency, state.status,
+                state.balance, null, null, null, System.nanoTime(), 0L);
+    }
+
+    // Un retiro aplicado conserva su clave hasta que el write-behind lo persiste; cualquier otra decisión la libera.
+    private void complete(Withdraw command, EngineDecision decision) {
+        command.result.complete(decision);
+        if (decision.status() != EngineDecision.Status.APPLIED) {
+            releaseKey(command);
+        }
+        if (command.duplicates != null) {
+            EngineDecision answer = replayed(decision);
+            for (Withdraw duplicate : command.duplicates) {
+                duplicate.result.complete(answer);
+            }
+            command.duplicates = null;
+        }
+    }
+
+    private void fail(Withdraw command, Throwable failure) {
+        command.result.completeExceptionally(failure);
+        releaseKey(command);
+        if (command.duplicates != null) {
+            for (Withdraw duplicate : command.duplicates) {
+                duplicate.result.completeExceptionally(failure);
+            }
+            command.duplicates = null;
+        }
+    }
+
+    private void releaseKey(Withdraw command) {
+        if (command.idempotencyKey != null) {
+            keys.remove(new PendingKey(command.userId, command.idempotencyKey), command);
+        }
+    }
+
+    // Para un duplicado, un retiro aplicado se informa como repetido; los rechazos se repiten tal cual.
+    private static EngineDecision replayed(EngineDecision decision) {
+        if (decision.status() != EngineDecision.Status.APPLIED) {
+            return decision;
+        }
+        return new EngineDecision(EngineDecision.Status.REPLAYED, decision.accountId(), decision.accountNumber(),
+                decision.currency(), decision.accountStatus(), decision.balance(), decision.amount(), decision.transactionId(),
+                decision.transactionTimestamp(), System.nanoTime(), 0L);
+    }
+
+    private static IdempotencyKeyReuseException keyReused(Withdraw command) {
+        return new IdempotencyKeyReuseException(String.format(
+                "Idempotency-Key %s was already used for a withdrawal of a different amount.", command.idempotencyKey));
+    }
+}
@@ -0,0 +1,54 @@
+package com.bankapp.withdrawal_service.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Retiro aceptado por un shard: lo que se escribe en el journal antes de responder al cliente y lo que
+ * {@code AccountEngineRepository.applyWithdrawals} aplica después en PostgreSQL. {@code newBalance} es el
+ * saldo informado al cliente (y guardado con su Idempotency-Key).
+ */
+public record JournalRecord(long userId, long accountId, String accountNumber, String currency, BigDecimal amount,
+                            BigDecimal newBalance, String transactionId, long timestampMillis, String clientIp,
+                            String idempotencyKey) {
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(userId);
+        out.writeLong(accountId);
+        out.writeUTF(accountNumber);
+        out.writeUTF(currency);
+        out.writeUTF(amount.toPlainString());
+        out.writeUTF(newBalance.toPlainString());
+        out.writeUTF(transactionId);
+        out.writeLong(timestampMillis);
+        writeNullable(out, clientIp);
+        writeNullable(out, idempotencyKey);
+    }
+
+    static JournalRecord readFrom(DataInputStream in) throws IOException {
+        return new JournalRecord(
+                in.readLong(),
+                in.readLong(),
+                in.readUTF(),
+                in.readUTF(),
+                new BigDecimal(in.readUTF()),
+                new BigDecimal(in.readUTF()),
+                in.readUTF(),
+                in.readLong(),
+                readNullable(in),
+                readNullable(in));
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
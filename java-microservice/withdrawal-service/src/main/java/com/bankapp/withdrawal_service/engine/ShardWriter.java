@@ -0,0 +1,242 @@
+package com.bankapp.withdrawal_service.engine;
+
+import com.bankapp.core.model.IdempotencyRecord;
+import com.bankapp.withdrawal_service.repository.AccountEngineRepository;
+import com.bankapp.withdrawal_service.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hilo de write-behind de un shard: el único que habla con PostgreSQL por él. Atiende en orden de llegada
+ * los lotes ya escritos en el journal (agrupando los consecutivos en una sola sentencia), las cargas de
+ * cuentas y las búsquedas de Idempotency-Key, y responde al shard por su cola de entrada.
+ * <p>
+ * Tras aplicar cada lote se lo informa al shard ({@link EngineShard.Persisted}). Como el shard recibe los mensajes
+ * de este hilo en orden, cuando procesa una carga ya contó todos los retiros que esa carga ve en la base de datos,
+ * y de ahí deduce los aceptados que aún no llegan a ella.
+ * <p>
+ * Un lote que falla se reintenta mientras la base de datos no responda. Si sigue fallando tras
+ * {@code maxAttempts} intentos se aplica retiro por retiro, y los que fallan aun con la base disponible se apartan
+ * en un journal de descarte ({@value #DEAD_LETTER_DIRECTORY}, mismo formato) para aplicarlos a mano: ya se
+ * confirmaron al cliente, así que el shard los sigue contando como pendientes.
+ */
+final class ShardWriter implements Runnable {
+    private static final Logger writerLog = LoggerFactory.getLogger(ShardWriter.class);
+    private static final long POLL_TIMEOUT_MS = 100L;
+    private static final String OPERATION = "WITHDRAWAL";
+    static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+
+    sealed interface Task permits Persist, LoadAccount, LookupKey {
+    }
+
+    record Persist(List<JournalRecord> records, long segment) implements Task {
+    }
+
+    record LoadAccount(long userId) implements Task {
+    }
+
+    record LookupKey(EngineShard.Withdraw command) implements Task {
+    }
+
+    // El writer y su shard se referencian mutuamente; el shard crea el suyo al construirse.
+    interface Factory {
+        ShardWriter create(EngineShard shard);
+    }
+
+    private final EngineShard shard;
+    private final AccountEngineRepository accountEngineRepository;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Path journalDirectory;
+    private final int writeBatchSize;
+    private final long retryDelayMs;
+    private final int maxAttempts;
+    private final AtomicLong pendingRecords;
+    private final AtomicLong deadLettered;
+
+    private final BlockingQueue<Task> tasks = new LinkedBlockingQueue<>();
+    private final List<JournalRecord> batch = new ArrayList<>();
+    // Segmentos con número menor ya se borraron.
+    private long firstLiveSegment;
+    // Se abre con el primer retiro descartado.
+    private WithdrawalJournal deadLetters;
+    private volatile boolean running = true;
+
+    ShardWriter(EngineShard shard, AccountEngineRepository accountEngineRepository,
+                IdempotencyRecordRepository idempotencyRecordRepository, Path journalDirectory, long firstSegment,
+                int writeBatchSize, long retryDelayMs, int maxAttempts, AtomicLong pendingRecords, AtomicLong deadLettered) {
+        this.shard = shard;
+        this.accountEngineRepository = accountEngineRepository;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.journalDirectory = journalDirectory;
+        this.firstLiveSegment = firstSegment;
+        this.writeBatchSize = writeBatchSize;
+        this.retryDelayMs = retryDelayMs;
+        this.maxAttempts = maxAttempts;
+        this.pendingRecords = pendingRecords;
+        this.deadLettered = deadLettered;
+    }
+
+    void submit(Task task) {
+        if (task instanceof Persist persist) {
+            pendingRecords.addAndGet(persist.records().size());
+        }
+        tasks.add(task);
+    }
+
+    // Termina de aplicar lo pendiente y sale; si la base de datos no responde, lo pendiente queda en el journal.
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        while (running || !tasks.isEmpty()) {
+            Task task;
+            try {
+                task = tasks.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (task == null) {
+                continue;
+            }
+            switch (task) {
+                case Persist persist -> persist(persist);
+                case LoadAccount load -> load(load.userId());
+                case LookupKey lookup -> lookup(lookup.command());
+            }
+        }
+        if (deadLetters != null) {
+            try {
+                deadLetters.close();
+            } catch (IOException e) {
+                writerLog.warn("Could not close dead-letter journal in {}: {}", journalDirectory, e.getMessage());
+            }
+        }
+    }
+
+    private void persist(Persist first) {
+        batch.clear();
+        batch.addAll(first.records());
+        long segment = first.segment();
+        while (batch.size() < writeBatchSize && tasks.peek() instanceof Persist next) {
+            tasks.poll();
+            batch.addAll(next.records());
+            segment = next.segment();
+        }
+
+        List<JournalRecord> failed = List.of();
+        int attempts = 0;
+        while (true) {
+            try {
+                if (attempts < maxAttempts) {
+                    accountEngineRepository.applyWithdrawals(batch);
+                } else {
+                    failed = applyOneByOne();
+                }
+                break;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    writerLog.warn("Write-behind of {} withdrawals failed during shutdown; they remain in the journal for recovery: {}",
+                            batch.size(), e.getMessage());
+                    return;
+                }
+                attempts++;
+                writerLog.error("Write-behind of {} withdrawals failed (attempt {}), retrying in {} ms: {}",
+                        batch.size(), attempts, retryDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(retryDelayMs);
+                } catch (InterruptedException ignored) {
+                    // Se reintenta igual: los retiros ya se confirmaron al cliente.
+                }
+            }
+        }
+
+        pendingRecords.addAndGet(-batch.size());
+        if (failed.isEmpty()) {
+            shard.post(new EngineShard.Persisted(List.copyOf(batch)));
+        } else {
+            deadLetter(failed);
+            List<JournalRecord> persisted = new ArrayList<>(batch);
+            persisted.removeAll(failed);
+            shard.post(new EngineShard.Persisted(persisted));
+        }
+        // Los lotes llegan en orden: todo lo de segmentos anteriores a este ya está en la base de datos.
+        deleteSegmentsBefore(segment);
+    }
+
+    // Devuelve los retiros que fallaron con la base de datos disponible. Si deja de responder se relanza el error y
+    // se reintenta el lote completo: los transaction_id ya aplicados se omiten.
+    private List<JournalRecord> applyOneByOne() {
+        List<JournalRecord> failed = new ArrayList<>();
+        for (JournalRecord record : batch) {
+            try {
+                accountEngineRepository.applyWithdrawals(List.of(record));
+            } catch (RuntimeException e) {
+                if (!accountEngineRepository.isReachable()) {
+                    throw e;
+                }
+                writerLog.error("Withdrawal {} of user {} keeps failing to apply: {}", record.transactionId(), record.userId(), e.getMessage());
+                failed.add(record);
+            }
+        }
+        return failed;
+    }
+
+    private void deadLetter(List<JournalRecord> records) {
+        deadLettered.addAndGet(records.size());
+        Path directory = journalDirectory.resolve(DEAD_LETTER_DIRECTORY);
+        try {
+            if (deadLetters == null) {
+                deadLetters = new WithdrawalJournal(directory, Long.MAX_VALUE);
+            }
+            deadLetters.append(records);
+            writerLog.error("Moved {} confirmed withdrawals that could not be applied to {}; they must be applied manually.",
+                    records.size(), directory.toAbsolutePath());
+        } catch (IOException e) {
+            // El segmento original se borra igual al avanzar: el log es lo único que queda de ellos.
+            writerLog.error("Could not write {} withdrawals that could not be applied to {}: {}. Withdrawals: {}",
+                    records.size(), directory.toAbsolutePath(), e.getMessage(), records);
+        }
+    }
+
+    private void load(long userId) {
+        try {
+            AccountEngineRepository.AccountSnapshot account = accountEngineRepository.findAccountByUserId(userId).orElse(null);
+            shard.post(new EngineShard.AccountLoaded(userId, account, null));
+        } catch (RuntimeException e) {
+            shard.post(new EngineShard.AccountLoaded(userId, null, e));
+        }
+    }
+
+    private void lookup(EngineShard.Withdraw command) {
+        try {
+            IdempotencyRecord stored = idempotencyRecordRepository
+                    .findByUserIdAndOperationAndIdempotencyKey(command.userId, OPERATION, command.idempotencyKey)
+                    .orElse(null);
+            shard.post(new EngineShard.KeyChecked(command, stored, null));
+        } catch (RuntimeException e) {
+            shard.post(new EngineShard.KeyChecked(command, null, e));
+        }
+    }
+
+    private void deleteSegmentsBefore(long segment) {
+        for (; firstLiveSegment < segment; firstLiveSegment++) {
+            try {
+                Files.deleteIfExists(WithdrawalJournal.segmentPath(journalDirectory, firstLiveSegment));
+            } catch (IOException e) {
+                writerLog.warn("Could not delete applied journal segment {}: {}", firstLiveSegment, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.bankapp.withdrawal_service.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal de escritura anticipada de un shard, en segmentos numerados {@code segment-<n>.log}. Cada registro
+ * va enmarcado como longitud + CRC32 + contenido; un lote completo se escribe y se fuerza al disco con una
+ * sola llamada a {@link FileChannel#force(boolean)} antes de responder a sus clientes.
+ * <p>
+ * El hilo del shard escribe; el hilo de write-behind borra los segmentos ya aplicados en la base de datos.
+ * Al leer, un marco incompleto o con CRC inválido al final de un segmento es una escritura interrumpida por
+ * una caída: ningún cliente recibió respuesta por ese registro, así que se descarta.
+ */
+final class WithdrawalJournal implements Closeable {
+    private static final Logger journalLog = LoggerFactory.getLogger(WithdrawalJournal.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+    private final DataOutputStream payloadOut = new DataOutputStream(payload);
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream(16 * 1024);
+    private final DataOutputStream batchOut = new DataOutputStream(batch);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private long segment;
+    private long segmentSize;
+    private boolean broken;
+
+    WithdrawalJournal(Path directory, long segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        List<Long> existing = segments(directory);
+        open(existing.isEmpty() ? 0L : existing.get(existing.size() - 1) + 1);
+    }
+
+    /**
+     * Escribe el lote y lo fuerza al disco; devuelve el número del segmento que lo contiene.
+     */
+    long append(List<JournalRecord> records) throws IOException {
+        if (broken || segmentSize >= segmentBytes) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                journalLog.warn("Could not close journal segment {}: {}", segment, e.getMessage());
+            }
+            open(segment + 1);
+            broken = false;
+        }
+        batch.reset();
+        for (JournalRecord record : records) {
+            payload.reset();
+            record.writeTo(payloadOut);
+            byte[] bytes = payload.toByteArray();
+            crc.reset();
+            crc.update(bytes);
+            batchOut.writeInt(bytes.length);
+            batchOut.writeInt((int) crc.getValue());
+            batchOut.write(bytes);
+        }
+        try {
+            ByteBuffer data = ByteBuffer.wrap(batch.toByteArray());
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Los retiros del lote se informan como fallidos: se recorta lo que alcanzó a escribirse para que la
+            // recuperación no los aplique, y el siguiente lote empieza un segmento nuevo.
+            broken = true;
+            try {
+                channel.truncate(segmentSize);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+        segmentSize += batch.size();
+        return segment;
+    }
+
+    long currentSegment() {
+        return segment;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void open(long number) throws IOException {
+        channel = FileChannel.open(segmentPath(directory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment = number;
+        segmentSize = channel.size();
+    }
+
+    static Path segmentPath(Path directory, long number) {
+        return directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    // Números de segmento presentes en el directorio, en orden ascendente.
+    static List<Long> segments(Path directory) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return numbers;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .forEach(numbers::add);
+        }
+        return numbers;
+    }
+
+    static void read(Path segment, Consumer<JournalRecord> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(segment))) {
+            CRC32 checksum = new CRC32();
+            while (true) {
+                int length;
+                int expectedCrc;
+                byte[] bytes;
+                try {
+                    length = in.readInt();
+                    expectedCrc = in.readInt();
+                    if (length < 0 || length > 1 << 20) {
+                        journalLog.warn("Discarding corrupt tail of journal segment {}.", segment);
+                        return;
+                    }
+                    bytes = in.readNBytes(length);
+                } catch (EOFException e) {
+                    return;
+                }
+                checksum.reset();
+                checksum.update(bytes);
+                if (bytes.length < length || (int) checksum.getValue() != expectedCrc) {
+                    journalLog.warn("Discarding torn record at the end of journal segment {}.", segment);
+                    return;
+                }
+                consumer.accept(JournalRecord.readFrom(new DataInputStream(new ByteArrayInputStream(bytes))));
+            }
+        }
+    }
+}
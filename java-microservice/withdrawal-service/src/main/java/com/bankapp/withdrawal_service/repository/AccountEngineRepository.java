@@ -0,0 +1,156 @@
+package com.bankapp.withdrawal_service.repository;
+
+import com.bankapp.withdrawal_service.engine.JournalRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acceso a PostgreSQL del motor de retiros en memoria: carga del estado de una cuenta y aplicación
+ * diferida (write-behind) de los retiros ya aceptados y escritos en el journal.
+ */
+@Repository
+public class AccountEngineRepository {
+    // Con cuentas repartidas (bankapp.balance-slots) el saldo es accounts.balance más la suma de sus slots: los
+    // depósitos de deposit-service acreditan un slot y el motor descuenta de accounts.balance, que puede quedar
+    // negativo mientras el total no lo sea (la compactación de slots lo reabsorbe).
+    private static final String FIND_ACCOUNT_SQL = """
+            SELECT a.id, a.account_number, a.currency, a.status,
+                   a.balance + COALESCE((SELECT SUM(s.balance) FROM bankapp.account_balance_slots s WHERE s.account_id = a.id), 0) AS balance
+            FROM bankapp.accounts a
+            WHERE a.user_id = ?
+            """;
+
+    // Un lote de retiros en una sola sentencia. Los transaction_id ya presentes en el libro mayor se omiten,
+    // así que reaplicar el journal tras una caída no descuenta dos veces. El saldo se descuenta como delta
+    // (los depósitos de deposit-service siguen escribiendo la misma fila) y balance_after del libro mayor se
+    // calcula sobre el saldo real de la fila bloqueada (más sus slots, si los tiene). Un retiro cuya cuenta ya no
+    // existe no se aplica.
+    private static final String APPLY_WITHDRAWALS_SQL = """
+            WITH input AS (
+                SELECT i.idx, i.transaction_id, i.account_id, i.user_id, i.account_number, i.currency, i.amount,
+                       i.new_balance, to_timestamp(i.created_at_ms / 1000.0) AS created_at, i.client_ip, i.idempotency_key
+                FROM unnest(CAST(? AS int[]), CAST(? AS varchar[]), CAST(? AS bigint[]), CAST(? AS bigint[]),
+                            CAST(? AS varchar[]), CAST(? AS varchar[]), CAST(? AS numeric[]), CAST(? AS numeric[]),
+                            CAST(? AS bigint[]), CAST(? AS varchar[]), CAST(? AS varchar[]))
+                     AS i(idx, transaction_id, account_id, user_id, account_number, currency, amount, new_balance,
+                          created_at_ms, client_ip, idempotency_key)
+            ), pending AS (
+                SELECT i.* FROM input i
+                WHERE NOT EXISTS (SELECT 1 FROM bankapp.transactions t WHERE t.transaction_id = i.transaction_id)
+            ), locked AS (
+                SELECT a.id,
+                       a.balance + COALESCE((SELECT SUM(s.balance) FROM bankapp.account_balance_slots s WHERE s.account_id = a.id), 0) AS balance
+                FROM bankapp.accounts a
+                WHERE a.id IN (SELECT account_id FROM pending)
+                ORDER BY a.id
+                FOR UPDATE
+            ), debited AS (
+                SELECT p.*, l.balance - SUM(p.amount) OVER (PARTITION BY l.id ORDER BY p.idx) AS balance_after
+                FROM pending p JOIN locked l ON l.id = p.account_id
+            ), updated AS (
+                UPDATE bankapp.accounts a
+                SET balance = a.balance - t.total, updated_at = CURRENT_TIMESTAMP
+                FROM (SELECT account_id, SUM(amount) AS total FROM debited GROUP BY account_id) t
+                WHERE a.id = t.account_id
+                RETURNING a.id, a.user_id
+            ), ledger AS (
+                INSERT INTO bankapp.transactions (transaction_id, account_id, user_id, operation, amount, balance_after,
+                                                  currency, client_ip, created_at)
+                SELECT d.transaction_id, d.account_id, d.user_id, 'WITHDRAWAL', d.amount, d.balance_after,
+                       d.currency, d.client_ip, d.created_at
+                FROM debited d
+            ), recorded AS (
+                INSERT INTO bankapp.idempotency_keys (user_id, operation, idempotency_key, account_id, account_number,
+                                                      currency, amount, new_balance, transaction_id, transaction_timestamp)
+                SELECT d.user_id, 'WITHDRAWAL', d.idempotency_key, d.account_id, d.account_number, d.currency,
+                       d.amount, d.new_balance, d.transaction_id, d.created_at
+                FROM debited d
+                WHERE d.idempotency_key IS NOT NULL
+                ON CONFLICT DO NOTHING
+            ), notified AS (
+                SELECT u.id FROM updated u, LATERAL pg_notify('bankapp_balance_changed', CAST(u.user_id AS text))
+            )
+            SELECT (SELECT COUNT(*) FROM debited) AS applied, (SELECT COUNT(*) FROM notified) AS notified
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AccountEngineRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<AccountSnapshot> findAccountByUserId(long userId) {
+        return jdbcTemplate.query(FIND_ACCOUNT_SQL, (row, rowNum) -> new AccountSnapshot(
+                row.getLong("id"),
+                row.getString("account_number"),
+                row.getString("currency"),
+                row.getString("status"),
+                row.getBigDecimal("balance")), userId).stream().findFirst();
+    }
+
+    // Devuelve cuántos registros del lote se aplicaron (los demás ya estaban aplicados o su cuenta no existe).
+    public int applyWithdrawals(List<JournalRecord> records) {
+        int size = records.size();
+        Integer[] indexes = new Integer[size];
+        String[] transactionIds = new String[size];
+        Long[] accountIds = new Long[size];
+        Long[] userIds = new Long[size];
+        String[] accountNumbers = new String[size];
+        String[] currencies = new String[size];
+        BigDecimal[] amounts = new BigDecimal[size];
+        BigDecimal[] newBalances = new BigDecimal[size];
+        Long[] timestamps = new Long[size];
+        String[] clientIps = new String[size];
+        String[] idempotencyKeys = new String[size];
+        for (int i = 0; i < size; i++) {
+            JournalRecord record = records.get(i);
+            indexes[i] = i;
+            transactionIds[i] = record.transactionId();
+            accountIds[i] = record.accountId();
+            userIds[i] = record.userId();
+            accountNumbers[i] = record.accountNumber();
+            currencies[i] = record.currency();
+            amounts[i] = record.amount();
+            newBalances[i] = record.newBalance();
+            timestamps[i] = record.timestampMillis();
+            clientIps[i] = record.clientIp();
+            idempotencyKeys[i] = record.idempotencyKey();
+        }
+
+        List<Integer> applied = jdbcTemplate.query(APPLY_WITHDRAWALS_SQL, statement -> {
+            Connection connection = statement.getConnection();
+            statement.setArray(1, connection.createArrayOf("int4", indexes));
+            statement.setArray(2, connection.createArrayOf("varchar", transactionIds));
+            statement.setArray(3, connection.createArrayOf("int8", accountIds));
+            statement.setArray(4, connection.createArrayOf("int8", userIds));
+            statement.setArray(5, connection.createArrayOf("varchar", accountNumbers));
+            statement.setArray(6, connection.createArrayOf("varchar", currencies));
+            statement.setArray(7, connection.createArrayOf("numeric", amounts));
+            statement.setArray(8, connection.createArrayOf("numeric", newBalances));
+            statement.setArray(9, connection.createArrayOf("int8", timestamps));
+            statement.setArray(10, connection.createArrayOf("varchar", clientIps));
+            statement.setArray(11, connection.createArrayOf("varchar", idempotencyKeys));
+        }, (row, rowNum) -> row.getInt("applied"));
+        return applied.isEmpty() ? 0 : applied.get(0);
+    }
+
+    // Si la base de datos responde; distingue un lote que falla por sí mismo de una caída de PostgreSQL.
+    public boolean isReachable() {
+        try {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    public record AccountSnapshot(long accountId, String accountNumber, String currency, String status, BigDecimal balance) {
+    }
+}
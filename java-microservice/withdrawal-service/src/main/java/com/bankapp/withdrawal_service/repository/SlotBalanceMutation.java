@@ -0,0 +1,39 @@
+package com.bankapp.withdrawal_service.repository;
+
+import com.bankapp.core.slots.SlotMutation;
+
+/**
+ * Resultado de {@link com.bankapp.core.slots.BalanceSlots} con la forma de la sentencia sobre
+ * {@code bankapp.accounts}, para que el servicio lo trate igual.
+ */
+public record SlotBalanceMutation(SlotMutation mutation) implements AccountBalanceMutation {
+    @Override
+    public Long getAccountId() {
+        return mutation.accountId();
+    }
+
+    @Override
+    public String getAccountNumber() {
+        return mutation.accountNumber();
+    }
+
+    @Override
+    public String getCurrency() {
+        return mutation.currency();
+    }
+
+    @Override
+    public String getStatus() {
+        return mutation.status();
+    }
+
+    @Override
+    public Long getBalanceUnits() {
+        return mutation.balanceUnits();
+    }
+
+    @Override
+    public Boolean getApplied() {
+        return mutation.applied();
+    }
+}
@@ -0,0 +1,187 @@
+package com.bankapp.withdrawal_service.service;
+
+import com.bankapp.core.exception.IdempotencyKeyReuseException;
+import com.bankapp.core.model.Money;
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.result.Rejection;
+import com.bankapp.core.utils.TransactionIdGenerator;
+import com.bankapp.core.utils.TransactionLogger;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.bankapp.withdrawal_service.engine.AccountEngine;
+import com.bankapp.withdrawal_service.engine.EngineDecision;
+import com.bankapp.withdrawal_service.utils.OperationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Modo opcional que decide los retiros en {@link AccountEngine} en lugar de en PostgreSQL: la respuesta sale
+ * en cuanto el retiro está en el journal del shard, y el UPDATE y el INSERT en el libro mayor se aplican
+ * después en segundo plano. Las validaciones, la auditoría y los mensajes son los de {@link DefaultWithdrawalService}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "bankapp.withdrawal.engine", name = "enabled", havingValue = "true")
+public class AccountEngineWithdrawalService implements WithdrawalService {
+    private static final Logger serviceLog = LoggerFactory.getLogger(AccountEngineWithdrawalService.class);
+
+    private final DefaultWithdrawalService withdrawalService;
+    private final AccountEngine accountEngine;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TransactionLogger transactionLogger;
+    private final OperationMetrics operationMetrics;
+    private final long responseTimeoutMs;
+
+    @Autowired
+    public AccountEngineWithdrawalService(DefaultWithdrawalService withdrawalService, AccountEngine accountEngine,
+                                          TransactionIdGenerator transactionIdGenerator, TransactionLogger transactionLogger,
+                                          OperationMetrics operationMetrics,
+                                          @Value("${bankapp.withdrawal.engine.response-timeout-ms:5000}") long responseTimeoutMs) {
+        this.withdrawalService = withdrawalService;
+        this.accountEngine = accountEngine;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.transactionLogger = transactionLogger;
+        this.operationMetrics = operationMetrics;
+        this.responseTimeoutMs = responseTimeoutMs;
+    }
+
+    @Override
+    public OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> performWithdrawal(Long userId, long amountUnits, String clientIp, String idempotencyKey) {
+        if (userId == null || amountUnits <= 0) {
+            // La validación y su traza quedan a cargo del servicio por defecto.
+            return withdrawalService.performWithdrawal(userId, amountUnits, clientIp, idempotencyKey);
+        }
+        // El motor y su journal llevan BigDecimal; la conversión queda en este borde.
+        BigDecimal amount = BigDecimal.valueOf(amountUnits, Money.SCALE);
+
+        long started = System.nanoTime();
+        long validated = 0L;
+        long decided = 0L;
+        long journaled = 0L;
+        long audited = 0L;
+        OperationMetrics.Outcome outcome = OperationMetrics.Outcome.SUCCESS;
+
+        serviceLog.info("Attempting withdrawal: userId={}, amount={}", userId, Money.format(amountUnits));
+
+        try {
+            String transactionId = transactionIdGenerator.nextTransactionId(DefaultWithdrawalService.TRANSACTION_ID_PREFIX);
+            Instant transactionTimestamp = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+            validated = System.nanoTime();
+
+            EngineDecision decision = await(userId,
+                    accountEngine.withdraw(userId, amount, clientIp, idempotencyKey, transactionId, transactionTimestamp));
+            if (decision == null) {
+                String message = String.format("Withdrawal for user %s was not decided within %d ms and was discarded.", userId, responseTimeoutMs);
+                transactionLogger.logTransaction(userId, "WITHDRAWAL", null, amountUnits, null, "NOT_APPLIED", clientIp, message);
+                outcome = OperationMetrics.Outcome.NOT_APPLIED;
+                return rejected(userId, Rejection.NOT_APPLIED, message);
+            }
+            decided = decision.decidedAt();
+            journaled = decision.journaledAt();
+            Long accountId = decision.accountId();
+            String currency = decision.currency();
+            String logMessage;
+
+            switch (decision.status()) {
+                case ACCOUNT_NOT_FOUND -> {
+                    logMessage = String.format("No account found for user %s to perform withdrawal.", userId);
+                    transactionLogger.logTransaction(userId, "WITHDRAWAL", null, amountUnits, null, "ACCOUNT_NOT_FOUND", clientIp, logMessage);
+                    outcome = OperationMetrics.Outcome.ACCOUNT_NOT_FOUND;
+                    return rejected(userId, Rejection.ACCOUNT_NOT_FOUND, logMessage);
+                }
+                case ACCOUNT_INACTIVE -> {
+                    logMessage = String.format("Withdrawal failed: Account %s (User: %s) is not active. Current status: %s.",
+                            accountId, userId, decision.accountStatus());
+                    transactionLogger.logTransaction(userId, "WITHDRAWAL", accountId, amountUnits, currency, "ACCOUNT_INACTIVE", clientIp, logMessage);
+                    outcome = OperationMetrics.Outcome.ACCOUNT_INACTIVE;
+                    return rejected(userId, Rejection.ACCOUNT_INACTIVE, logMessage);
+                }
+                case INSUFFICIENT_FUNDS -> {
+                    logMessage = String.format("Withdrawal failed: Insufficient funds in account %s (User: %s). Balance: %s, Requested: %s.",
+                            accountId, userId, decision.balance().toPlainString(), Money.format(amountUnits));
+                    transactionLogger.logTransaction(userId, "WITHDRAWAL", accountId, amountUnits, currency, "INSUFFICIENT_FUNDS", clientIp, logMessage);
+                    outcome = OperationMetrics.Outcome.INSUFFICIENT_FUNDS;
+                    return rejected(userId, Rejection.INSUFFICIENT_FUNDS, logMessage);
+                }
+                case REPLAYED -> {
+                    // La clave ya estaba registrada en la base de datos: se responde con el resultado almacenado.
+                    transactionLogger.logTransaction(userId, "WITHDRAWAL", accountId, amountUnits, currency, "DUPLICATE_REQUEST", clientIp,
+                            "Withdrawal with Idempotency-Key {} was already applied for user {}.", idempotencyKey, userId);
+                    outcome = OperationMetrics.Outcome.DUPLICATE_REQUEST;
+                    return OperationResult.success(DefaultWithdrawalService.buildSuccessResponse(accountId, decision.accountNumber(),
+                            Money.of(decision.balance(), currency), Money.of(decision.amount(), currency), decision.transactionId(),
+                            decision.transactionTimestamp()));
+                }
+                case APPLIED -> {
+                    // Se audita y se responde abajo.
+                }
+            }
+
+            transactionLogger.logTransaction(userId, "WITHDRAWAL", accountId, amountUnits, currency, "SUCCESS", clientIp,
+                    "Withdrawal of {} {} successful from account {} (User: {}, AccountNumber: {}). New balance: {}.",
+                    amount, currency, accountId, userId, decision.accountNumber(), decision.balance());
+            audited = System.nanoTime();
+
+            return OperationResult.success(DefaultWithdrawalService.buildSuccessResponse(accountId, decision.accountNumber(),
+                    Money.of(decision.balance(), currency), Money.ofUnits(amountUnits, currency), decision.transactionId(),
+                    decision.transactionTimestamp()));
+
+        } catch (IdempotencyKeyReuseException e) {
+            // El shard detectó la clave con otro monto; el 422 lo arma GlobalExceptionHandler.
+            outcome = OperationMetrics.Outcome.of(e);
+            serviceLog.warn("Withdrawal rejected for user {}: {}", userId, e.getMessage());
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = OperationMetrics.Outcome.of(e);
+            transactionLogger.logTransaction(userId, "WITHDRAWAL", null, amountUnits, null, "SYSTEM_ERROR", clientIp,
+                    "Unexpected error during withdrawal for user {}: {}", userId, e.getMessage());
+            serviceLog.error("Unexpected error during withdrawal for user {}: {}", userId, e.getMessage(), e);
+            throw e;
+        } finally {
+            // ACCOUNT_UPDATE mide la espera hasta la decisión del shard y LEDGER la escritura del journal.
+            operationMetrics.recordService(outcome, started, validated, decided, journaled, audited);
+        }
+    }
+
+    // Devuelve null si el retiro se descartó por tiempo de espera sin tocar la cuenta.
+    private EngineDecision await(Long userId, CompletableFuture<EngineDecision> decision) {
+        try {
+            try {
+                return decision.get(responseTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (decision.cancel(false)) {
+                    return null;
+                }
+                // El shard ya descontó el monto (o acaba de decidir): la respuesta llega al terminar el journal.
+                serviceLog.warn("Engine withdrawal for user {} still being journaled after {} ms, waiting for the outcome.", userId, responseTimeoutMs);
+                return decision.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Engine withdrawal failed for user " + userId, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the withdrawal engine for user " + userId, e);
+        }
+    }
+
+    private static <T> OperationResult<T> rejected(Long userId, Rejection reason, String message) {
+        serviceLog.warn("Withdrawal rejected for user {}: {}", userId, message);
+        return OperationResult.rejected(reason, message);
+    }
+}
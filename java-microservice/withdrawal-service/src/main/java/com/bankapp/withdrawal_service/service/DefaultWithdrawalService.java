@@ -1,129 +1,203 @@
 package com.bankapp.withdrawal_service.service;
 
-import com.bankapp.withdrawal_service.dto.AccountTransactionResponseDataDTO;
-import com.bankapp.withdrawal_service.dto.ApiResponseDTO;
-import com.bankapp.withdrawal_service.exception.*;
-import com.bankapp.withdrawal_service.model.Account;
+import com.bankapp.core.model.LedgerEntry;
+import com.bankapp.core.model.Money;
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.result.Rejection;
+import com.bankapp.core.slots.BalanceSlots;
+import com.bankapp.core.utils.TransactionIdGenerator;
+import com.bankapp.core.utils.TransactionLogger;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.bankapp.withdrawal_service.repository.AccountBalanceMutation;
 import com.bankapp.withdrawal_service.repository.AccountRepository;
-import com.bankapp.withdrawal_service.utils.TransactionLogger;
+import com.bankapp.withdrawal_service.repository.LedgerEntryRepository;
+import com.bankapp.withdrawal_service.repository.SlotBalanceMutation;
+import com.bankapp.withdrawal_service.utils.OperationMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.Objects;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
 
 @Service
 public class DefaultWithdrawalService implements WithdrawalService {
     private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TransactionLogger transactionLogger;
+    private final OperationMetrics operationMetrics;
+    private final BalanceSlots balanceSlots;
     private static final Logger serviceLog = LoggerFactory.getLogger(DefaultWithdrawalService.class);
+    private static final int MAX_CLIENT_IP_LENGTH = 45;
+    static final String TRANSACTION_ID_PREFIX = "pg_txn_wdr_";
 
     @Autowired
-    public DefaultWithdrawalService(AccountRepository accountRepository) {
+    public DefaultWithdrawalService(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository,
+                                    TransactionIdGenerator transactionIdGenerator, TransactionLogger transactionLogger,
+                                    OperationMetrics operationMetrics, BalanceSlots balanceSlots) {
         this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.transactionLogger = transactionLogger;
+        this.operationMetrics = operationMetrics;
+        this.balanceSlots = balanceSlots;
     }
 
+    // Los rechazos esperados (monto inválido, cuenta inexistente o inactiva, fondos insuficientes) se devuelven
+    // como OperationResult sin lanzar excepciones; la transacción confirma sin cambios en ese caso.
     @Override
     @Transactional
-    public ApiResponseDTO<AccountTransactionResponseDataDTO> performWithdrawal(Long userId, BigDecimal amount, String clientIp) {
-        String userIdForLog = Objects.toString(userId, "N/A_IN_SERVICE");
-        String amountForLog = (amount != null) ? amount.toPlainString() : "N/A";
-        String accountIdForLog = "N/A_UNTIL_FETCHED";
-        Account account = null;
+    public OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> performWithdrawal(Long userId, long amountUnits, String clientIp, String idempotencyKey) {
+        Long accountId = null;
+        String currency = null;
 
-        String operationStatus;
         String logMessage;
 
-        serviceLog.info("Attempting withdrawal: userId={}, amount={}", userIdForLog, amountForLog);
+        // Marcas de fin de cada etapa para OperationMetrics (0 = etapa no completada).
+        long started = System.nanoTime();
+        long validated = 0L;
+        long updated = 0L;
+        long recorded = 0L;
+        long audited = 0L;
+        OperationMetrics.Outcome outcome = OperationMetrics.Outcome.SUCCESS;
+
+        serviceLog.info("Attempting withdrawal: userId={}, amount={}", userId, Money.format(amountUnits));
 
         try {
             if (userId == null) {
                 logMessage = "User ID not provided for withdrawal (X-User-ID header may be missing).";
-                operationStatus = "INVALID_ATTEMPT";
-                TransactionLogger.logTransaction(userIdForLog, "WITHDRAWAL", accountIdForLog, amountForLog, "N/A", operationStatus, logMessage, clientIp);
-                throw new InvalidInputException(logMessage);
+                transactionLogger.logTransaction(null, "WITHDRAWAL", null, amountUnits, null, "INVALID_ATTEMPT", clientIp, logMessage);
+                outcome = OperationMetrics.Outcome.INVALID_INPUT;
+                return rejected(userId, Rejection.INVALID_INPUT, logMessage);
             }
 
-            if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-                logMessage = String.format("Invalid withdrawal amount: %s. Amount must be positive.", amountForLog);
-                operationStatus = "INVALID_ATTEMPT";
-                TransactionLogger.logTransaction(userIdForLog, "WITHDRAWAL", accountIdForLog, amountForLog, "N/A", operationStatus, logMessage, clientIp);
-                throw new InvalidInputException(logMessage);
+            if (amountUnits <= 0) {
+                logMessage = String.format("Invalid withdrawal amount: %s. Amount must be positive.", Money.format(amountUnits));
+                transactionLogger.logTransaction(userId, "WITHDRAWAL", null, amountUnits, null, "INVALID_ATTEMPT", clientIp, logMessage);
+                outcome = OperationMetrics.Outcome.INVALID_INPUT;
+                return rejected(userId, Rejection.INVALID_INPUT, logMessage);
             }
 
-            final String initialAccountIdForLog = accountIdForLog;
-            account = accountRepository.findByUserId(userId)
-                    .orElseThrow(() -> {
-                        String msg = String.format("No account found for user %s to perform withdrawal.", userIdForLog);
-                        TransactionLogger.logTransaction(userIdForLog, "WITHDRAWAL", initialAccountIdForLog, amountForLog, "N/A", "ACCOUNT_NOT_FOUND", msg, clientIp);
-                        return new ResourceNotFoundException(msg);
-                    });
-
-            accountIdForLog = account.getId().toString();
-
-            if (!"active".equalsIgnoreCase(account.getStatus())) {
-                logMessage = String.format("Withdrawal failed: Account %s (User: %s) is not active. Current status: %s.",
-                        accountIdForLog, userIdForLog, account.getStatus());
-                operationStatus = "ACCOUNT_INACTIVE";
-                TransactionLogger.logTransaction(userIdForLog, "WITHDRAWAL", accountIdForLog, amountForLog, account.getCurrency(), operationStatus, logMessage, clientIp);
-                throw new AccountNotActiveException(logMessage);
+            String transactionId = transactionIdGenerator.nextTransactionId(TRANSACTION_ID_PREFIX);
+            Instant transactionTimestamp = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+            validated = System.nanoTime();
+
+            Optional<AccountBalanceMutation> result = applyWithdrawal(userId, amountUnits, idempotencyKey, transactionId, transactionTimestamp);
+            updated = System.nanoTime();
+            if (result.isEmpty()) {
+                logMessage = String.format("No account found for user %s to perform withdrawal.", userId);
+                transactionLogger.logTransaction(userId, "WITHDRAWAL", null, amountUnits, null, "ACCOUNT_NOT_FOUND", clientIp, logMessage);
+                outcome = OperationMetrics.Outcome.ACCOUNT_NOT_FOUND;
+                return rejected(userId, Rejection.ACCOUNT_NOT_FOUND, logMessage);
             }
 
-            BigDecimal currentBalance = account.getBalance();
-            if (currentBalance.compareTo(amount) < 0) {
+            AccountBalanceMutation mutation = result.get();
+            accountId = mutation.getAccountId();
+            currency = mutation.getCurrency();
+
+            if (!Boolean.TRUE.equals(mutation.getApplied())) {
+                if (!"active".equalsIgnoreCase(mutation.getStatus())) {
+                    logMessage = String.format("Withdrawal failed: Account %s (User: %s) is not active. Current status: %s.",
+                            accountId, userId, mutation.getStatus());
+                    transactionLogger.logTransaction(userId, "WITHDRAWAL", accountId, amountUnits, currency, "ACCOUNT_INACTIVE", clientIp, logMessage);
+                    outcome = OperationMetrics.Outcome.ACCOUNT_INACTIVE;
+                    return rejected(userId, Rejection.ACCOUNT_INACTIVE, logMessage);
+                }
+
                 logMessage = String.format("Withdrawal failed: Insufficient funds in account %s (User: %s). Balance: %s, Requested: %s.",
-                        accountIdForLog, userIdForLog, currentBalance.toPlainString(), amountForLog);
-                operationStatus = "INSUFFICIENT_FUNDS";
-                TransactionLogger.logTransaction(userIdForLog, "WITHDRAWAL", accountIdForLog, amountForLog, account.getCurrency(), operationStatus, logMessage, clientIp);
-                throw new InsufficientFundsException(logMessage);
+                        accountId, userId, Money.format(mutation.getBalanceUnits()), Money.format(amountUnits));
+                transactionLogger.logTransaction(userId, "WITHDRAWAL", accountId, amountUnits, currency, "INSUFFICIENT_FUNDS", clientIp, logMessage);
+                outcome = OperationMetrics.Outcome.INSUFFICIENT_FUNDS;
+                return rejected(userId, Rejection.INSUFFICIENT_FUNDS, logMessage);
             }
 
-            BigDecimal newBalance = currentBalance.subtract(amount);
-            account.setBalance(newBalance);
-            accountRepository.save(account);
-
-            operationStatus = "SUCCESS";
-            logMessage = String.format("Withdrawal of %s %s successful from account %s (User: %s, AccountNumber: %s). New balance: %s.",
-                    amountForLog, account.getCurrency(), accountIdForLog, userIdForLog, account.getAccountNumber(), newBalance.toPlainString());
-
-            TransactionLogger.logTransaction(userIdForLog, "WITHDRAWAL", accountIdForLog, amountForLog, account.getCurrency(), operationStatus, logMessage, clientIp);
+            // El monto y el saldo llegan en diezmilésimas desde la solicitud y la sentencia; no hay BigDecimal en el camino.
+            Money newBalance = Money.ofUnits(mutation.getBalanceUnits(), currency);
+            Money applied = Money.ofUnits(amountUnits, currency);
+            ledgerEntryRepository.save(ledgerEntry(userId, accountId, applied, newBalance, clientIp, transactionId, transactionTimestamp));
+            recorded = System.nanoTime();
 
-            AccountTransactionResponseDataDTO dataDto = AccountTransactionResponseDataDTO.builder()
-                    .message("El retiro de la cuenta PostgreSQL fue completado.")
-                    .accountId(accountIdForLog)
-                    .accountNumber(account.getAccountNumber())
-                    .newBalance(newBalance)
-                    .currency(account.getCurrency())
-                    .amountWithdrawn(amount)
-                    .transactionId("pg_txn_wdr_" + System.currentTimeMillis())
-                    .transactionTimestamp(Instant.now().toString())
-                    .build();
+            transactionLogger.logTransaction(userId, "WITHDRAWAL", accountId, amountUnits, currency, "SUCCESS", clientIp,
+                    "Withdrawal of {} {} successful from account {} (User: {}, AccountNumber: {}). New balance: {}.",
+                    applied, currency, accountId, userId, mutation.getAccountNumber(), newBalance);
+            audited = System.nanoTime();
 
-            return ApiResponseDTO.success(dataDto, "Retiro procesado exitosamente desde Java.");
+            return OperationResult.success(buildSuccessResponse(accountId, mutation.getAccountNumber(), newBalance, applied, transactionId, transactionTimestamp));
 
         } catch (Exception e) {
-            if (!(e instanceof InvalidInputException ||
-                    e instanceof ResourceNotFoundException ||
-                    e instanceof AccountNotActiveException ||
-                    e instanceof InsufficientFundsException)) {
-
-                logMessage = "Unexpected error during withdrawal for user " + userIdForLog + ": " + e.getMessage();
-                String currencyForErrorLog = "N/A";
-                if (account != null) {
-                    currencyForErrorLog = account.getCurrency();
-                }
-
-                TransactionLogger.logTransaction(userIdForLog, "WITHDRAWAL",
-                        accountIdForLog.equals("N/A_UNTIL_FETCHED") ? null : accountIdForLog,
-                        amountForLog, currencyForErrorLog, "SYSTEM_ERROR", logMessage, clientIp);
-                serviceLog.error("Unexpected error during withdrawal for user {}: {}", userIdForLog, e.getMessage(), e);
+            outcome = OperationMetrics.Outcome.of(e);
+            if (idempotencyKey != null && e instanceof DataIntegrityViolationException) {
+                // La clave ya estaba registrada: IdempotencyService responde con el resultado almacenado.
+                transactionLogger.logTransaction(userId, "WITHDRAWAL", accountId, amountUnits, currency, "DUPLICATE_REQUEST", clientIp,
+                        "Withdrawal with Idempotency-Key {} was already applied for user {}.", idempotencyKey, userId);
+                serviceLog.warn("Duplicate withdrawal for user {} with Idempotency-Key {}", userId, idempotencyKey);
             } else {
-                serviceLog.warn("Controlled exception during withdrawal for user {}: {}", userIdForLog, e.getMessage());
+                transactionLogger.logTransaction(userId, "WITHDRAWAL", accountId, amountUnits, currency, "SYSTEM_ERROR", clientIp,
+                        "Unexpected error during withdrawal for user {}: {}", userId, e.getMessage());
+                serviceLog.error("Unexpected error during withdrawal for user {}: {}", userId, e.getMessage(), e);
             }
             throw e;
+        } finally {
+            operationMetrics.recordService(outcome, started, validated, updated, recorded, audited);
         }
     }
+
+    // Las cuentas repartidas en slots (BalanceSlots) no bloquean la fila de la cuenta; si la cuenta dejó de
+    // estarlo desde la última lectura del índice se usa la sentencia normal.
+    private Optional<AccountBalanceMutation> applyWithdrawal(Long userId, long amountUnits, String idempotencyKey, String transactionId,
+                                                           Instant transactionTimestamp) {
+        BalanceSlots.SlotAccount slotAccount = balanceSlots.find(userId);
+        if (slotAccount != null) {
+            Optional<AccountBalanceMutation> result = balanceSlots.withdraw(slotAccount, amountUnits, idempotencyKey, transactionId, transactionTimestamp)
+                    .filter(mutation -> mutation.sharded())
+                    .map(SlotBalanceMutation::new);
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return accountRepository.withdrawIfSufficientFunds(userId, amountUnits, idempotencyKey, transactionId, transactionTimestamp);
+    }
+
+    private static <T> OperationResult<T> rejected(Long userId, Rejection reason, String message) {
+        serviceLog.warn("Withdrawal rejected for user {}: {}", userId, message);
+        return OperationResult.rejected(reason, message);
+    }
+
+    // El INSERT queda en la acción pendiente de Hibernate y sale en el lote JDBC del flush al confirmar.
+    static LedgerEntry ledgerEntry(Long userId, Long accountId, Money amount, Money balanceAfter, String clientIp,
+                                   String transactionId, Instant transactionTimestamp) {
+        return LedgerEntry.builder()
+                .transactionId(transactionId)
+                .accountId(accountId)
+                .userId(userId)
+                .operation("WITHDRAWAL")
+                .amount(amount)
+                .balanceAfter(balanceAfter)
+                .clientIp(clientIp != null && clientIp.length() > MAX_CLIENT_IP_LENGTH ? clientIp.substring(0, MAX_CLIENT_IP_LENGTH) : clientIp)
+                .createdAt(transactionTimestamp.atOffset(ZoneOffset.UTC))
+                .build();
+    }
+
+    static ApiResponseDTO<AccountTransactionResponseDataDTO> buildSuccessResponse(Long accountId, String accountNumber, Money newBalance,
+                                                                                   Money amount, String transactionId, Instant transactionTimestamp) {
+        AccountTransactionResponseDataDTO dataDto = AccountTransactionResponseDataDTO.builder()
+                .message("El retiro de la cuenta PostgreSQL fue completado.")
+                .accountId(accountId.toString())
+                .accountNumber(accountNumber)
+                .newBalance(newBalance)
+                .currency(newBalance.currency())
+                .amountWithdrawn(amount)
+                .transactionId(transactionId)
+                .transactionTimestamp(transactionTimestamp.toString())
+                .build();
+
+        return ApiResponseDTO.success(dataDto, "Retiro procesado exitosamente desde Java.");
+    }
 }
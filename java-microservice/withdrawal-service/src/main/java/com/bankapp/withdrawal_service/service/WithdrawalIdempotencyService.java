@@ -0,0 +1,33 @@
+package com.bankapp.withdrawal_service.service;
+
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
+import com.bankapp.core.idempotency.IdempotencyService;
+import com.bankapp.core.model.IdempotencyRecord;
+import com.bankapp.core.model.Money;
+import com.bankapp.withdrawal_service.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Control de idempotencia de los retiros enviados con el header {@code Idempotency-Key}.
+ */
+@Service
+public class WithdrawalIdempotencyService extends IdempotencyService<ApiResponseDTO<AccountTransactionResponseDataDTO>> {
+
+    @Autowired
+    public WithdrawalIdempotencyService(IdempotencyRecordRepository recordRepository,
+                                        @Value("${bankapp.idempotency.maximum-size:100000}") long maximumSize,
+                                        @Value("${bankapp.idempotency.ttl-ms:600000}") long ttlMs,
+                                        @Value("${bankapp.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        super("WITHDRAWAL", recordRepository::findByUserIdAndOperationAndIdempotencyKey, maximumSize, ttlMs, waitTimeoutMs);
+    }
+
+    @Override
+    protected ApiResponseDTO<AccountTransactionResponseDataDTO> toResponse(IdempotencyRecord record) {
+        return DefaultWithdrawalService.buildSuccessResponse(record.getAccountId(), record.getAccountNumber(),
+                Money.of(record.getNewBalance(), record.getCurrency()), Money.of(record.getAmount(), record.getCurrency()),
+                record.getTransactionId(), record.getTransactionTimestamp().toInstant());
+    }
+}
@@ -1,10 +1,10 @@
 package com.bankapp.withdrawal_service.service;
 
-import com.bankapp.withdrawal_service.dto.AccountTransactionResponseDataDTO;
-import com.bankapp.withdrawal_service.dto.ApiResponseDTO;
-
-import java.math.BigDecimal;
+import com.bankapp.core.result.OperationResult;
+import com.bankapp.core.dto.AccountTransactionResponseDataDTO;
+import com.bankapp.core.dto.ApiResponseDTO;
 
 public interface WithdrawalService {
-    ApiResponseDTO<AccountTransactionResponseDataDTO> performWithdrawal(Long userId, BigDecimal amount, String clientIp);
+    // amountUnits: monto en diezmilésimas (Money#units), tal como lo entrega AmountRequestDTO.
+    OperationResult<ApiResponseDTO<AccountTransactionResponseDataDTO>> performWithdrawal(Long userId, long amountUnits, String clientIp, String idempotencyKey);
 }
@@ -0,0 +1,63 @@
+package com.bankapp.withdrawal_service.service;
+
+import com.bankapp.core.model.Money;
+import com.bankapp.core.utils.TimedJsonHttpMessageConverter;
+import com.bankapp.core.utils.TransactionIdGenerator;
+import com.bankapp.core.warmup.WarmUpTask;
+import com.bankapp.withdrawal_service.repository.AccountBalanceMutation;
+import com.bankapp.withdrawal_service.repository.AccountRepository;
+import com.bankapp.withdrawal_service.repository.LedgerEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Camino del retiro sin auditoría ni métricas: búsqueda por user_id, UPDATE condicional, INSERT en el libro
+ * mayor y serialización de la respuesta.
+ */
+@Component
+public class WithdrawalWarmUpTask implements WarmUpTask {
+    // 1.0000 en diezmilésimas.
+    private static final long AMOUNT_UNITS = 10_000L;
+    private static final String CLIENT_IP = "127.0.0.1";
+
+    private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TimedJsonHttpMessageConverter jsonConverter;
+
+    @Autowired
+    public WithdrawalWarmUpTask(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository,
+                                TransactionIdGenerator transactionIdGenerator, TimedJsonHttpMessageConverter jsonConverter) {
+        this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.jsonConverter = jsonConverter;
+    }
+
+    @Override
+    public void warmUp(SyntheticAccount account) {
+        accountRepository.findByUserId(account.userId());
+
+        String transactionId = transactionIdGenerator.nextTransactionId(DefaultWithdrawalService.TRANSACTION_ID_PREFIX);
+        Instant transactionTimestamp = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        AccountBalanceMutation mutation = accountRepository
+                .withdrawIfSufficientFunds(account.userId(), AMOUNT_UNITS, null, transactionId, transactionTimestamp)
+                .orElseThrow(() -> new IllegalStateException("Synthetic warm-up account not found."));
+
+        Money amount = Money.ofUnits(AMOUNT_UNITS, mutation.getCurrency());
+        Money newBalance = Money.ofUnits(mutation.getBalanceUnits(), mutation.getCurrency());
+        ledgerEntryRepository.saveAndFlush(DefaultWithdrawalService.ledgerEntry(account.userId(), mutation.getAccountId(), amount,
+                newBalance, CLIENT_IP, transactionId, transactionTimestamp));
+
+        try {
+            jsonConverter.writeToBytes(DefaultWithdrawalService.buildSuccessResponse(mutation.getAccountId(),
+                    mutation.getAccountNumber(), newBalance, amount, transactionId, transactionTimestamp));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize warm-up withdrawal response.", e);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.bankapp.withdrawal_service.engine;
+
+import com.bankapp.core.exception.IdempotencyKeyReuseException;
+import com.bankapp.withdrawal_service.repository.AccountEngineRepository;
+import com.bankapp.withdrawal_service.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EngineShardTests {
+
+	private static final long USER_ID = 406L;
+
+	@TempDir
+	Path directory;
+
+	private final AccountEngineRepository accountRepository = mock(AccountEngineRepository.class);
+	private final IdempotencyRecordRepository keyRepository = mock(IdempotencyRecordRepository.class);
+	// Registros que el write-behind aplicó, en orden.
+	private final List<JournalRecord> applied = new CopyOnWriteArrayList<>();
+	private final CountDownLatch persistAllowed = new CountDownLatch(1);
+
+	// Saldo en la "base de datos": lo descuentan los retiros aplicados.
+	private final AtomicReference<BigDecimal> storedBalance = new AtomicReference<>(new BigDecimal("100.00"));
+	private final CountDownLatch loadAllowed = new CountDownLatch(1);
+	private EngineShard shard;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		when(accountRepository.findAccountByUserId(USER_ID)).thenAnswer(invocation -> {
+			loadAllowed.await(5, TimeUnit.SECONDS);
+			return Optional.of(new AccountEngineRepository.AccountSnapshot(7L, "0099000001", "USD", "active", storedBalance.get()));
+		});
+		when(keyRepository.findByUserIdAndOperationAndIdempotencyKey(anyLong(), anyString(), anyString())).thenReturn(Optional.empty());
+		when(accountRepository.applyWithdrawals(anyList())).thenAnswer(invocation -> {
+			persistAllowed.await(5, TimeUnit.SECONDS);
+			List<JournalRecord> records = invocation.getArgument(0);
+			for (JournalRecord record : records) {
+				if (record.transactionId().startsWith("POISON")) {
+					throw new DataIntegrityViolationException("value out of range");
+				}
+			}
+			for (JournalRecord record : records) {
+				storedBalance.accumulateAndGet(record.amount(), BigDecimal::subtract);
+			}
+			applied.addAll(records);
+			return records.size();
+		});
+		when(accountRepository.isReachable()).thenReturn(true);
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		loadAllowed.countDown();
+		persistAllowed.countDown();
+		if (shard != null) {
+			shard.stop(1_000);
+		}
+	}
+
+	@Test
+	void concurrentDuplicatesCollapseIntoTheFirstWithdrawal() throws Exception {
+		shard = shard(60_000);
+		loadAllowed.countDown();
+		persistAllowed.countDown();
+		EngineShard.Withdraw first = withdraw("30.00", "key-1", "TX-1");
+		EngineShard.Withdraw duplicate = withdraw("30.00", "key-1", "TX-2");
+		// Los dos llegan antes de que el shard consulte la clave en la base de datos.
+		shard.post(first);
+		shard.post(duplicate);
+		shard.start();
+
+		EngineDecision decided = first.result.get(5, TimeUnit.SECONDS);
+		EngineDecision replayed = duplicate.result.get(5, TimeUnit.SECONDS);
+		assertThat(decided.status()).isEqualTo(EngineDecision.Status.APPLIED);
+		assertThat(replayed.status()).isEqualTo(EngineDecision.Status.REPLAYED);
+		assertThat(replayed.transactionId()).isEqualTo("TX-1");
+		assertThat(replayed.balance()).isEqualByComparingTo("70.00");
+
+		// Solo se descontó una vez: el siguiente retiro ve 70.
+		EngineShard.Withdraw next = withdraw("10.00", null, "TX-3");
+		shard.post(next);
+		assertThat(next.result.get(5, TimeUnit.SECONDS).balance()).isEqualByComparingTo("60.00");
+		verify(keyRepository, times(1)).findByUserIdAndOperationAndIdempotencyKey(anyLong(), anyString(), anyString());
+	}
+
+	@Test
+	void duplicateOfAnUnpersistedWithdrawalIsReplayedFromTheShard() throws Exception {
+		shard = shard(60_000);
+		loadAllowed.countDown();
+		shard.start();
+		EngineShard.Withdraw first = withdraw("30.00", "key-1", "TX-1");
+		shard.post(first);
+		assertThat(first.result.get(5, TimeUnit.SECONDS).status()).isEqualTo(EngineDecision.Status.APPLIED);
+
+		// El write-behind sigue sin aplicar el primero, así que la clave todavía no está en la base de datos.
+		EngineShard.Withdraw duplicate = withdraw("30.00", "key-1", "TX-2");
+		shard.post(duplicate);
+		EngineDecision replayed = duplicate.result.get(5, TimeUnit.SECONDS);
+		assertThat(replayed.status()).isEqualTo(EngineDecision.Status.REPLAYED);
+		assertThat(replayed.transactionId()).isEqualTo("TX-1");
+		assertThat(applied).isEmpty();
+
+		persistAllowed.countDown();
+		waitFor(() -> !applied.isEmpty());
+		assertThat(applied).extracting(JournalRecord::transactionId).containsExactly("TX-1");
+	}
+
+	@Test
+	void reusingAKeyWithAnotherAmountIsRejected() throws Exception {
+		shard = shard(60_000);
+		loadAllowed.countDown();
+		persistAllowed.countDown();
+		EngineShard.Withdraw first = withdraw("30.00", "key-1", "TX-1");
+		EngineShard.Withdraw reused = withdraw("40.00", "key-1", "TX-2");
+		shard.post(first);
+		shard.post(reused);
+		shard.start();
+
+		assertThat(first.result.get(5, TimeUnit.SECONDS).status()).isEqualTo(EngineDecision.Status.APPLIED);
+		assertThatThrownBy(() -> reused.result.get(5, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(IdempotencyKeyReuseException.class);
+	}
+
+	@Test
+	void cancelledWithdrawalIsDiscardedWithoutTouchingTheBalance() throws Exception {
+		shard = shard(60_000);
+		persistAllowed.countDown();
+		shard.start();
+		// La cuenta sigue cargándose cuando el cliente deja de esperar.
+		EngineShard.Withdraw abandoned = withdraw("30.00", "key-1", "TX-1");
+		shard.post(abandoned);
+		assertThat(abandoned.result.cancel(false)).isTrue();
+		loadAllowed.countDown();
+
+		// La clave quedó libre y el saldo intacto.
+		EngineShard.Withdraw retried = withdraw("30.00", "key-1", "TX-2");
+		shard.post(retried);
+		EngineDecision decided = retried.result.get(5, TimeUnit.SECONDS);
+		assertThat(decided.status()).isEqualTo(EngineDecision.Status.APPLIED);
+		assertThat(decided.balance()).isEqualByComparingTo("70.00");
+		waitFor(() -> !applied.isEmpty());
+		assertThat(applied).extracting(JournalRecord::transactionId).containsExactly("TX-2");
+	}
+
+	@Test
+	void withdrawalCannotBeCancelledOnceDebited() throws Exception {
+		shard = shard(60_000);
+		loadAllowed.countDown();
+		persistAllowed.countDown();
+		shard.start();
+		EngineShard.Withdraw first = withdraw("30.00", null, "TX-1");
+		shard.post(first);
+
+		assertThat(first.result.get(5, TimeUnit.SECONDS).status()).isEqualTo(EngineDecision.Status.APPLIED);
+		assertThat(first.result.cancel(false)).isFalse();
+	}
+
+	@Test
+	void idleAccountIsReloadedOnceItsWithdrawalsArePersisted() throws Exception {
+		shard = shard(0);
+		loadAllowed.countDown();
+		persistAllowed.countDown();
+		shard.start();
+		EngineShard.Withdraw first = withdraw("30.00", null, "TX-1");
+		shard.post(first);
+		assertThat(first.result.get(5, TimeUnit.SECONDS).balance()).isEqualByComparingTo("70.00");
+		waitFor(() -> !applied.isEmpty());
+		Thread.sleep(50);
+
+		// La cuenta se olvidó y se vuelve a cargar con el saldo ya aplicado, sin descontar dos veces.
+		EngineShard.Withdraw second = withdraw("10.00", null, "TX-2");
+		shard.post(second);
+		assertThat(second.result.get(5, TimeUnit.SECONDS).balance()).isEqualByComparingTo("60.00");
+		verify(accountRepository, times(2)).findAccountByUserId(USER_ID);
+	}
+
+	@Test
+	void withdrawalThatKeepsFailingIsDeadLettered() throws Exception {
+		shard = shard(60_000);
+		loadAllowed.countDown();
+		persistAllowed.countDown();
+		shard.start();
+		EngineShard.Withdraw poison = withdraw("30.00", "key-1", "POISON-1");
+		shard.post(poison);
+		assertThat(poison.result.get(5, TimeUnit.SECONDS).status()).isEqualTo(EngineDecision.Status.APPLIED);
+		EngineShard.Withdraw healthy = withdraw("10.00", null, "TX-2");
+		shard.post(healthy);
+		assertThat(healthy.result.get(5, TimeUnit.SECONDS).balance()).isEqualByComparingTo("60.00");
+
+		Path deadLetters = directory.resolve(ShardWriter.DEAD_LETTER_DIRECTORY);
+		waitFor(() -> !applied.isEmpty() && !deadLettered(deadLetters).isEmpty());
+		assertThat(applied).extracting(JournalRecord::transactionId).containsExactly("TX-2");
+		assertThat(deadLettered(deadLetters)).extracting(JournalRecord::transactionId).containsExactly("POISON-1");
+
+		// El retiro apartado ya se confirmó: sigue descontado y su clave sigue respondiendo desde el shard.
+		EngineShard.Withdraw duplicate = withdraw("30.00", "key-1", "TX-3");
+		shard.post(duplicate);
+		assertThat(duplicate.result.get(5, TimeUnit.SECONDS).status()).isEqualTo(EngineDecision.Status.REPLAYED);
+	}
+
+	private EngineShard shard(long accountIdleMs) throws IOException {
+		WithdrawalJournal journal = new WithdrawalJournal(directory, 1 << 20);
+		return new EngineShard(0, journal,
+				owner -> new ShardWriter(owner, accountRepository, keyRepository, directory, journal.currentSegment(), 64, 10, 2,
+						new AtomicLong(), new AtomicLong()),
+				64, 100, 60_000, accountIdleMs);
+	}
+
+	private static List<JournalRecord> deadLettered(Path deadLetters) {
+		List<JournalRecord> records = new ArrayList<>();
+		try {
+			for (long number : WithdrawalJournal.segments(deadLetters)) {
+				WithdrawalJournal.read(WithdrawalJournal.segmentPath(deadLetters, number), records::add);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return records;
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private static EngineShard.Withdraw withdraw(String amount, String idempotencyKey, String transactionId) {
+		return new EngineShard.Withdraw(USER_ID, new BigDecimal(amount), "127.0.0.1", idempotencyKey, transactionId, Instant.now());
+	}
+}
@@ -0,0 +1,105 @@
+package com.bankapp.withdrawal_service.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WithdrawalJournalTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsBackWhatWasAppended() throws IOException {
+		JournalRecord first = record("TX-1", "127.0.0.1", "key-1");
+		JournalRecord second = record("TX-2", null, null);
+		JournalRecord third = record("TX-3", "10.0.0.7", null);
+		long segment;
+		try (WithdrawalJournal journal = new WithdrawalJournal(directory, 1 << 20)) {
+			segment = journal.append(List.of(first, second));
+			assertThat(journal.append(List.of(third))).isEqualTo(segment);
+		}
+
+		assertThat(read(segment)).containsExactly(first, second, third);
+	}
+
+	@Test
+	void startsANewSegmentWhenFullAndOnReopen() throws IOException {
+		try (WithdrawalJournal journal = new WithdrawalJournal(directory, 1)) {
+			long first = journal.append(List.of(record("TX-1", null, null)));
+			long second = journal.append(List.of(record("TX-2", null, null)));
+			assertThat(second).isEqualTo(first + 1);
+		}
+		try (WithdrawalJournal reopened = new WithdrawalJournal(directory, 1 << 20)) {
+			assertThat(reopened.currentSegment()).isEqualTo(2);
+		}
+		assertThat(WithdrawalJournal.segments(directory)).containsExactly(0L, 1L, 2L);
+	}
+
+	@Test
+	void discardsATornRecordAtTheEnd() throws IOException {
+		JournalRecord kept = record("TX-1", null, "key-1");
+		long segment;
+		try (WithdrawalJournal journal = new WithdrawalJournal(directory, 1 << 20)) {
+			segment = journal.append(List.of(kept));
+			journal.append(List.of(record("TX-2", null, "key-2")));
+		}
+		// Caída a mitad de la escritura del segundo lote.
+		Path file = WithdrawalJournal.segmentPath(directory, segment);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 5);
+		}
+
+		assertThat(read(segment)).containsExactly(kept);
+	}
+
+	@Test
+	void discardsARecordWithABadChecksumAtTheEnd() throws IOException {
+		JournalRecord kept = record("TX-1", null, null);
+		long segment;
+		try (WithdrawalJournal journal = new WithdrawalJournal(directory, 1 << 20)) {
+			segment = journal.append(List.of(kept));
+			journal.append(List.of(record("TX-2", null, null)));
+		}
+		Path file = WithdrawalJournal.segmentPath(directory, segment);
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 1] ^= 0x7F;
+		Files.write(file, bytes);
+
+		assertThat(read(segment)).containsExactly(kept);
+	}
+
+	@Test
+	void discardsAFrameHeaderWithoutItsRecord() throws IOException {
+		JournalRecord kept = record("TX-1", null, null);
+		long segment;
+		try (WithdrawalJournal journal = new WithdrawalJournal(directory, 1 << 20)) {
+			segment = journal.append(List.of(kept));
+		}
+		// Solo alcanzó a escribirse la longitud del siguiente marco.
+		Files.write(WithdrawalJournal.segmentPath(directory, segment), new byte[] {0, 0, 0, 42}, StandardOpenOption.APPEND);
+
+		assertThat(read(segment)).containsExactly(kept);
+	}
+
+	private List<JournalRecord> read(long segment) throws IOException {
+		List<JournalRecord> records = new ArrayList<>();
+		WithdrawalJournal.read(WithdrawalJournal.segmentPath(directory, segment), records::add);
+		return records;
+	}
+
+	private static JournalRecord record(String transactionId, String clientIp, String idempotencyKey) {
+		return new JournalRecord(406L, 7L, "0099000001", "USD", new BigDecimal("30.00"), new BigDecimal("70.00"),
+				transactionId, 1_760_000_000_000L, clientIp, idempotencyKey);
+	}
+}